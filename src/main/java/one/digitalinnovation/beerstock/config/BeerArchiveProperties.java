@@ -0,0 +1,29 @@
+package one.digitalinnovation.beerstock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "beerstock.archive")
+public class BeerArchiveProperties {
+
+    /**
+     * Beers out of stock for at least this long are archived on every sweep. No beer is archived
+     * automatically when unset.
+     */
+    private Duration outOfStockFor;
+
+    /**
+     * Delay between automatic archive sweeps.
+     */
+    private Duration interval = Duration.ofHours(1);
+
+    /**
+     * Beers moved to the archive per transaction.
+     */
+    private int batchSize = 500;
+}
@@ -0,0 +1,32 @@
+package one.digitalinnovation.beerstock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "beerstock.import")
+public class BeerImportProperties {
+
+    /**
+     * Number of valid rows upserted together. Bounds the memory used by an import
+     * regardless of the size of the file.
+     */
+    private int batchSize = 500;
+
+    /**
+     * Number of rejected rows reported back in detail. Further rejections are only counted.
+     */
+    private int maxReportedRejections = 1000;
+
+    /**
+     * Longest field accepted, in characters. A longer field rejects the whole file.
+     */
+    private int maxFieldLength = 1024;
+
+    /**
+     * Longest record accepted, in characters, separators included. A longer record rejects the whole file.
+     */
+    private int maxRecordLength = 8192;
+}
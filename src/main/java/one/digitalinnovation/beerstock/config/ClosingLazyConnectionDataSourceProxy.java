@@ -0,0 +1,25 @@
+package one.digitalinnovation.beerstock.config;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Lazy connection proxy that closes its target on shutdown, so the pools behind a routing
+ * datasource are released without being exposed as separate {@link DataSource} beans.
+ */
+public class ClosingLazyConnectionDataSourceProxy extends LazyConnectionDataSourceProxy implements Closeable {
+
+    public ClosingLazyConnectionDataSourceProxy(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (getTargetDataSource() instanceof Closeable) {
+            ((Closeable) getTargetDataSource()).close();
+        }
+    }
+}
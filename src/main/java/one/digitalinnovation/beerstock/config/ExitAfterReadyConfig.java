@@ -0,0 +1,27 @@
+package one.digitalinnovation.beerstock.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Shuts the application down as soon as it is ready. Used for the training run that records
+ * the AppCDS archive, which the JVM writes on exit, and by the startup benchmark.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "beerstock.startup", name = "exit-after-ready", havingValue = "true")
+public class ExitAfterReadyConfig {
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void exit(ApplicationReadyEvent event) {
+        log.info("Application is ready, exiting as requested by beerstock.startup.exit-after-ready");
+        System.exit(SpringApplication.exit(event.getApplicationContext()));
+    }
+}
@@ -0,0 +1,25 @@
+package one.digitalinnovation.beerstock.config;
+
+import lombok.Data;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "beerstock.low-stock")
+public class LowStockProperties {
+
+    /**
+     * Fill ratio (quantity / max) under which a beer is considered low on stock.
+     */
+    private double defaultThreshold = 0.2;
+
+    /**
+     * Fill ratio thresholds overriding the default for a whole beer type.
+     */
+    private Map<BeerType, Double> typeThresholds = new EnumMap<>(BeerType.class);
+}
@@ -0,0 +1,88 @@
+package one.digitalinnovation.beerstock.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Sends connections of read-only transactions to the replica and everything else to the primary.
+ * Reads fall back to the primary while the replica is unreachable, and during the configured lag
+ * tolerance after a write of the same client, as tracked by {@link ReadYourWrites}, or when the client
+ * reads from the primary only. Must be wrapped in a {@code LazyConnectionDataSourceProxy}, so the
+ * target is chosen only once the transaction's read-only flag is known.
+ */
+@Slf4j
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final long lagToleranceMillis;
+    private final long retryAfterNanos;
+
+    private volatile long replicaDownUntilNanos = System.nanoTime();
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, Duration lagTolerance, Duration retryAfter) {
+        this.primary = primary;
+        this.replica = replica;
+        this.lagToleranceMillis = lagTolerance.toMillis();
+        this.retryAfterNanos = retryAfter.toNanos();
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        ReadYourWrites.Client client = ReadYourWrites.current();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            client.recordWrite();
+            return Route.PRIMARY;
+        }
+        if (client.isPrimaryOnly() || client.wroteWithin(lagToleranceMillis) || System.nanoTime() - replicaDownUntilNanos < 0) {
+            return Route.PRIMARY;
+        }
+        return Route.REPLICA;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (determineCurrentLookupKey() == Route.PRIMARY) {
+            return primary.getConnection();
+        }
+        try {
+            return replica.getConnection();
+        } catch (SQLException e) {
+            replicaDownUntilNanos = System.nanoTime() + retryAfterNanos;
+            log.warn("Replica unavailable, routing reads to the primary for the next {} ms: {}",
+                    Duration.ofNanos(retryAfterNanos).toMillis(), e.getMessage());
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return getConnection();
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (DataSource target : new DataSource[]{primary, replica}) {
+            if (target instanceof Closeable) {
+                ((Closeable) target).close();
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package one.digitalinnovation.beerstock.config;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Tracks when the client served by the current thread last wrote, so that its reads within the
+ * replica lag tolerance of that write go to the primary and see it. Each HTTP request is bound to
+ * its own client by {@link ReadYourWritesFilter}, which carries the time of the last write to the
+ * next request of the same client in a cookie. Threads that serve no request, such as background
+ * workers, are a client of their own. Work that must not lag behind the primary, such as reconciling
+ * in-memory totals against the database, binds a client that always reads from the primary.
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Client> THREAD_CLIENT = ThreadLocal.withInitial(() -> new Client(null, null, false));
+    private static final ThreadLocal<Client> CURRENT = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    /**
+     * @param lastWriteMillis epoch millis of the last write the client made, or {@code null} when unknown
+     * @param onWrite         notified with the epoch millis of every further write of the client, or {@code null}
+     */
+    public static Client bind(Long lastWriteMillis, LongConsumer onWrite) {
+        Client previous = CURRENT.get();
+        CURRENT.set(new Client(lastWriteMillis, onWrite, false));
+        return previous;
+    }
+
+    /**
+     * Binds the current thread to a client whose reads all go to the primary.
+     *
+     * @return the client bound before, to {@link #restore} afterwards
+     */
+    public static Client bindPrimary() {
+        Client previous = CURRENT.get();
+        CURRENT.set(new Client(null, null, true));
+        return previous;
+    }
+
+    /**
+     * Binds the current thread to a client served by another thread, such as the request a read is
+     * handed off for, so its reads see the writes of that client.
+     *
+     * @return the client bound before, to {@link #restore} afterwards
+     */
+    public static Client bind(Client client) {
+        Client previous = CURRENT.get();
+        CURRENT.set(client);
+        return previous;
+    }
+
+    public static void restore(Client previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    public static Client current() {
+        Client client = CURRENT.get();
+        return client == null ? THREAD_CLIENT.get() : client;
+    }
+
+    public static final class Client {
+
+        private final LongConsumer onWrite;
+        private final boolean primaryOnly;
+        private Long lastWriteMillis;
+
+        private Client(Long lastWriteMillis, LongConsumer onWrite, boolean primaryOnly) {
+            this.lastWriteMillis = lastWriteMillis;
+            this.onWrite = onWrite;
+            this.primaryOnly = primaryOnly;
+        }
+
+        public boolean isPrimaryOnly() {
+            return primaryOnly;
+        }
+
+        public Long getLastWriteMillis() {
+            return lastWriteMillis;
+        }
+
+        public void recordWrite() {
+            lastWriteMillis = System.currentTimeMillis();
+            if (onWrite != null) {
+                onWrite.accept(lastWriteMillis);
+            }
+        }
+
+        public boolean wroteWithin(long toleranceMillis) {
+            return lastWriteMillis != null && System.currentTimeMillis() - lastWriteMillis < toleranceMillis;
+        }
+    }
+}
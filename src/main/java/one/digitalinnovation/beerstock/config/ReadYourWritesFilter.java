@@ -0,0 +1,74 @@
+package one.digitalinnovation.beerstock.config;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binds every request to its client for {@link ReadYourWrites}. A request that writes answers with
+ * a cookie holding the time of its last write, which lives as long as the replica lag tolerance, so
+ * the reads of that client alone keep going to the primary until the replica has caught up.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String LAST_WRITE_COOKIE = "BEERSTOCK_LAST_WRITE";
+
+    private final int cookieMaxAge;
+
+    public ReadYourWritesFilter(Duration lagTolerance) {
+        this.cookieMaxAge = (int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(lagTolerance.toMillis() + 999));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long[] sentWriteMillis = {0};
+        ReadYourWrites.Client previous = ReadYourWrites.bind(lastWriteMillis(request), writeMillis -> {
+            if (sentWriteMillis[0] == 0 && !response.isCommitted()) {
+                sentWriteMillis[0] = writeMillis;
+                response.addCookie(cookie(writeMillis));
+            }
+        });
+        try {
+            chain.doFilter(request, response);
+            Long lastWriteMillis = ReadYourWrites.current().getLastWriteMillis();
+            if (sentWriteMillis[0] != 0 && lastWriteMillis > sentWriteMillis[0] && !response.isCommitted()) {
+                response.addCookie(cookie(lastWriteMillis));
+            }
+        } finally {
+            ReadYourWrites.restore(previous);
+        }
+    }
+
+    /**
+     * The cookie is only a hint for routing, so a time that does not parse is ignored and one in the
+     * future counts as now.
+     */
+    private static Long lastWriteMillis(HttpServletRequest request) {
+        Cookie cookie = WebUtils.getCookie(request, LAST_WRITE_COOKIE);
+        if (cookie == null) {
+            return null;
+        }
+        try {
+            return Math.min(Long.parseLong(cookie.getValue()), System.currentTimeMillis());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private Cookie cookie(long writeMillis) {
+        Cookie cookie = new Cookie(LAST_WRITE_COOKIE, Long.toString(writeMillis));
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setMaxAge(cookieMaxAge);
+        return cookie;
+    }
+}
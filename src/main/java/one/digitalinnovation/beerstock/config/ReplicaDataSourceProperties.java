@@ -0,0 +1,33 @@
+package one.digitalinnovation.beerstock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "beerstock.datasource.replica")
+public class ReplicaDataSourceProperties {
+
+    /**
+     * JDBC url of the read-only replica. Read/write splitting is enabled only when it is set.
+     */
+    private String url;
+
+    private String username;
+
+    private String password;
+
+    private String driverClassName;
+
+    /**
+     * Maximum replication lag tolerated. Read-only transactions of a client started within this
+     * window after a write of that same client are sent to the primary, so clients read their own writes.
+     */
+    private Duration lagTolerance = Duration.ofSeconds(1);
+
+    /**
+     * How long the replica is skipped after a failed connection attempt before it is tried again.
+     */
+    private Duration retryAfter = Duration.ofSeconds(30);
+}
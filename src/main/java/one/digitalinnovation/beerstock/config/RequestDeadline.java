@@ -0,0 +1,85 @@
+package one.digitalinnovation.beerstock.config;
+
+import one.digitalinnovation.beerstock.exception.RequestDeadlineExceededException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the deadline of the request handled by the current thread, as a {@link System#nanoTime()}
+ * instant. Work done for the request checks it before going to the database, and every JDBC
+ * statement gets the time left as its query timeout.
+ */
+public final class RequestDeadline {
+
+    private static final ThreadLocal<Long> CURRENT = new ThreadLocal<>();
+    private static final Duration MAX_TIMEOUT = Duration.ofSeconds(Integer.MAX_VALUE - 1);
+    private static final long MAX_TIMEOUT_NANOS = MAX_TIMEOUT.toNanos();
+
+    private RequestDeadline() {
+    }
+
+    /**
+     * Timeouts longer than the longest JDBC query timeout, about 68 years, are cut down to it, so
+     * the deadline cannot overflow.
+     */
+    public static Long after(Duration timeout) {
+        return System.nanoTime() + (timeout.compareTo(MAX_TIMEOUT) > 0 ? MAX_TIMEOUT_NANOS : timeout.toNanos());
+    }
+
+    /**
+     * @return the deadline of the current thread, or {@code null} when it has none
+     */
+    public static Long current() {
+        return CURRENT.get();
+    }
+
+    public static Long bind(Long deadline) {
+        Long previous = CURRENT.get();
+        restore(deadline);
+        return previous;
+    }
+
+    public static void restore(Long previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * @return the time left until the deadline, which is negative once it has passed, or
+     * {@link Long#MAX_VALUE} when there is no deadline
+     */
+    public static long remainingNanos() {
+        Long deadline = CURRENT.get();
+        return deadline == null ? Long.MAX_VALUE : deadline - System.nanoTime();
+    }
+
+    public static boolean hasPassed() {
+        return remainingNanos() <= 0;
+    }
+
+    public static void check() {
+        if (hasPassed()) {
+            throw new RequestDeadlineExceededException();
+        }
+    }
+
+    /**
+     * JDBC query timeouts are whole seconds, so the time left is rounded up: the database stops
+     * a statement at most a second after the deadline, and the checks made before each statement
+     * keep new ones from starting once it has passed.
+     *
+     * @return the query timeout in seconds, or 0 for none
+     */
+    public static int queryTimeoutSeconds() {
+        long remaining = remainingNanos();
+        if (remaining == Long.MAX_VALUE) {
+            return 0;
+        }
+        long seconds = TimeUnit.NANOSECONDS.toSeconds(Math.min(remaining, MAX_TIMEOUT_NANOS) + TimeUnit.SECONDS.toNanos(1) - 1);
+        return (int) Math.max(1, seconds);
+    }
+}
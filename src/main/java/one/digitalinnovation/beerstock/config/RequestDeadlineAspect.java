@@ -0,0 +1,89 @@
+package one.digitalinnovation.beerstock.config;
+
+import one.digitalinnovation.beerstock.exception.RequestDeadlineExceededException;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.Set;
+
+/**
+ * Enforces the {@link RequestDeadline} of the current thread. Repository calls are refused once
+ * it has passed, statements of connections handed out by the datasource get the time left as
+ * their query timeout, and a timeout that comes out of a service or repository after the
+ * deadline, including one raised while committing, is reported as the deadline being exceeded.
+ * It runs just inside {@link RequestTimingAspect}, outside transactions and shard routing.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class RequestDeadlineAspect {
+
+    private static final Set<String> STATEMENT_FACTORIES = Set.of("createStatement", "prepareStatement", "prepareCall");
+
+    @Around("@within(org.springframework.stereotype.Service)")
+    public Object withinDeadline(ProceedingJoinPoint joinPoint) throws Throwable {
+        return proceedWithinDeadline(joinPoint);
+    }
+
+    @Around("target(org.springframework.data.repository.Repository)")
+    public Object checkDeadline(ProceedingJoinPoint joinPoint) throws Throwable {
+        RequestDeadline.check();
+        return proceedWithinDeadline(joinPoint);
+    }
+
+    @Around("execution(java.sql.Connection javax.sql.DataSource.getConnection(..))")
+    public Object applyQueryTimeouts(ProceedingJoinPoint joinPoint) throws Throwable {
+        Connection connection = (Connection) joinPoint.proceed();
+        return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    boolean createsStatement = STATEMENT_FACTORIES.contains(method.getName());
+                    if (createsStatement && RequestDeadline.hasPassed()) {
+                        throw new SQLTimeoutException("Request deadline passed before the statement was prepared");
+                    }
+                    Object result;
+                    try {
+                        result = method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                    int queryTimeout = RequestDeadline.queryTimeoutSeconds();
+                    if (createsStatement && queryTimeout > 0) {
+                        ((Statement) result).setQueryTimeout(queryTimeout);
+                    }
+                    return result;
+                });
+    }
+
+    private static Object proceedWithinDeadline(ProceedingJoinPoint joinPoint) throws Throwable {
+        try {
+            return joinPoint.proceed();
+        } catch (DataAccessException e) {
+            if (e instanceof RequestDeadlineExceededException || !RequestDeadline.hasPassed() || !isTimeout(e)) {
+                throw e;
+            }
+            throw new RequestDeadlineExceededException(e);
+        }
+    }
+
+    private static boolean isTimeout(DataAccessException e) {
+        return e instanceof QueryTimeoutException || NestedExceptionUtils.getMostSpecificCause(e) instanceof SQLTimeoutException;
+    }
+}
@@ -0,0 +1,32 @@
+package one.digitalinnovation.beerstock.config;
+
+import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Gives beer requests a deadline, see {@link RequestDeadlineInterceptor}, and bounds the database
+ * work done for them by it, see {@link RequestDeadlineAspect}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "beerstock.request-deadline", name = "enabled", havingValue = "true", matchIfMissing = true)
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class RequestDeadlineConfig implements WebMvcConfigurer {
+
+    private final RequestDeadlineProperties properties;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new RequestDeadlineInterceptor(properties))
+                .addPathPatterns("/api/v1/beers", "/api/v1/beers/**");
+    }
+
+    @Bean
+    public static RequestDeadlineAspect requestDeadlineAspect() {
+        return new RequestDeadlineAspect();
+    }
+}
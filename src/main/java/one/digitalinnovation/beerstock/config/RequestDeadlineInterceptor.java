@@ -0,0 +1,78 @@
+package one.digitalinnovation.beerstock.config;
+
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.exception.RequestDeadlineExceededException;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.time.Duration;
+
+/**
+ * Binds the {@link RequestDeadline} of a beer request while its handler runs. The deadline is
+ * the timeout the client sent in the configured header, in milliseconds, or else the default of
+ * the handler method, keyed by {@code Controller#method} since several controllers share method
+ * names, or the general default. A header that is not a number of milliseconds that
+ * fits in a {@code long} is ignored. It is an interceptor rather than a filter because
+ * those defaults depend on the handler. A request that arrives with no time left is refused
+ * before its handler runs.
+ */
+@Slf4j
+public class RequestDeadlineInterceptor implements HandlerInterceptor {
+
+    private static final String BOUND = RequestDeadlineInterceptor.class.getName() + ".BOUND";
+    private static final String PREVIOUS = RequestDeadlineInterceptor.class.getName() + ".PREVIOUS";
+
+    private final RequestDeadlineProperties properties;
+
+    public RequestDeadlineInterceptor(RequestDeadlineProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Duration timeout = timeoutOf(request, handler);
+        if (timeout == null) {
+            return true;
+        }
+        if (timeout.isNegative() || timeout.isZero()) {
+            throw new RequestDeadlineExceededException();
+        }
+        Long previous = RequestDeadline.bind(RequestDeadline.after(timeout));
+        request.setAttribute(BOUND, Boolean.TRUE);
+        if (previous != null) {
+            request.setAttribute(PREVIOUS, previous);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(BOUND) != null) {
+            RequestDeadline.restore((Long) request.getAttribute(PREVIOUS));
+        }
+    }
+
+    private Duration timeoutOf(HttpServletRequest request, Object handler) {
+        String header = request.getHeader(properties.getHeader());
+        if (header != null) {
+            try {
+                return Duration.ofMillis(Long.parseLong(header.trim()));
+            } catch (NumberFormatException e) {
+                log.debug("Ignoring {} header that is not a number of milliseconds: {}", properties.getHeader(), header);
+            }
+        }
+        if (handler instanceof HandlerMethod) {
+            Duration endpointTimeout = properties.getEndpoints().get(endpointOf((HandlerMethod) handler));
+            if (endpointTimeout != null) {
+                return endpointTimeout;
+            }
+        }
+        return properties.getDefaultTimeout();
+    }
+
+    private static String endpointOf(HandlerMethod handler) {
+        return handler.getBeanType().getSimpleName() + "#" + handler.getMethod().getName();
+    }
+}
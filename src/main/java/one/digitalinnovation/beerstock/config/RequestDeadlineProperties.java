@@ -0,0 +1,37 @@
+package one.digitalinnovation.beerstock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "beerstock.request-deadline")
+public class RequestDeadlineProperties {
+
+    /**
+     * Whether beer requests are given a deadline that bounds their database work.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Header in which clients send how many milliseconds they are willing to wait.
+     */
+    private String header = "X-Request-Timeout";
+
+    /**
+     * Deadline of requests that send no header and whose endpoint has none of its own. No
+     * deadline when unset.
+     */
+    private Duration defaultTimeout;
+
+    /**
+     * Deadlines of requests that send no header, by controller and method handling them, such as
+     * {@code endpoints[BeerController#listBeers]=500ms}. The brackets keep the {@code #} in the key.
+     */
+    private Map<String, Duration> endpoints = new HashMap<>();
+}
@@ -0,0 +1,183 @@
+package one.digitalinnovation.beerstock.config;
+
+import one.digitalinnovation.beerstock.enums.RequestPhase;
+
+/**
+ * Splits the time of the request running on the current thread into {@link RequestPhase phases}.
+ * Time is charged to one phase at a time: switching to a nested phase pauses the outer one until
+ * it is switched back, so the phases of a request add up to its total. Each thread reuses a single
+ * timer, and a switch only reads the clock, so timing a request allocates nothing. Outside a timed
+ * request every switch is a no-op. Work a request hands off to another thread and waits for is
+ * timed there by a {@link #startHandOff hand-off timer}, whose phases are then {@link #merge merged}
+ * into the request.
+ */
+public final class RequestTimer {
+
+    private static final RequestPhase[] PHASES = RequestPhase.values();
+    private static final ThreadLocal<RequestTimer> CURRENT = ThreadLocal.withInitial(RequestTimer::new);
+
+    private final long[] nanos = new long[PHASES.length];
+    private final int[] entries = new int[PHASES.length];
+    private RequestPhase phase;
+    private long startedAt;
+    private long switchedAt;
+    private long totalNanos;
+
+    private RequestTimer() {
+    }
+
+    /**
+     * Starts timing a request on the current thread in the {@link RequestPhase#VALIDATION} phase.
+     *
+     * @return the timer of the thread, or {@code null} when a request is already being timed
+     */
+    public static RequestTimer start() {
+        RequestTimer timer = CURRENT.get();
+        if (timer.phase != null) {
+            return null;
+        }
+        for (int i = 0; i < PHASES.length; i++) {
+            timer.nanos[i] = 0;
+            timer.entries[i] = 0;
+        }
+        timer.startedAt = System.nanoTime();
+        timer.switchedAt = timer.startedAt;
+        timer.phase = RequestPhase.VALIDATION;
+        timer.entries[RequestPhase.VALIDATION.ordinal()] = 1;
+        return timer;
+    }
+
+    /**
+     * Phase of the request timed on the current thread, to hand to {@link #startHandOff} on the thread
+     * the request hands work off to.
+     *
+     * @return the current phase, or {@code null} when no request is timed
+     */
+    public static RequestPhase currentPhase() {
+        return CURRENT.get().phase;
+    }
+
+    /**
+     * Starts timing, in {@code phase}, work that the request timed on another thread handed off to
+     * the current one. Its figures are charged to that request with {@link #merge} once it is done.
+     *
+     * @param phase the phase the request was in when it handed the work off, or {@code null} when it is not timed
+     * @return the timer of the thread, or {@code null} when there is nothing to time
+     */
+    public static RequestTimer startHandOff(RequestPhase phase) {
+        RequestTimer timer = CURRENT.get();
+        if (phase == null || timer.phase != null) {
+            return null;
+        }
+        for (int i = 0; i < PHASES.length; i++) {
+            timer.nanos[i] = 0;
+            timer.entries[i] = 0;
+        }
+        timer.startedAt = System.nanoTime();
+        timer.switchedAt = timer.startedAt;
+        timer.phase = phase;
+        return timer;
+    }
+
+    /**
+     * Charges the phases of handed-off work, as returned by {@link #split}, to the request timed on the
+     * current thread. The request waited for the work in its current phase, so the time of the work
+     * moves from that phase to the phases the work was in.
+     */
+    public static void merge(Split split) {
+        RequestTimer timer = CURRENT.get();
+        if (split == null || timer.phase == null) {
+            return;
+        }
+        for (int i = 0; i < PHASES.length; i++) {
+            timer.nanos[i] += split.nanos[i];
+            timer.entries[i] += split.entries[i];
+        }
+        timer.nanos[timer.phase.ordinal()] -= split.totalNanos;
+    }
+
+    /**
+     * Charges the time since the last switch to the current phase and enters {@code next}.
+     *
+     * @return the phase that was current, to {@link #resume} afterwards, or {@code null} when no request is timed
+     */
+    public static RequestPhase enter(RequestPhase next) {
+        RequestTimer timer = CURRENT.get();
+        RequestPhase previous = timer.switchTo(next);
+        if (previous != null && previous != next) {
+            timer.entries[next.ordinal()]++;
+        }
+        return previous;
+    }
+
+    /**
+     * Charges the time since the last switch to the current phase and goes back to {@code previous},
+     * as returned by {@link #enter}.
+     */
+    public static void resume(RequestPhase previous) {
+        if (previous != null) {
+            CURRENT.get().switchTo(previous);
+        }
+    }
+
+    private RequestPhase switchTo(RequestPhase next) {
+        RequestPhase previous = phase;
+        if (previous == null) {
+            return null;
+        }
+        long now = System.nanoTime();
+        nanos[previous.ordinal()] += now - switchedAt;
+        switchedAt = now;
+        phase = next;
+        return previous;
+    }
+
+    /**
+     * Charges the remaining time to the current phase and stops timing. The figures stay readable
+     * until the next request of the thread starts.
+     */
+    public void stop() {
+        long now = System.nanoTime();
+        nanos[phase.ordinal()] += now - switchedAt;
+        totalNanos = now - startedAt;
+        phase = null;
+    }
+
+    /**
+     * Copies the figures of a stopped hand-off timer, so they outlive the next use of its thread.
+     */
+    public Split split() {
+        return new Split(nanos.clone(), entries.clone(), totalNanos);
+    }
+
+    public long getNanos(RequestPhase phase) {
+        return nanos[phase.ordinal()];
+    }
+
+    /**
+     * Number of times the request entered the phase, such as the number of repository calls.
+     */
+    public int getEntries(RequestPhase phase) {
+        return entries[phase.ordinal()];
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * The figures of work a request handed off to another thread.
+     */
+    public static final class Split {
+
+        private final long[] nanos;
+        private final int[] entries;
+        private final long totalNanos;
+
+        private Split(long[] nanos, int[] entries, long totalNanos) {
+            this.nanos = nanos;
+            this.entries = entries;
+            this.totalNanos = totalNanos;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package one.digitalinnovation.beerstock.config;
+
+import one.digitalinnovation.beerstock.enums.RequestPhase;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Charges the time spent in controllers, services and repositories to their {@link RequestPhase}.
+ * It wraps every other advice, so transactions and shard routing count towards the call they
+ * surround. Whatever happens after the controller returns is writing the response.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestTimingAspect {
+
+    @Around("@within(org.springframework.web.bind.annotation.RestController)")
+    public Object timeController(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (RequestTimer.enter(RequestPhase.CONTROLLER) == null) {
+            return joinPoint.proceed();
+        }
+        try {
+            return joinPoint.proceed();
+        } finally {
+            RequestTimer.enter(RequestPhase.SERIALIZATION);
+        }
+    }
+
+    @Around("@within(org.springframework.stereotype.Service)")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return timed(RequestPhase.SERVICE, joinPoint);
+    }
+
+    @Around("target(org.springframework.data.repository.Repository)")
+    public Object timeRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return timed(RequestPhase.REPOSITORY, joinPoint);
+    }
+
+    private static Object timed(RequestPhase phase, ProceedingJoinPoint joinPoint) throws Throwable {
+        RequestPhase previous = RequestTimer.enter(phase);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            RequestTimer.resume(previous);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package one.digitalinnovation.beerstock.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Breaks the latency of every beer request down into validation, controller, service, repository,
+ * mapping and serialization time. See {@link RequestTimingFilter} for what is recorded.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "beerstock.request-timing", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RequestTimingConfig {
+
+    @Bean
+    public FilterRegistrationBean<RequestTimingFilter> requestTimingFilter(MeterRegistry meterRegistry,
+                                                                           RequestTimingProperties properties) {
+        FilterRegistrationBean<RequestTimingFilter> registration =
+                new FilterRegistrationBean<>(new RequestTimingFilter(meterRegistry, properties));
+        registration.addUrlPatterns("/api/v1/beers", "/api/v1/beers/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    public RequestTimingAspect requestTimingAspect() {
+        return new RequestTimingAspect();
+    }
+}
@@ -0,0 +1,117 @@
+package one.digitalinnovation.beerstock.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.enums.RequestPhase;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times each request phase by phase with a {@link RequestTimer}, records every phase and the total
+ * in a rolling latency histogram per endpoint, and logs a sample of the slow requests with their
+ * breakdown. Timers are looked up once per endpoint and then reused, so recording allocates nothing.
+ */
+@Slf4j
+public class RequestTimingFilter extends OncePerRequestFilter {
+
+    public static final String PHASE_TIMER = "beerstock.request.phase";
+    public static final String TOTAL_TIMER = "beerstock.request.total";
+
+    private static final RequestPhase[] PHASES = RequestPhase.values();
+    private static final String UNMAPPED = "UNMAPPED";
+
+    private final MeterRegistry meterRegistry;
+    private final RequestTimingProperties properties;
+    private final long slowThresholdNanos;
+    private final Map<String, Map<String, Timer[]>> timersByMethod = new ConcurrentHashMap<>();
+
+    public RequestTimingFilter(MeterRegistry meterRegistry, RequestTimingProperties properties) {
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+        this.slowThresholdNanos = properties.getSlowThreshold().toNanos();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestTimer timer = RequestTimer.start();
+        if (timer == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            timer.stop();
+            record(request, response, timer);
+        }
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response, RequestTimer timer) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? UNMAPPED : pattern.toString();
+        String method = request.getMethod();
+        Map<String, Timer[]> timersByUri = timersByMethod.computeIfAbsent(method, key -> new ConcurrentHashMap<>());
+        Timer[] timers = timersByUri.get(uri);
+        if (timers == null) {
+            timers = timersByUri.computeIfAbsent(uri, key -> timers(method, key));
+        }
+        for (RequestPhase phase : PHASES) {
+            timers[phase.ordinal()].record(timer.getNanos(phase), TimeUnit.NANOSECONDS);
+        }
+        timers[PHASES.length].record(timer.getTotalNanos(), TimeUnit.NANOSECONDS);
+
+        if (timer.getTotalNanos() >= slowThresholdNanos
+                && ThreadLocalRandom.current().nextDouble() < properties.getSlowLogSampleRate()) {
+            log.warn("Slow request {} {} answered {} in {}", method, request.getRequestURI(),
+                    response.getStatus(), breakdown(timer));
+        }
+    }
+
+    private Timer[] timers(String method, String uri) {
+        Timer[] timers = new Timer[PHASES.length + 1];
+        for (RequestPhase phase : PHASES) {
+            timers[phase.ordinal()] = timer(PHASE_TIMER, method, uri).tag("phase", phase.getTag()).register(meterRegistry);
+        }
+        timers[PHASES.length] = timer(TOTAL_TIMER, method, uri).register(meterRegistry);
+        return timers;
+    }
+
+    private Timer.Builder timer(String name, String method, String uri) {
+        return Timer.builder(name)
+                .tag("method", method)
+                .tag("uri", uri)
+                .publishPercentiles(properties.getPercentiles())
+                .distributionStatisticExpiry(properties.getHistogramWindow());
+    }
+
+    static String breakdown(RequestTimer timer) {
+        StringBuilder breakdown = new StringBuilder()
+                .append(millis(timer.getTotalNanos())).append(" ms (");
+        for (RequestPhase phase : PHASES) {
+            if (phase.ordinal() > 0) {
+                breakdown.append(", ");
+            }
+            breakdown.append(phase.getTag()).append(' ').append(millis(timer.getNanos(phase))).append(" ms");
+            if (timer.getEntries(phase) > 1) {
+                breakdown.append(" over ").append(timer.getEntries(phase)).append(" calls");
+            }
+        }
+        return breakdown.append(')').toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.3f", nanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,38 @@
+package one.digitalinnovation.beerstock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "beerstock.request-timing")
+public class RequestTimingProperties {
+
+    /**
+     * Whether beer requests are timed phase by phase.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Requests taking at least this long are candidates for the slow-request log.
+     */
+    private Duration slowThreshold = Duration.ofMillis(500);
+
+    /**
+     * Share of slow requests, between 0 and 1, that are logged with their phase breakdown.
+     */
+    private double slowLogSampleRate = 0.1;
+
+    /**
+     * Percentiles published for each phase, computed over a rolling window.
+     */
+    private double[] percentiles = {0.5, 0.95, 0.99};
+
+    /**
+     * Length of the rolling window the published percentiles are computed over.
+     */
+    private Duration histogramWindow = Duration.ofMinutes(2);
+}
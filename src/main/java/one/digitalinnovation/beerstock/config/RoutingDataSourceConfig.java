@@ -0,0 +1,89 @@
+package one.digitalinnovation.beerstock.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.AnyNestedCondition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the auto-configured datasource when a replica ({@code beerstock.datasource.replica.url})
+ * or additional shards ({@code beerstock.datasource.shards}) are configured. The primary becomes
+ * shard 0, optionally behind a {@link ReadWriteRoutingDataSource}, and every further shard gets a
+ * pool of its own behind a {@link ShardRoutingDataSource}. The pools are not beans of their own,
+ * so the rest of the application only sees the router.
+ */
+@Configuration
+@Conditional(RoutingDataSourceConfig.OnReplicaOrShards.class)
+@EnableConfigurationProperties({ReplicaDataSourceProperties.class, ShardDataSourceProperties.class})
+public class RoutingDataSourceConfig {
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties dataSourceProperties,
+                                 ReplicaDataSourceProperties replicaProperties,
+                                 ShardDataSourceProperties shardProperties) {
+        List<DataSource> shards = new ArrayList<>();
+        shards.add(withReplica(pool("primary", dataSourceProperties), replicaProperties));
+        for (DataSourceProperties shard : shardProperties.getShards()) {
+            shards.add(pool("shard-" + shards.size(), shard));
+        }
+        DataSource target = shards.size() == 1 ? shards.get(0) : new ShardRoutingDataSource(shards);
+        return new ClosingLazyConnectionDataSourceProxy(target);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "beerstock.datasource.replica", name = "url")
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(ReplicaDataSourceProperties replicaProperties) {
+        return new FilterRegistrationBean<>(new ReadYourWritesFilter(replicaProperties.getLagTolerance()));
+    }
+
+    private static HikariDataSource pool(String name, DataSourceProperties properties) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        pool.setPoolName(name);
+        return pool;
+    }
+
+    private static DataSource withReplica(HikariDataSource primary, ReplicaDataSourceProperties replicaProperties) {
+        if (replicaProperties.getUrl() == null) {
+            return primary;
+        }
+        HikariDataSource replica = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(replicaProperties.getUrl())
+                .username(replicaProperties.getUsername())
+                .password(replicaProperties.getPassword())
+                .driverClassName(replicaProperties.getDriverClassName())
+                .build();
+        replica.setPoolName("replica");
+        replica.setReadOnly(true);
+        replica.setInitializationFailTimeout(-1);
+        return new ReadWriteRoutingDataSource(primary, replica,
+                replicaProperties.getLagTolerance(), replicaProperties.getRetryAfter());
+    }
+
+    static class OnReplicaOrShards extends AnyNestedCondition {
+
+        OnReplicaOrShards() {
+            super(ConfigurationPhase.PARSE_CONFIGURATION);
+        }
+
+        @ConditionalOnProperty(prefix = "beerstock.datasource.replica", name = "url")
+        static class OnReplica {
+        }
+
+        @ConditionalOnProperty(prefix = "beerstock.datasource", name = "shards[0].url")
+        static class OnShards {
+        }
+    }
+}
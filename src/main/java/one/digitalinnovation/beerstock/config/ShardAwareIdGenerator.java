@@ -0,0 +1,38 @@
+package one.digitalinnovation.beerstock.config;
+
+import org.hibernate.HibernateException;
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.io.Serializable;
+import java.util.Properties;
+
+/**
+ * Draws ids from the sequence of the shard the row is written to and encodes that shard in them,
+ * as {@code sequence * shards + shard}, so ids stay unique across shards and an id alone is enough
+ * to find its shard. Values must not be pooled, since another instance may draw the next ones.
+ */
+public class ShardAwareIdGenerator extends SequenceStyleGenerator {
+
+    public static final String SHARD_COUNT = "beerstock.sharding.shard-count";
+
+    private int shards;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        super.configure(type, params, serviceRegistry);
+        shards = ConfigurationHelper.getInt(SHARD_COUNT,
+                serviceRegistry.getService(ConfigurationService.class).getSettings(), 1);
+    }
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) throws HibernateException {
+        long sequence = ((Number) super.generate(session, object)).longValue();
+        return sequence * shards + ShardContext.current();
+    }
+}
@@ -0,0 +1,70 @@
+package one.digitalinnovation.beerstock.config;
+
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Holds the shard that connections of the current thread are routed to. Inside a transaction
+ * the shard is bound until the transaction completes, because its connection can only point
+ * at one database; asking for another shard in the same transaction is rejected.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static int current() {
+        Integer shard = CURRENT.get();
+        return shard == null ? 0 : shard;
+    }
+
+    public static int shardOf(long id, int shards) {
+        return (int) Math.floorMod(id, (long) shards);
+    }
+
+    public static int shardOf(String name, int shards) {
+        return Math.floorMod(name.hashCode(), shards);
+    }
+
+    public static Integer bind(int shard) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        return previous;
+    }
+
+    public static void restore(Integer previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    public static void bindToTransaction(int shard) {
+        Integer bound = CURRENT.get();
+        if (bound == null) {
+            CURRENT.set(shard);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void suspend() {
+                    CURRENT.remove();
+                }
+
+                @Override
+                public void resume() {
+                    CURRENT.set(shard);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    CURRENT.remove();
+                }
+            });
+        } else if (bound != shard) {
+            throw new IllegalStateException(String.format(
+                    "Transaction is bound to shard %d and cannot access shard %d", bound, shard));
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package one.digitalinnovation.beerstock.config;
+
+import lombok.Data;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "beerstock.datasource")
+public class ShardDataSourceProperties {
+
+    /**
+     * Additional shards of the beer catalogue. The datasource configured under {@code spring.datasource}
+     * is always shard 0, so listing N entries here splits the catalogue across N + 1 databases.
+     */
+    private List<DataSourceProperties> shards = new ArrayList<>();
+
+    public int getShardCount() {
+        return shards.size() + 1;
+    }
+}
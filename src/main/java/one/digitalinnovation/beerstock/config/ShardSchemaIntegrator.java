@@ -0,0 +1,54 @@
+package one.digitalinnovation.beerstock.config;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.spi.DelayedDropAction;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Applies the configured schema management action ({@code spring.jpa.hibernate.ddl-auto}) to every
+ * shard but the first, which Hibernate handles itself when the session factory is built.
+ */
+public class ShardSchemaIntegrator implements Integrator {
+
+    private final int shards;
+    private final Map<Integer, DelayedDropAction> delayedDrops = new HashMap<>();
+
+    public ShardSchemaIntegrator(int shards) {
+        this.shards = shards;
+    }
+
+    @Override
+    public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+                          SessionFactoryServiceRegistry serviceRegistry) {
+        Map<?, ?> settings = serviceRegistry.getService(ConfigurationService.class).getSettings();
+        for (int shard = 1; shard < shards; shard++) {
+            int currentShard = shard;
+            Integer previous = ShardContext.bind(shard);
+            try {
+                SchemaManagementToolCoordinator.process(metadata, serviceRegistry, settings,
+                        action -> delayedDrops.put(currentShard, action));
+            } finally {
+                ShardContext.restore(previous);
+            }
+        }
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        delayedDrops.forEach((shard, action) -> {
+            Integer previous = ShardContext.bind(shard);
+            try {
+                action.perform(serviceRegistry);
+            } finally {
+                ShardContext.restore(previous);
+            }
+        });
+    }
+}
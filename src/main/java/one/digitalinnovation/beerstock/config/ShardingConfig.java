@@ -0,0 +1,41 @@
+package one.digitalinnovation.beerstock.config;
+
+import one.digitalinnovation.beerstock.repository.BeerShardingAspect;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+/**
+ * Shards the beer catalogue across the datasources set up by {@link RoutingDataSourceConfig}: ids carry
+ * their shard, the schema is managed on every shard, and {@code BeerRepository} calls are routed by id
+ * or name, or scattered to every shard and merged.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "beerstock.datasource", name = "shards[0].url")
+@EnableConfigurationProperties(ShardDataSourceProperties.class)
+public class ShardingConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer shardingHibernatePropertiesCustomizer(ShardDataSourceProperties shardProperties) {
+        int shards = shardProperties.getShardCount();
+        return properties -> {
+            properties.put(ShardAwareIdGenerator.SHARD_COUNT, shards);
+            properties.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER,
+                    (IntegratorProvider) () -> List.of(new ShardSchemaIntegrator(shards)));
+        };
+    }
+
+    @Bean
+    public BeerShardingAspect beerShardingAspect(ObjectProvider<PlatformTransactionManager> transactionManager,
+                                                 ShardDataSourceProperties shardProperties) {
+        return new BeerShardingAspect(transactionManager, shardProperties.getShardCount());
+    }
+}
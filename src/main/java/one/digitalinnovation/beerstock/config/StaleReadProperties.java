@@ -0,0 +1,43 @@
+package one.digitalinnovation.beerstock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "beerstock.stale-reads")
+public class StaleReadProperties {
+
+    /**
+     * Whether beer lookups and listings may answer from the in-memory snapshot while the database is degraded.
+     */
+    private boolean enabled = true;
+
+    /**
+     * How long a read waits for the database before answering from the snapshot instead.
+     */
+    private Duration latencyBudget = Duration.ofMillis(250);
+
+    /**
+     * Consecutive failed or late reads that open the circuit breaker.
+     */
+    private int failureThreshold = 5;
+
+    /**
+     * How long the circuit breaker stays open before a background refresh of the snapshot tries the database again.
+     */
+    private Duration openDuration = Duration.ofSeconds(10);
+
+    /**
+     * Threads running database reads on behalf of waiting requests.
+     */
+    private int readThreads = 8;
+
+    /**
+     * Reads that can wait for a free thread before new ones answer from the snapshot.
+     */
+    private int readQueueCapacity = 64;
+}
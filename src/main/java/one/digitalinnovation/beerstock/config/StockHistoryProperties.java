@@ -0,0 +1,38 @@
+package one.digitalinnovation.beerstock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "beerstock.stock-history")
+public class StockHistoryProperties {
+
+    /**
+     * How long every single stock change is kept.
+     */
+    private Duration rawRetention = Duration.ofHours(6);
+
+    /**
+     * How long per-minute rollups are kept.
+     */
+    private Duration minuteRetention = Duration.ofDays(7);
+
+    /**
+     * How long hourly rollups are kept.
+     */
+    private Duration hourRetention = Duration.ofDays(90);
+
+    /**
+     * How long daily rollups are kept.
+     */
+    private Duration dayRetention = Duration.ofDays(5 * 365);
+
+    /**
+     * Most rollup buckets a query may span before a coarser resolution is picked for it.
+     */
+    private int maxPoints = 1500;
+}
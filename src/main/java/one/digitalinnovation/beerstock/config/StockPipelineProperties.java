@@ -0,0 +1,43 @@
+package one.digitalinnovation.beerstock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "beerstock.stock-pipeline")
+public class StockPipelineProperties {
+
+    /**
+     * Whether stock commands can be submitted to the single-writer pipeline.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Number of writer threads. Commands of a beer always go to the same partition, chosen by its id.
+     */
+    private int partitions = 4;
+
+    /**
+     * Commands each partition can hold before new submissions are refused.
+     */
+    private int queueCapacity = 1024;
+
+    /**
+     * Most commands a partition applies in a single transaction.
+     */
+    private int maxBatchSize = 64;
+
+    /**
+     * How long a synchronous submission waits for its command before answering with its status URL instead.
+     */
+    private Duration syncTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Number of completed commands whose status can still be looked up.
+     */
+    private int retainedCommands = 10_000;
+}
@@ -0,0 +1,28 @@
+package one.digitalinnovation.beerstock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "beerstock.stock-retry")
+public class StockRetryProperties {
+
+    /**
+     * Attempts of a stock change, the first one included, before a version conflict is reported to the caller.
+     */
+    private int maxAttempts = 5;
+
+    /**
+     * Upper bound of the random wait before the first retry. It doubles with every further retry.
+     */
+    private Duration initialBackoff = Duration.ofMillis(10);
+
+    /**
+     * Largest upper bound of the random wait between two attempts.
+     */
+    private Duration maxBackoff = Duration.ofMillis(200);
+}
@@ -1,5 +1,6 @@
 package one.digitalinnovation.beerstock.config;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import springfox.documentation.builders.ApiInfoBuilder;
@@ -15,6 +16,7 @@ import static springfox.documentation.builders.RequestHandlerSelectors.*;
 
 @Configuration
 @EnableSwagger2
+@ConditionalOnProperty(prefix = "beerstock.swagger", name = "enabled", havingValue = "true", matchIfMissing = true)
 public class SwaggerConfig {
 
     private static final String BASE_PACKAGE = "one.digitalinnovation.beerstock.controller";
@@ -0,0 +1,32 @@
+package one.digitalinnovation.beerstock.config;
+
+/**
+ * Marks the current thread as running synthetic calls, such as the warm-up, so the metrics that
+ * describe real traffic leave them out.
+ */
+public final class SyntheticTraffic {
+
+    private static final ThreadLocal<Boolean> ACTIVE = new ThreadLocal<>();
+
+    private SyntheticTraffic() {
+    }
+
+    public static boolean isActive() {
+        return ACTIVE.get() != null;
+    }
+
+    /**
+     * @return whether the thread was already running synthetic calls, to be passed to {@link #restore(boolean)}
+     */
+    public static boolean begin() {
+        boolean previous = isActive();
+        ACTIVE.set(Boolean.TRUE);
+        return previous;
+    }
+
+    public static void restore(boolean previous) {
+        if (!previous) {
+            ACTIVE.remove();
+        }
+    }
+}
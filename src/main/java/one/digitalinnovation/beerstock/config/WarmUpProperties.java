@@ -0,0 +1,48 @@
+package one.digitalinnovation.beerstock.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "beerstock.warm-up")
+public class WarmUpProperties {
+
+    /**
+     * Whether synthetic calls run through the beer endpoints before readiness is reported.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Iterations run between two checks of the JIT compilation time.
+     */
+    private int roundSize = 200;
+
+    /**
+     * Iterations always run, even when compilation looks settled earlier.
+     */
+    private int minIterations = 1_000;
+
+    /**
+     * Iterations after which warm-up stops even if compilation has not settled.
+     */
+    private int maxIterations = 50_000;
+
+    /**
+     * Time after which warm-up stops even if compilation has not settled.
+     */
+    private Duration maxDuration = Duration.ofMinutes(2);
+
+    /**
+     * Share of a round's wall time spent compiling under which that round counts as settled.
+     */
+    private double settleRatio = 0.02;
+
+    /**
+     * Consecutive settled rounds after which warm-up ends.
+     */
+    private int settledRounds = 3;
+}
@@ -0,0 +1,60 @@
+package one.digitalinnovation.beerstock.controller;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.dto.ArchiveCriteriaDTO;
+import one.digitalinnovation.beerstock.dto.ArchivedBeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerArchiveResultDTO;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.exception.ArchivedBeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerAlreadyRegisteredException;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.service.BeerArchiveService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.Valid;
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/api/v1/beers/archive")
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class BeerArchiveController implements BeerArchiveControllerDocs {
+
+    private final BeerArchiveService beerArchiveService;
+
+    @GetMapping
+    public Page<ArchivedBeerDTO> listArchivedBeers(@PageableDefault(sort = "id") Pageable pageable) {
+        return beerArchiveService.list(pageable);
+    }
+
+    @GetMapping("/{name}")
+    public ArchivedBeerDTO findByName(@PathVariable String name) throws ArchivedBeerNotFoundException {
+        return beerArchiveService.findByName(name);
+    }
+
+    @PostMapping("/{id}")
+    @ResponseStatus(HttpStatus.CREATED)
+    public ArchivedBeerDTO archive(@PathVariable Long id) throws BeerNotFoundException {
+        return beerArchiveService.archive(id);
+    }
+
+    @PostMapping
+    public BeerArchiveResultDTO archiveOutOfStock(@RequestBody @Valid ArchiveCriteriaDTO archiveCriteriaDTO) {
+        return beerArchiveService.archiveOutOfStock(Duration.ofDays(archiveCriteriaDTO.getOutOfStockForDays()));
+    }
+
+    @PostMapping("/{id}/restore")
+    public BeerDTO restore(@PathVariable Long id) throws ArchivedBeerNotFoundException, BeerAlreadyRegisteredException {
+        return beerArchiveService.restore(id);
+    }
+}
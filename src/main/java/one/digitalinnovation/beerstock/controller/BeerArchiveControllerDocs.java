@@ -0,0 +1,55 @@
+package one.digitalinnovation.beerstock.controller;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import one.digitalinnovation.beerstock.dto.ArchiveCriteriaDTO;
+import one.digitalinnovation.beerstock.dto.ArchivedBeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerArchiveResultDTO;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.exception.ArchivedBeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerAlreadyRegisteredException;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.web.bind.annotation.PathVariable;
+
+@Api("Archives beers no longer sold out of the beer stock")
+public interface BeerArchiveControllerDocs {
+
+    @ApiOperation(value = "Returns a page of archived beers")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Page of archived beers")
+    })
+    Page<ArchivedBeerDTO> listArchivedBeers(Pageable pageable);
+
+    @ApiOperation(value = "Returns the archived beer with a given name, the latest one archived if there are several")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Archived beer found"),
+            @ApiResponse(code = 404, message = "No archived beer with given name.")
+    })
+    ArchivedBeerDTO findByName(@PathVariable String name) throws ArchivedBeerNotFoundException;
+
+    @ApiOperation(value = "Moves a beer to the archive, out of every beer query and listing")
+    @ApiResponses(value = {
+            @ApiResponse(code = 201, message = "Beer archived"),
+            @ApiResponse(code = 404, message = "Beer with given id not found.")
+    })
+    ArchivedBeerDTO archive(@PathVariable Long id) throws BeerNotFoundException;
+
+    @ApiOperation(value = "Moves every beer out of stock for at least the given number of days to the archive, in batches")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Number of beers archived and of batches used"),
+            @ApiResponse(code = 400, message = "Missing number of days, or less than one day.")
+    })
+    BeerArchiveResultDTO archiveOutOfStock(ArchiveCriteriaDTO archiveCriteriaDTO);
+
+    @ApiOperation(value = "Moves an archived beer back to the beer stock, with the id it had")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Beer restored"),
+            @ApiResponse(code = 400, message = "Another beer with the same name was registered since."),
+            @ApiResponse(code = 404, message = "No archived beer with given id.")
+    })
+    BeerDTO restore(@PathVariable Long id) throws ArchivedBeerNotFoundException, BeerAlreadyRegisteredException;
+}
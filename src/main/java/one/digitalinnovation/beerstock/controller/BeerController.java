@@ -1,33 +1,54 @@
 package one.digitalinnovation.beerstock.controller;
 
 import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.dto.BeerBatchLookupDTO;
+import one.digitalinnovation.beerstock.dto.BeerBatchResultDTO;
 import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerFilterDTO;
 import one.digitalinnovation.beerstock.dto.QuantityDTO;
+import one.digitalinnovation.beerstock.enums.BeerField;
 import one.digitalinnovation.beerstock.exception.BeerAlreadyRegisteredException;
 import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
 import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.exception.BeerVersionMismatchException;
+import one.digitalinnovation.beerstock.exception.InvalidBeerFieldException;
+import one.digitalinnovation.beerstock.exception.InvalidBeerSortException;
 import one.digitalinnovation.beerstock.exception.NegativeBeerStockException;
 import one.digitalinnovation.beerstock.service.BeerService;
+import one.digitalinnovation.beerstock.service.SnapshotRead;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
 import javax.validation.Valid;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/v1/beers")
 @AllArgsConstructor(onConstructor = @__(@Autowired))
 public class BeerController implements BeerControllerDocs {
 
+    private static final String STALE_WARNING = "110 - \"Response is Stale\"";
+
     private final BeerService beerService;
 
     @PostMapping
@@ -37,13 +58,24 @@ public class BeerController implements BeerControllerDocs {
     }
 
     @GetMapping("/{name}")
-    public BeerDTO findByName(@PathVariable String name) throws BeerNotFoundException {
-        return beerService.findByName(name);
+    public ResponseEntity<BeerDTO> findByName(@PathVariable String name, @RequestParam(required = false) Set<String> fields) throws BeerNotFoundException, InvalidBeerFieldException {
+        return withStaleness(beerService.findByNameAllowingStale(name, fieldsOf(fields)));
     }
 
     @GetMapping
-    public List<BeerDTO> listBeers() {
-        return beerService.listAll();
+    public ResponseEntity<List<BeerDTO>> listBeers(@RequestParam(required = false) Set<String> fields) throws InvalidBeerFieldException {
+        return withStaleness(beerService.listAllAllowingStale(fieldsOf(fields)));
+    }
+
+    @PostMapping("/batch")
+    public BeerBatchResultDTO findAll(@RequestBody @Valid BeerBatchLookupDTO beerBatchLookupDTO) {
+        return beerService.findAll(beerBatchLookupDTO);
+    }
+
+    @GetMapping("/query")
+    public Page<BeerDTO> query(@Valid BeerFilterDTO filter, @PageableDefault(sort = "id") Pageable pageable)
+            throws InvalidBeerSortException {
+        return beerService.query(filter, pageable);
     }
 
     @DeleteMapping("/{id}")
@@ -53,12 +85,68 @@ public class BeerController implements BeerControllerDocs {
     }
 
     @PatchMapping("/{id}/increment")
-    public BeerDTO increment(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO) throws BeerNotFoundException, BeerStockExceededException {
-        return beerService.increment(id, quantityDTO.getQuantity());
+    public ResponseEntity<BeerDTO> increment(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+            throws BeerNotFoundException, BeerStockExceededException, BeerVersionMismatchException {
+        Long expectedVersion = expectedVersion(id, ifMatch);
+        BeerDTO incrementedBeerDTO = expectedVersion == null
+                ? beerService.increment(id, quantityDTO.getQuantity())
+                : beerService.increment(id, quantityDTO.getQuantity(), expectedVersion);
+        return withETag(incrementedBeerDTO);
     }
 
     @PatchMapping("/{id}/decrement")
-    public BeerDTO decrement(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO) throws BeerNotFoundException, BeerStockExceededException, NegativeBeerStockException {
-        return beerService.decrement(id, quantityDTO.getQuantity());
+    public ResponseEntity<BeerDTO> decrement(@PathVariable Long id, @RequestBody @Valid QuantityDTO quantityDTO,
+                                             @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch)
+            throws BeerNotFoundException, BeerStockExceededException, NegativeBeerStockException, BeerVersionMismatchException {
+        Long expectedVersion = expectedVersion(id, ifMatch);
+        BeerDTO decrementedBeerDTO = expectedVersion == null
+                ? beerService.decrement(id, quantityDTO.getQuantity())
+                : beerService.decrement(id, quantityDTO.getQuantity(), expectedVersion);
+        return withETag(decrementedBeerDTO);
+    }
+
+    /**
+     * Reads the version a client expects from an {@code If-Match} header holding the ETag of an
+     * earlier response. No header, or {@code *}, means any version.
+     */
+    private static Long expectedVersion(Long id, String ifMatch) throws BeerVersionMismatchException {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String eTag = ifMatch.trim();
+        if (eTag.startsWith("W/")) {
+            eTag = eTag.substring(2);
+        }
+        try {
+            return Long.valueOf(eTag.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new BeerVersionMismatchException(id, ifMatch);
+        }
+    }
+
+    private static Set<BeerField> fieldsOf(Set<String> fields) throws InvalidBeerFieldException {
+        return fields == null ? EnumSet.noneOf(BeerField.class) : BeerField.fromProperties(fields);
+    }
+
+    /**
+     * Marks answers served from the snapshot with their age and a {@code 110 Response is Stale} warning.
+     */
+    private <T> ResponseEntity<T> withStaleness(SnapshotRead<T> read) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (read.isStale()) {
+            long age = read.getAsOf() == null ? 0 : Math.max(0, Duration.between(read.getAsOf(), Instant.now()).getSeconds());
+            response.header(HttpHeaders.AGE, String.valueOf(age))
+                    .header(HttpHeaders.WARNING, STALE_WARNING);
+        }
+        return response.body(read.getValue());
+    }
+
+    private static ResponseEntity<BeerDTO> withETag(BeerDTO beerDTO) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (beerDTO.getVersion() != null) {
+            response.eTag(String.valueOf(beerDTO.getVersion()));
+        }
+        return response.body(beerDTO);
     }
 }
@@ -4,16 +4,27 @@ import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiResponse;
 import io.swagger.annotations.ApiResponses;
+import one.digitalinnovation.beerstock.dto.BeerBatchLookupDTO;
+import one.digitalinnovation.beerstock.dto.BeerBatchResultDTO;
 import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerFilterDTO;
 import one.digitalinnovation.beerstock.dto.QuantityDTO;
 import one.digitalinnovation.beerstock.exception.BeerAlreadyRegisteredException;
 import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
 import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.exception.BeerVersionMismatchException;
+import one.digitalinnovation.beerstock.exception.InvalidBeerFieldException;
+import one.digitalinnovation.beerstock.exception.InvalidBeerSortException;
+import one.digitalinnovation.beerstock.exception.NegativeBeerStockException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 
 import javax.validation.Valid;
 import java.util.List;
+import java.util.Set;
 
 @Api("Manages beer stock")
 public interface BeerControllerDocs {
@@ -21,27 +32,77 @@ public interface BeerControllerDocs {
     @ApiOperation(value = "Beer creation operation")
     @ApiResponses(value = {
             @ApiResponse(code = 201, message = "Success beer creation"),
-            @ApiResponse(code = 400, message = "Missing required fields or wrong field range value.")
+            @ApiResponse(code = 400, message = "Missing required fields or wrong field range value."),
+            @ApiResponse(code = 504, message = "Deadline given in X-Request-Timeout, or the endpoint default, passed first.")
     })
     BeerDTO createBeer(BeerDTO beerDTO) throws BeerAlreadyRegisteredException;
 
-    @ApiOperation(value = "Returns beer found by a given name")
+    @ApiOperation(value = "Returns beer found by a given name, optionally with only the given fields")
     @ApiResponses(value = {
-            @ApiResponse(code = 200, message = "Success beer found in the system"),
-            @ApiResponse(code = 404, message = "Beer with given name not found.")
+            @ApiResponse(code = 200, message = "Success beer found in the system, with Age and Warning headers when served from the snapshot while the database is degraded"),
+            @ApiResponse(code = 400, message = "Unknown field requested."),
+            @ApiResponse(code = 404, message = "Beer with given name not found."),
+            @ApiResponse(code = 504, message = "Deadline given in X-Request-Timeout, or the endpoint default, passed first.")
     })
-    BeerDTO findByName(@PathVariable String name) throws BeerNotFoundException;
+    ResponseEntity<BeerDTO> findByName(@PathVariable String name, Set<String> fields) throws BeerNotFoundException, InvalidBeerFieldException;
 
-    @ApiOperation(value = "Returns a list of all beers registered in the system")
+    @ApiOperation(value = "Returns a list of all beers registered in the system, optionally with only the given fields")
     @ApiResponses(value = {
-            @ApiResponse(code = 200, message = "List of all beers registered in the system"),
+            @ApiResponse(code = 200, message = "List of all beers registered in the system, with Age and Warning headers when served from the snapshot while the database is degraded"),
+            @ApiResponse(code = 400, message = "Unknown field requested."),
+            @ApiResponse(code = 504, message = "Deadline given in X-Request-Timeout, or the endpoint default, passed first.")
     })
-    List<BeerDTO> listBeers();
+    ResponseEntity<List<BeerDTO>> listBeers(Set<String> fields) throws InvalidBeerFieldException;
+
+    @ApiOperation(value = "Returns the beers found by a batch of ids and names with a single query")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Found beers plus the ids and names that were not found"),
+            @ApiResponse(code = 400, message = "More than 200 ids or names, or empty name."),
+            @ApiResponse(code = 504, message = "Deadline given in X-Request-Timeout, or the endpoint default, passed first.")
+    })
+    BeerBatchResultDTO findAll(BeerBatchLookupDTO beerBatchLookupDTO);
+
+    @ApiOperation(value = "Returns a page of beers filtered by type, brand, quantity range and fill ratio")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Page of beers matching all given filters"),
+            @ApiResponse(code = 400, message = "Wrong filter range value, or sort by brand or by an unknown property."),
+            @ApiResponse(code = 504, message = "Deadline given in X-Request-Timeout, or the endpoint default, passed first.")
+    })
+    Page<BeerDTO> query(BeerFilterDTO filter, Pageable pageable) throws InvalidBeerSortException;
 
     @ApiOperation(value = "Delete a beer found by a given valid Id")
     @ApiResponses(value = {
             @ApiResponse(code = 204, message = "Success beer deleted in the system"),
-            @ApiResponse(code = 404, message = "Beer with given id not found.")
+            @ApiResponse(code = 404, message = "Beer with given id not found."),
+            @ApiResponse(code = 504, message = "Deadline given in X-Request-Timeout, or the endpoint default, passed first.")
     })
     void deleteById(@PathVariable Long id) throws BeerNotFoundException;
+
+    @ApiOperation(value = "Increments the stock of a given beer. Send the ETag of an earlier response in If-Match "
+            + "to apply it only if the beer has not changed since")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Beer with its new stock, its version in the ETag header"),
+            @ApiResponse(code = 400, message = "Missing quantity, or stock above the max capacity."),
+            @ApiResponse(code = 404, message = "Beer with given id not found."),
+            @ApiResponse(code = 409, message = "Stock kept changing concurrently until retries ran out."),
+            @ApiResponse(code = 412, message = "Beer is no longer at the version given in If-Match."),
+            @ApiResponse(code = 503, message = "Database is degraded, stock cannot be changed for now."),
+            @ApiResponse(code = 504, message = "Deadline given in X-Request-Timeout, or the endpoint default, passed first.")
+    })
+    ResponseEntity<BeerDTO> increment(@PathVariable Long id, QuantityDTO quantityDTO, String ifMatch)
+            throws BeerNotFoundException, BeerStockExceededException, BeerVersionMismatchException;
+
+    @ApiOperation(value = "Decrements the stock of a given beer. Send the ETag of an earlier response in If-Match "
+            + "to apply it only if the beer has not changed since")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Beer with its new stock, its version in the ETag header"),
+            @ApiResponse(code = 400, message = "Missing quantity, or stock below zero."),
+            @ApiResponse(code = 404, message = "Beer with given id not found."),
+            @ApiResponse(code = 409, message = "Stock kept changing concurrently until retries ran out."),
+            @ApiResponse(code = 412, message = "Beer is no longer at the version given in If-Match."),
+            @ApiResponse(code = 503, message = "Database is degraded, stock cannot be changed for now."),
+            @ApiResponse(code = 504, message = "Deadline given in X-Request-Timeout, or the endpoint default, passed first.")
+    })
+    ResponseEntity<BeerDTO> decrement(@PathVariable Long id, QuantityDTO quantityDTO, String ifMatch)
+            throws BeerNotFoundException, BeerStockExceededException, NegativeBeerStockException, BeerVersionMismatchException;
 }
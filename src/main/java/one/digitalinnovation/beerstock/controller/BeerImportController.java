@@ -0,0 +1,31 @@
+package one.digitalinnovation.beerstock.controller;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.dto.BeerImportResultDTO;
+import one.digitalinnovation.beerstock.exception.InvalidBeerImportException;
+import one.digitalinnovation.beerstock.service.BeerImportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/v1/beers/import")
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class BeerImportController implements BeerImportControllerDocs {
+
+    private final BeerImportService beerImportService;
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public BeerImportResultDTO importBeers(@RequestParam("file") MultipartFile file) throws IOException, InvalidBeerImportException {
+        try (InputStream inputStream = file.getInputStream()) {
+            return beerImportService.importCsv(inputStream);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package one.digitalinnovation.beerstock.controller;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import one.digitalinnovation.beerstock.dto.BeerImportResultDTO;
+import one.digitalinnovation.beerstock.exception.InvalidBeerImportException;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+
+@Api("Imports the beer catalogue from CSV files")
+public interface BeerImportControllerDocs {
+
+    @ApiOperation(value = "Creates or updates beers by name from a CSV file with a name,brand,max,quantity,type header")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "File imported, returns the row counts and the rejected lines"),
+            @ApiResponse(code = 400, message = "Empty file or header missing a required column.")
+    })
+    BeerImportResultDTO importBeers(MultipartFile file) throws IOException, InvalidBeerImportException;
+}
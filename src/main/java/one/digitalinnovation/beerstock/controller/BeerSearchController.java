@@ -0,0 +1,31 @@
+package one.digitalinnovation.beerstock.controller;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.dto.BeerSearchHitDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.exception.InvalidSearchLimitException;
+import one.digitalinnovation.beerstock.service.BeerSearchService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/beers/search")
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class BeerSearchController implements BeerSearchControllerDocs {
+
+    private final BeerSearchService beerSearchService;
+
+    @GetMapping
+    public List<BeerSearchHitDTO> search(@RequestParam String q,
+                                         @RequestParam(required = false) BeerType type,
+                                         @RequestParam(required = false) Integer minQuantity,
+                                         @RequestParam(required = false) Integer maxQuantity,
+                                         @RequestParam(defaultValue = "10") int limit) throws InvalidSearchLimitException {
+        return beerSearchService.search(q, type, minQuantity, maxQuantity, limit);
+    }
+}
@@ -0,0 +1,23 @@
+package one.digitalinnovation.beerstock.controller;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import one.digitalinnovation.beerstock.dto.BeerSearchHitDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.exception.InvalidSearchLimitException;
+
+import java.util.List;
+
+@Api("Searches the beer catalogue")
+public interface BeerSearchControllerDocs {
+
+    @ApiOperation(value = "Returns beers whose name or brand is similar to the given text, best matches first")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "List of matching beers ranked by similarity"),
+            @ApiResponse(code = 400, message = "Missing search text, wrong filter value or a limit outside 1 to 100.")
+    })
+    List<BeerSearchHitDTO> search(String q, BeerType type, Integer minQuantity, Integer maxQuantity, int limit)
+            throws InvalidSearchLimitException;
+}
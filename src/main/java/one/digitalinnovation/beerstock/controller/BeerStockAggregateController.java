@@ -0,0 +1,35 @@
+package one.digitalinnovation.beerstock.controller;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.dto.StockAggregateDTO;
+import one.digitalinnovation.beerstock.dto.StockAggregatesDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.service.BeerStockAggregateService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/beers/aggregates")
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class BeerStockAggregateController implements BeerStockAggregateControllerDocs {
+
+    private final BeerStockAggregateService beerStockAggregateService;
+
+    @GetMapping
+    public StockAggregatesDTO getAggregates() {
+        return beerStockAggregateService.getAggregates();
+    }
+
+    @GetMapping("/types/{type}")
+    public StockAggregateDTO getByType(@PathVariable BeerType type) {
+        return beerStockAggregateService.getByType(type);
+    }
+
+    @GetMapping("/brands/{brand}")
+    public StockAggregateDTO getByBrand(@PathVariable String brand) {
+        return beerStockAggregateService.getByBrand(brand);
+    }
+}
@@ -0,0 +1,33 @@
+package one.digitalinnovation.beerstock.controller;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import one.digitalinnovation.beerstock.dto.StockAggregateDTO;
+import one.digitalinnovation.beerstock.dto.StockAggregatesDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import org.springframework.web.bind.annotation.PathVariable;
+
+@Api("Reports stock totals")
+public interface BeerStockAggregateControllerDocs {
+
+    @ApiOperation(value = "Returns quantity and max stock totals for every beer type and brand")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Stock totals grouped by beer type and by brand"),
+    })
+    StockAggregatesDTO getAggregates();
+
+    @ApiOperation(value = "Returns quantity and max stock totals of a given beer type")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Stock totals of the beer type"),
+            @ApiResponse(code = 400, message = "Unknown beer type.")
+    })
+    StockAggregateDTO getByType(@PathVariable BeerType type);
+
+    @ApiOperation(value = "Returns quantity and max stock totals of a given brand")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Stock totals of the brand, zero when no beer of the brand is registered"),
+    })
+    StockAggregateDTO getByBrand(@PathVariable String brand);
+}
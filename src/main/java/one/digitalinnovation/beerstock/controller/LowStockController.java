@@ -0,0 +1,50 @@
+package one.digitalinnovation.beerstock.controller;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.dto.LowStockBeerDTO;
+import one.digitalinnovation.beerstock.dto.ThresholdDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.service.LowStockService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.Valid;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/beers/low-stock")
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class LowStockController implements LowStockControllerDocs {
+
+    private final LowStockService lowStockService;
+
+    @GetMapping
+    public List<LowStockBeerDTO> getWatchList() {
+        return lowStockService.getWatchList();
+    }
+
+    @PutMapping("/thresholds/beers/{id}")
+    public LowStockBeerDTO setBeerThreshold(@PathVariable Long id, @RequestBody @Valid ThresholdDTO thresholdDTO) throws BeerNotFoundException {
+        return lowStockService.setBeerThreshold(id, thresholdDTO.getFillRatio());
+    }
+
+    @DeleteMapping("/thresholds/beers/{id}")
+    public LowStockBeerDTO removeBeerThreshold(@PathVariable Long id) throws BeerNotFoundException {
+        return lowStockService.removeBeerThreshold(id);
+    }
+
+    @PutMapping("/thresholds/types/{type}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void setTypeThreshold(@PathVariable BeerType type, @RequestBody @Valid ThresholdDTO thresholdDTO) {
+        lowStockService.setTypeThreshold(type, thresholdDTO.getFillRatio());
+    }
+}
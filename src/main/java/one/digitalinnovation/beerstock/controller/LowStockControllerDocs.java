@@ -0,0 +1,45 @@
+package one.digitalinnovation.beerstock.controller;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import one.digitalinnovation.beerstock.dto.LowStockBeerDTO;
+import one.digitalinnovation.beerstock.dto.ThresholdDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import org.springframework.web.bind.annotation.PathVariable;
+
+import java.util.List;
+
+@Api("Watches beers running low on stock")
+public interface LowStockControllerDocs {
+
+    @ApiOperation(value = "Returns the beers currently below their low-stock threshold, emptiest first")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "List of beers below their threshold"),
+    })
+    List<LowStockBeerDTO> getWatchList();
+
+    @ApiOperation(value = "Sets the low-stock fill ratio threshold of a given beer")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Threshold set, returns the beer fill ratio and threshold"),
+            @ApiResponse(code = 400, message = "Missing threshold or threshold outside 0..1."),
+            @ApiResponse(code = 404, message = "Beer with given id not found.")
+    })
+    LowStockBeerDTO setBeerThreshold(@PathVariable Long id, ThresholdDTO thresholdDTO) throws BeerNotFoundException;
+
+    @ApiOperation(value = "Removes the low-stock threshold of a given beer, falling back to its type threshold")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Threshold removed, returns the beer fill ratio and threshold"),
+            @ApiResponse(code = 404, message = "Beer with given id not found.")
+    })
+    LowStockBeerDTO removeBeerThreshold(@PathVariable Long id) throws BeerNotFoundException;
+
+    @ApiOperation(value = "Sets the low-stock fill ratio threshold of every beer of a given type")
+    @ApiResponses(value = {
+            @ApiResponse(code = 204, message = "Threshold set"),
+            @ApiResponse(code = 400, message = "Missing threshold, threshold outside 0..1 or unknown beer type.")
+    })
+    void setTypeThreshold(@PathVariable BeerType type, ThresholdDTO thresholdDTO);
+}
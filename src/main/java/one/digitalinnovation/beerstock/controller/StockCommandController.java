@@ -0,0 +1,107 @@
+package one.digitalinnovation.beerstock.controller;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.config.StockPipelineProperties;
+import one.digitalinnovation.beerstock.dto.StockCommandDTO;
+import one.digitalinnovation.beerstock.dto.StockCommandStatusDTO;
+import one.digitalinnovation.beerstock.enums.StockCommandStatus;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.exception.NegativeBeerStockException;
+import one.digitalinnovation.beerstock.exception.StockCommandNotFoundException;
+import one.digitalinnovation.beerstock.exception.StockPipelineSaturatedException;
+import one.digitalinnovation.beerstock.service.StockCommandPipeline;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import javax.validation.Valid;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/v1/beers")
+@ConditionalOnProperty(prefix = "beerstock.stock-pipeline", name = "enabled", havingValue = "true")
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class StockCommandController implements StockCommandControllerDocs {
+
+    private static final String RESPOND_ASYNC = "respond-async";
+    private static final String WAIT = "wait";
+
+    private final StockCommandPipeline stockCommandPipeline;
+    private final StockPipelineProperties pipelineProperties;
+
+    @PostMapping("/{id}/stock-commands")
+    public ResponseEntity<StockCommandStatusDTO> submit(@PathVariable Long id,
+                                                        @RequestBody @Valid StockCommandDTO stockCommandDTO,
+                                                        @RequestHeader(value = "Prefer", required = false) String prefer)
+            throws StockPipelineSaturatedException, StockCommandNotFoundException, BeerNotFoundException,
+            BeerStockExceededException, NegativeBeerStockException {
+        UUID commandId = stockCommandPipeline.submit(id, stockCommandDTO.getOperation(), stockCommandDTO.getQuantity());
+        Map<String, String> preferences = parsePreferences(prefer);
+        boolean respondAsync = preferences.containsKey(RESPOND_ASYNC);
+        Duration timeout = waitPreference(preferences, respondAsync ? Duration.ZERO : pipelineProperties.getSyncTimeout());
+        StockCommandStatusDTO status = timeout.isZero()
+                ? stockCommandPipeline.getStatus(commandId)
+                : stockCommandPipeline.await(commandId, timeout);
+        if (timeout.isZero() || status.getStatus() == StockCommandStatus.PENDING) {
+            return ResponseEntity.accepted()
+                    .location(ServletUriComponentsBuilder.fromCurrentContextPath()
+                            .path("/api/v1/beers/stock-commands/{commandId}")
+                            .buildAndExpand(commandId)
+                            .toUri())
+                    .body(status);
+        }
+        return ResponseEntity.ok(status);
+    }
+
+    @GetMapping("/stock-commands/{commandId}")
+    public StockCommandStatusDTO getStatus(@PathVariable UUID commandId) throws StockCommandNotFoundException {
+        return stockCommandPipeline.getStatus(commandId);
+    }
+
+    /**
+     * Parses a {@code Prefer} header (RFC 7240) into its preferences by lower-cased name, each with
+     * its value or an empty string. Parameters after {@code ;} are ignored.
+     */
+    private static Map<String, String> parsePreferences(String prefer) {
+        Map<String, String> preferences = new HashMap<>();
+        if (prefer == null) {
+            return preferences;
+        }
+        for (String preference : prefer.split(",")) {
+            String token = preference.split(";", 2)[0];
+            String[] nameAndValue = token.split("=", 2);
+            String name = nameAndValue[0].trim().toLowerCase(Locale.ROOT);
+            if (!name.isEmpty()) {
+                String value = nameAndValue.length > 1 ? nameAndValue[1].trim().replace("\"", "") : "";
+                preferences.putIfAbsent(name, value);
+            }
+        }
+        return preferences;
+    }
+
+    /**
+     * How long to wait for the command: the {@code wait} preference in seconds, never longer than
+     * the configured sync timeout, or the given default when it is absent or not a number.
+     */
+    private Duration waitPreference(Map<String, String> preferences, Duration defaultTimeout) {
+        String wait = preferences.get(WAIT);
+        if (wait == null || !wait.matches("\\d{1,9}")) {
+            return defaultTimeout;
+        }
+        Duration requested = Duration.ofSeconds(Long.parseLong(wait));
+        return requested.compareTo(pipelineProperties.getSyncTimeout()) < 0 ? requested : pipelineProperties.getSyncTimeout();
+    }
+}
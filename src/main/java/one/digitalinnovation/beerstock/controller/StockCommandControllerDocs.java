@@ -0,0 +1,41 @@
+package one.digitalinnovation.beerstock.controller;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import one.digitalinnovation.beerstock.dto.StockCommandDTO;
+import one.digitalinnovation.beerstock.dto.StockCommandStatusDTO;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.exception.NegativeBeerStockException;
+import one.digitalinnovation.beerstock.exception.StockCommandNotFoundException;
+import one.digitalinnovation.beerstock.exception.StockPipelineSaturatedException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+
+import java.util.UUID;
+
+@Api("Queues stock movements on the single-writer stock pipeline")
+public interface StockCommandControllerDocs {
+
+    @ApiOperation(value = "Increments or decrements the stock of a given beer through its pipeline partition. "
+            + "Send Prefer: respond-async to get the status URL without waiting, optionally with wait=<seconds>")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Command applied, returns the beer with its new stock"),
+            @ApiResponse(code = 202, message = "Command queued, its status is at the Location URL"),
+            @ApiResponse(code = 400, message = "Missing operation or quantity, or movement outside the stock bounds."),
+            @ApiResponse(code = 404, message = "Beer with given id not found."),
+            @ApiResponse(code = 503, message = "Partition queue is full.")
+    })
+    ResponseEntity<StockCommandStatusDTO> submit(@PathVariable Long id, StockCommandDTO stockCommandDTO, String prefer)
+            throws StockPipelineSaturatedException, StockCommandNotFoundException, BeerNotFoundException,
+            BeerStockExceededException, NegativeBeerStockException;
+
+    @ApiOperation(value = "Returns the status of a queued stock command")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Command status, with the resulting beer once applied or the error once rejected"),
+            @ApiResponse(code = 404, message = "Unknown command, or completed too long ago to be retained.")
+    })
+    StockCommandStatusDTO getStatus(@PathVariable UUID commandId) throws StockCommandNotFoundException;
+}
@@ -0,0 +1,34 @@
+package one.digitalinnovation.beerstock.controller;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.dto.StockHistoryDTO;
+import one.digitalinnovation.beerstock.enums.StockResolution;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.InvalidStockHistoryRangeException;
+import one.digitalinnovation.beerstock.service.StockHistoryService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+
+@RestController
+@RequestMapping("/api/v1/beers/{id}/stock-history")
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class StockHistoryController implements StockHistoryControllerDocs {
+
+    private final StockHistoryService stockHistoryService;
+
+    @GetMapping
+    public StockHistoryDTO getHistory(@PathVariable Long id,
+                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                      @RequestParam(required = false) StockResolution resolution)
+            throws BeerNotFoundException, InvalidStockHistoryRangeException {
+        return stockHistoryService.getHistory(id, from, to, resolution);
+    }
+}
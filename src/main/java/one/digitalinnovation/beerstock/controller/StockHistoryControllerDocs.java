@@ -0,0 +1,27 @@
+package one.digitalinnovation.beerstock.controller;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import one.digitalinnovation.beerstock.dto.StockHistoryDTO;
+import one.digitalinnovation.beerstock.enums.StockResolution;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.InvalidStockHistoryRangeException;
+import org.springframework.web.bind.annotation.PathVariable;
+
+import java.time.Instant;
+
+@Api("Reports stock level history")
+public interface StockHistoryControllerDocs {
+
+    @ApiOperation(value = "Returns the stock level of a given beer over a time range, as raw changes or "
+            + "min/max/last rollups per minute, hour or day. Defaults to the last week at the finest retained resolution")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Stock level points of the beer, oldest first"),
+            @ApiResponse(code = 400, message = "Range start after its end, or unknown resolution."),
+            @ApiResponse(code = 404, message = "Beer with given id not found.")
+    })
+    StockHistoryDTO getHistory(@PathVariable Long id, Instant from, Instant to, StockResolution resolution)
+            throws BeerNotFoundException, InvalidStockHistoryRangeException;
+}
@@ -0,0 +1,71 @@
+package one.digitalinnovation.beerstock.controller;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.dto.BeerStockTotalDTO;
+import one.digitalinnovation.beerstock.dto.QuantityDTO;
+import one.digitalinnovation.beerstock.dto.WarehouseStockDTO;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.exception.InvalidWarehouseStockException;
+import one.digitalinnovation.beerstock.exception.NegativeBeerStockException;
+import one.digitalinnovation.beerstock.exception.WarehouseStockNotFoundException;
+import one.digitalinnovation.beerstock.service.WarehouseStockService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.Valid;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/beers/{id}")
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class WarehouseStockController implements WarehouseStockControllerDocs {
+
+    private final WarehouseStockService warehouseStockService;
+
+    @GetMapping("/warehouses")
+    public List<WarehouseStockDTO> findByBeer(@PathVariable Long id) throws BeerNotFoundException {
+        return warehouseStockService.findByBeer(id);
+    }
+
+    @GetMapping("/stock")
+    public BeerStockTotalDTO getTotal(@PathVariable Long id) throws BeerNotFoundException {
+        return warehouseStockService.getTotal(id);
+    }
+
+    @PutMapping("/warehouses/{warehouse}")
+    public WarehouseStockDTO setStock(@PathVariable Long id, @PathVariable String warehouse,
+                                      @RequestBody @Valid WarehouseStockDTO warehouseStockDTO)
+            throws BeerNotFoundException, InvalidWarehouseStockException {
+        return warehouseStockService.setStock(id, warehouse, warehouseStockDTO);
+    }
+
+    @DeleteMapping("/warehouses/{warehouse}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void removeStock(@PathVariable Long id, @PathVariable String warehouse) throws WarehouseStockNotFoundException {
+        warehouseStockService.removeStock(id, warehouse);
+    }
+
+    @PatchMapping("/warehouses/{warehouse}/increment")
+    public WarehouseStockDTO increment(@PathVariable Long id, @PathVariable String warehouse,
+                                       @RequestBody @Valid QuantityDTO quantityDTO)
+            throws WarehouseStockNotFoundException, BeerStockExceededException {
+        return warehouseStockService.increment(id, warehouse, quantityDTO.getQuantity());
+    }
+
+    @PatchMapping("/warehouses/{warehouse}/decrement")
+    public WarehouseStockDTO decrement(@PathVariable Long id, @PathVariable String warehouse,
+                                       @RequestBody @Valid QuantityDTO quantityDTO)
+            throws WarehouseStockNotFoundException, NegativeBeerStockException {
+        return warehouseStockService.decrement(id, warehouse, quantityDTO.getQuantity());
+    }
+}
@@ -0,0 +1,69 @@
+package one.digitalinnovation.beerstock.controller;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import io.swagger.annotations.ApiResponse;
+import io.swagger.annotations.ApiResponses;
+import one.digitalinnovation.beerstock.dto.BeerStockTotalDTO;
+import one.digitalinnovation.beerstock.dto.QuantityDTO;
+import one.digitalinnovation.beerstock.dto.WarehouseStockDTO;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.exception.InvalidWarehouseStockException;
+import one.digitalinnovation.beerstock.exception.NegativeBeerStockException;
+import one.digitalinnovation.beerstock.exception.WarehouseStockNotFoundException;
+import org.springframework.web.bind.annotation.PathVariable;
+
+import java.util.List;
+
+@Api("Manages beer stock per warehouse")
+public interface WarehouseStockControllerDocs {
+
+    @ApiOperation(value = "Returns the stock of a given beer in each of its warehouses")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "List of warehouse stocks of the beer"),
+            @ApiResponse(code = 404, message = "Beer with given id not found.")
+    })
+    List<WarehouseStockDTO> findByBeer(@PathVariable Long id) throws BeerNotFoundException;
+
+    @ApiOperation(value = "Returns the stock of a given beer summed over all its warehouses")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Total stock of the beer"),
+            @ApiResponse(code = 404, message = "Beer with given id not found.")
+    })
+    BeerStockTotalDTO getTotal(@PathVariable Long id) throws BeerNotFoundException;
+
+    @ApiOperation(value = "Sets the quantity and max capacity of a given beer in a warehouse")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Warehouse stock set"),
+            @ApiResponse(code = 400, message = "Missing fields, or quantity above the max capacity."),
+            @ApiResponse(code = 404, message = "Beer with given id not found.")
+    })
+    WarehouseStockDTO setStock(@PathVariable Long id, @PathVariable String warehouse, WarehouseStockDTO warehouseStockDTO)
+            throws BeerNotFoundException, InvalidWarehouseStockException;
+
+    @ApiOperation(value = "Removes a given beer from a warehouse")
+    @ApiResponses(value = {
+            @ApiResponse(code = 204, message = "Warehouse stock removed"),
+            @ApiResponse(code = 404, message = "Beer is not stocked in the given warehouse.")
+    })
+    void removeStock(@PathVariable Long id, @PathVariable String warehouse) throws WarehouseStockNotFoundException;
+
+    @ApiOperation(value = "Increments the stock of a given beer in a warehouse")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Warehouse stock incremented"),
+            @ApiResponse(code = 400, message = "Quantity above the max capacity of the warehouse."),
+            @ApiResponse(code = 404, message = "Beer is not stocked in the given warehouse.")
+    })
+    WarehouseStockDTO increment(@PathVariable Long id, @PathVariable String warehouse, QuantityDTO quantityDTO)
+            throws WarehouseStockNotFoundException, BeerStockExceededException;
+
+    @ApiOperation(value = "Decrements the stock of a given beer in a warehouse")
+    @ApiResponses(value = {
+            @ApiResponse(code = 200, message = "Warehouse stock decremented"),
+            @ApiResponse(code = 400, message = "Quantity above the stock of the warehouse."),
+            @ApiResponse(code = 404, message = "Beer is not stocked in the given warehouse.")
+    })
+    WarehouseStockDTO decrement(@PathVariable Long id, @PathVariable String warehouse, QuantityDTO quantityDTO)
+            throws WarehouseStockNotFoundException, NegativeBeerStockException;
+}
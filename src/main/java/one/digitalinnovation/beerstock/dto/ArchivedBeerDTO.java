@@ -0,0 +1,32 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import one.digitalinnovation.beerstock.enums.BeerType;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedBeerDTO {
+
+    private Long id;
+
+    private String name;
+
+    private String brand;
+
+    private Integer max;
+
+    private Integer quantity;
+
+    private BeerType type;
+
+    private Instant outOfStockSince;
+
+    private Instant archivedAt;
+}
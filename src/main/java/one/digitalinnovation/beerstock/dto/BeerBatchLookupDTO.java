@@ -0,0 +1,25 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerBatchLookupDTO {
+
+    public static final int MAX_KEYS = 200;
+
+    @Size(max = MAX_KEYS)
+    private List<@NotNull Long> ids;
+
+    @Size(max = MAX_KEYS)
+    private List<@NotNull @Size(min = 1, max = 200) String> names;
+}
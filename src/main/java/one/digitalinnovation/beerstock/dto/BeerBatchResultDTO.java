@@ -0,0 +1,21 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerBatchResultDTO {
+
+    private List<BeerDTO> found;
+
+    private List<Long> missingIds;
+
+    private List<String> missingNames;
+}
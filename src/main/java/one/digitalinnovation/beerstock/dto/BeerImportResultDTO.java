@@ -0,0 +1,27 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BeerImportResultDTO {
+
+    private long rows;
+
+    private long created;
+
+    private long updated;
+
+    private long unchanged;
+
+    private long rejected;
+
+    private List<BeerImportRejectionDTO> rejections;
+}
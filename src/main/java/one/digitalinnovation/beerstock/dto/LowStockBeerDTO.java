@@ -0,0 +1,19 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LowStockBeerDTO {
+
+    private BeerDTO beer;
+
+    private double fillRatio;
+
+    private double threshold;
+}
@@ -0,0 +1,57 @@
+package one.digitalinnovation.beerstock.dto;
+
+import javax.validation.Constraint;
+import javax.validation.ConstraintValidator;
+import javax.validation.ConstraintValidatorContext;
+import javax.validation.Payload;
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Rejects a {@link BeerFilterDTO} whose quantity or fill ratio range starts after it ends, which
+ * could never match a beer.
+ */
+@Documented
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Constraint(validatedBy = OrderedFilterRanges.Validator.class)
+public @interface OrderedFilterRanges {
+
+    String message() default "Filter range minimum must not be greater than its maximum";
+
+    Class<?>[] groups() default {};
+
+    Class<? extends Payload>[] payload() default {};
+
+    class Validator implements ConstraintValidator<OrderedFilterRanges, BeerFilterDTO> {
+
+        @Override
+        public boolean isValid(BeerFilterDTO filter, ConstraintValidatorContext context) {
+            if (filter == null) {
+                return true;
+            }
+            boolean valid = true;
+            context.disableDefaultConstraintViolation();
+            if (isInverted(filter.getMinQuantity(), filter.getMaxQuantity())) {
+                context.buildConstraintViolationWithTemplate(context.getDefaultConstraintMessageTemplate())
+                        .addPropertyNode("minQuantity")
+                        .addConstraintViolation();
+                valid = false;
+            }
+            if (isInverted(filter.getMinFillRatio(), filter.getMaxFillRatio())) {
+                context.buildConstraintViolationWithTemplate(context.getDefaultConstraintMessageTemplate())
+                        .addPropertyNode("minFillRatio")
+                        .addConstraintViolation();
+                valid = false;
+            }
+            return valid;
+        }
+
+        private static <T extends Comparable<T>> boolean isInverted(T min, T max) {
+            return min != null && max != null && min.compareTo(max) > 0;
+        }
+    }
+}
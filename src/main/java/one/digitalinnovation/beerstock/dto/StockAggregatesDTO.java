@@ -0,0 +1,20 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import one.digitalinnovation.beerstock.enums.BeerType;
+
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAggregatesDTO {
+
+    private Map<BeerType, StockAggregateDTO> byType;
+
+    private Map<String, StockAggregateDTO> byBrand;
+}
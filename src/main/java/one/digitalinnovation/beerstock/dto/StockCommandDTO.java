@@ -0,0 +1,24 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import one.digitalinnovation.beerstock.enums.StockOperation;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.NotNull;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockCommandDTO {
+
+    @NotNull
+    private StockOperation operation;
+
+    @NotNull
+    @Max(100)
+    private Integer quantity;
+}
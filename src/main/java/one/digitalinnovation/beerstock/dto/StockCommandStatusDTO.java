@@ -0,0 +1,33 @@
+package one.digitalinnovation.beerstock.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import one.digitalinnovation.beerstock.enums.StockCommandStatus;
+import one.digitalinnovation.beerstock.enums.StockOperation;
+
+import java.util.UUID;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StockCommandStatusDTO {
+
+    private UUID id;
+
+    private Long beerId;
+
+    private StockOperation operation;
+
+    private int quantity;
+
+    private StockCommandStatus status;
+
+    private BeerDTO beer;
+
+    private String error;
+}
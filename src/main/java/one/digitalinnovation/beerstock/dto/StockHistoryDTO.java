@@ -0,0 +1,27 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import one.digitalinnovation.beerstock.enums.StockResolution;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockHistoryDTO {
+
+    private Long beerId;
+
+    private StockResolution resolution;
+
+    private Instant from;
+
+    private Instant to;
+
+    private List<StockPointDTO> points;
+}
@@ -0,0 +1,23 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockPointDTO {
+
+    private Instant timestamp;
+
+    private int min;
+
+    private int max;
+
+    private int last;
+}
@@ -0,0 +1,23 @@
+package one.digitalinnovation.beerstock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WarmUpReportDTO {
+
+    private long iterations;
+
+    private long failedIterations;
+
+    private long durationMillis;
+
+    private long compilationMillis;
+
+    private boolean settled;
+}
@@ -0,0 +1,61 @@
+package one.digitalinnovation.beerstock.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.repository.BrandConverter;
+
+import javax.persistence.Column;
+import javax.persistence.Convert;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import java.time.Instant;
+
+/**
+ * A {@link Beer} moved out of the hot {@code beer} table, keeping its id, so it can be restored
+ * as it was. Rows are only written by the archive queries of
+ * {@link one.digitalinnovation.beerstock.repository.ArchivedBeerRepository}. Names are not unique
+ * here, since a new beer may take the name of an archived one.
+ */
+@Data
+@Entity
+@Table(name = "archived_beer", indexes = {
+        @Index(name = "idx_archived_beer_name", columnList = "name")
+})
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedBeer {
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private String name;
+
+    @Convert(converter = BrandConverter.class)
+    @Column(name = "brand_id", nullable = false)
+    private String brand;
+
+    @Column(nullable = false)
+    private int max;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private BeerType type;
+
+    private Long version;
+
+    @Column(name = "out_of_stock_since")
+    private Instant outOfStockSince;
+
+    @Column(name = "archived_at", nullable = false)
+    private Instant archivedAt;
+}
@@ -0,0 +1,32 @@
+package one.digitalinnovation.beerstock.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.EmbeddedId;
+import javax.persistence.Entity;
+import javax.persistence.Table;
+
+/**
+ * A {@link WarehouseStock} location of an {@link ArchivedBeer}, moved out of the hot table along
+ * with its beer and moved back when the beer is restored. Rows are only written by the archive
+ * queries of {@link one.digitalinnovation.beerstock.repository.ArchivedBeerRepository}.
+ */
+@Data
+@Entity
+@Table(name = "archived_warehouse_stock")
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedWarehouseStock {
+
+    @EmbeddedId
+    private WarehouseStockId id;
+
+    @Column(nullable = false)
+    private int max;
+
+    @Column(nullable = false)
+    private int quantity;
+}
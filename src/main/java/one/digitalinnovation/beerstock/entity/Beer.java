@@ -4,29 +4,56 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.repository.BrandConverter;
+import one.digitalinnovation.beerstock.repository.BrandRegistrationListener;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.Column;
+import javax.persistence.Convert;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import javax.persistence.Table;
+import javax.persistence.Version;
+import java.time.Instant;
 
 @Data
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_beer_type_brand_quantity", columnList = "type, brand_id, quantity"),
+        @Index(name = "idx_beer_brand_quantity", columnList = "brand_id, quantity"),
+        @Index(name = "idx_beer_quantity", columnList = "quantity")
+})
+@EntityListeners(BrandRegistrationListener.class)
 @NoArgsConstructor
 @AllArgsConstructor
 public class Beer {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "beer_id")
+    @GenericGenerator(name = "beer_id", strategy = "one.digitalinnovation.beerstock.config.ShardAwareIdGenerator",
+            parameters = {
+                    @Parameter(name = "sequence_name", value = "beer_id_seq"),
+                    @Parameter(name = "increment_size", value = "1")
+            })
     private Long id;
 
     @Column(nullable = false, unique = true)
     private String name;
 
-    @Column(nullable = false)
+    /**
+     * Stored as the id of the brand in the {@code brand} table; every beer of a brand shares the
+     * same name instance from the {@link one.digitalinnovation.beerstock.repository.BrandDictionary}.
+     */
+    @Convert(converter = BrandConverter.class)
+    @Column(name = "brand_id", nullable = false)
     private String brand;
 
     @Column(nullable = false)
@@ -39,5 +66,23 @@ public class Beer {
     @Column(nullable = false)
     private BeerType type;
 
+    @Version
+    private Long version;
+
+    /**
+     * When the stock of the beer last ran out, or {@code null} while it has stock. Beers out of
+     * stock for long enough can be moved to the {@link ArchivedBeer} table.
+     */
+    @Column(name = "out_of_stock_since")
+    private Instant outOfStockSince;
 
+    @PrePersist
+    @PreUpdate
+    void trackOutOfStock() {
+        if (quantity > 0) {
+            outOfStockSince = null;
+        } else if (outOfStockSince == null) {
+            outOfStockSince = Instant.now();
+        }
+    }
 }
@@ -0,0 +1,29 @@
+package one.digitalinnovation.beerstock.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.EmbeddedId;
+import javax.persistence.Entity;
+
+/**
+ * Stock of one beer in one warehouse. Each location is a row of its own, keyed by beer and
+ * warehouse, so stock movements in different warehouses never contend on the same row.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+public class WarehouseStock {
+
+    @EmbeddedId
+    private WarehouseStockId id;
+
+    @Column(nullable = false)
+    private int max;
+
+    @Column(nullable = false)
+    private int quantity;
+}
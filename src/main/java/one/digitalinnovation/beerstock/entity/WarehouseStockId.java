@@ -0,0 +1,22 @@
+package one.digitalinnovation.beerstock.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Embeddable;
+import java.io.Serializable;
+
+@Data
+@Embeddable
+@NoArgsConstructor
+@AllArgsConstructor
+public class WarehouseStockId implements Serializable {
+
+    @Column(name = "beer_id", nullable = false)
+    private Long beerId;
+
+    @Column(nullable = false, length = 50)
+    private String warehouse;
+}
@@ -0,0 +1,40 @@
+package one.digitalinnovation.beerstock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import one.digitalinnovation.beerstock.exception.InvalidBeerFieldException;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+@Getter
+@AllArgsConstructor
+public enum BeerField {
+
+    ID("id"),
+    NAME("name"),
+    BRAND("brand"),
+    MAX("max"),
+    QUANTITY("quantity"),
+    TYPE("type");
+
+    private final String property;
+
+    public static BeerField fromProperty(String property) throws InvalidBeerFieldException {
+        for (BeerField field : values()) {
+            if (field.property.equals(property.trim())) {
+                return field;
+            }
+        }
+        throw new InvalidBeerFieldException(property);
+    }
+
+    public static Set<BeerField> fromProperties(Collection<String> properties) throws InvalidBeerFieldException {
+        Set<BeerField> fields = EnumSet.noneOf(BeerField.class);
+        for (String property : properties) {
+            fields.add(fromProperty(property));
+        }
+        return fields;
+    }
+}
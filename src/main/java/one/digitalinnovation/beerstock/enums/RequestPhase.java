@@ -0,0 +1,18 @@
+package one.digitalinnovation.beerstock.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum RequestPhase {
+
+    VALIDATION("validation"),
+    CONTROLLER("controller"),
+    SERVICE("service"),
+    REPOSITORY("repository"),
+    MAPPING("mapping"),
+    SERIALIZATION("serialization");
+
+    private final String tag;
+}
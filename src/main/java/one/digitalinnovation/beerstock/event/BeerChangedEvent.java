@@ -0,0 +1,55 @@
+package one.digitalinnovation.beerstock.event;
+
+import lombok.Value;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+
+/**
+ * Published by the beer service every time a beer is created, changed or deleted.
+ * Carries the state before and after the change, so in-memory views can be kept
+ * up to date incrementally: {@code previous} is null for creations and
+ * {@code current} is null for deletions. Moving a beer to the archive and back is
+ * published as a deletion and a creation marked as an {@code archival}, so views of
+ * the hot catalogue drop and regain it, while data kept along with the beer in the
+ * archive, such as its warehouse stock, is not deleted.
+ */
+@Value
+public class BeerChangedEvent {
+
+    BeerDTO previous;
+
+    BeerDTO current;
+
+    boolean archival;
+
+    public static BeerChangedEvent created(BeerDTO current) {
+        return new BeerChangedEvent(null, current, false);
+    }
+
+    public static BeerChangedEvent updated(BeerDTO previous, BeerDTO current) {
+        return new BeerChangedEvent(previous, current, false);
+    }
+
+    public static BeerChangedEvent deleted(BeerDTO previous) {
+        return new BeerChangedEvent(previous, null, false);
+    }
+
+    public static BeerChangedEvent archived(BeerDTO previous) {
+        return new BeerChangedEvent(previous, null, true);
+    }
+
+    public static BeerChangedEvent restored(BeerDTO current) {
+        return new BeerChangedEvent(null, current, true);
+    }
+
+    public boolean isCreation() {
+        return previous == null;
+    }
+
+    public boolean isDeletion() {
+        return current == null;
+    }
+
+    public Long getBeerId() {
+        return isDeletion() ? previous.getId() : current.getId();
+    }
+}
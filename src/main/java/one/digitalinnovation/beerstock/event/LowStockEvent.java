@@ -0,0 +1,20 @@
+package one.digitalinnovation.beerstock.event;
+
+import lombok.Value;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+
+/**
+ * Published when a beer crosses its low-stock threshold, either falling below it
+ * ({@code lowStock} true) or recovering above it ({@code lowStock} false).
+ */
+@Value
+public class LowStockEvent {
+
+    BeerDTO beer;
+
+    double fillRatio;
+
+    double threshold;
+
+    boolean lowStock;
+}
@@ -0,0 +1,44 @@
+package one.digitalinnovation.beerstock.event;
+
+import lombok.Value;
+
+/**
+ * Published whenever the stock of a beer in a warehouse changes, carrying the change so listeners
+ * can apply it to running totals. A warehouse being added or removed changes the number of locations
+ * by one. The stock of the location after the change is carried as well, and is null once the
+ * location is removed, so a change can also be applied again by replacing the location.
+ */
+@Value
+public class WarehouseStockChangedEvent {
+
+    Long beerId;
+
+    String warehouse;
+
+    int warehousesDelta;
+
+    int quantityDelta;
+
+    int maxDelta;
+
+    Integer quantity;
+
+    Integer max;
+
+    public static WarehouseStockChangedEvent added(Long beerId, String warehouse, int quantity, int max) {
+        return new WarehouseStockChangedEvent(beerId, warehouse, 1, quantity, max, quantity, max);
+    }
+
+    public static WarehouseStockChangedEvent changed(Long beerId, String warehouse, int quantityDelta, int maxDelta,
+                                                     int quantity, int max) {
+        return new WarehouseStockChangedEvent(beerId, warehouse, 0, quantityDelta, maxDelta, quantity, max);
+    }
+
+    public static WarehouseStockChangedEvent removed(Long beerId, String warehouse, int quantity, int max) {
+        return new WarehouseStockChangedEvent(beerId, warehouse, -1, -quantity, -max, null, null);
+    }
+
+    public boolean isRemoval() {
+        return quantity == null;
+    }
+}
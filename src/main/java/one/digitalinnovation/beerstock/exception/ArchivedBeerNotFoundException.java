@@ -0,0 +1,16 @@
+package one.digitalinnovation.beerstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class ArchivedBeerNotFoundException extends Exception {
+
+    public ArchivedBeerNotFoundException(String beerName) {
+        super(String.format("Beer with name %s not found in the archive.", beerName));
+    }
+
+    public ArchivedBeerNotFoundException(Long id) {
+        super(String.format("Beer with id %s not found in the archive.", id));
+    }
+}
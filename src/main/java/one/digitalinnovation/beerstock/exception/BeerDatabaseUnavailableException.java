@@ -0,0 +1,13 @@
+package one.digitalinnovation.beerstock.exception;
+
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class BeerDatabaseUnavailableException extends TransientDataAccessResourceException {
+
+    public BeerDatabaseUnavailableException(Long id) {
+        super(String.format("Stock of beer with ID %s cannot be changed while the database is degraded, try again later", id));
+    }
+}
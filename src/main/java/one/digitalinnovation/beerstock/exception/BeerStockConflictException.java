@@ -0,0 +1,13 @@
+package one.digitalinnovation.beerstock.exception;
+
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.CONFLICT)
+public class BeerStockConflictException extends ConcurrencyFailureException {
+
+    public BeerStockConflictException(Long id, int attempts, Throwable cause) {
+        super(String.format("Stock of beer with ID %s was changed concurrently in each of %s attempts, try again later", id, attempts), cause);
+    }
+}
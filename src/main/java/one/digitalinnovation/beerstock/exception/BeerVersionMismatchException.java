@@ -0,0 +1,12 @@
+package one.digitalinnovation.beerstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class BeerVersionMismatchException extends Exception {
+
+    public BeerVersionMismatchException(Long id, String expectedVersion) {
+        super(String.format("Beer with ID %s is no longer at version %s, fetch it again before changing it", id, expectedVersion));
+    }
+}
@@ -0,0 +1,12 @@
+package one.digitalinnovation.beerstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidBeerFieldException extends Exception {
+
+    public InvalidBeerFieldException(String field) {
+        super(String.format("Field %s is not a beer field.", field));
+    }
+}
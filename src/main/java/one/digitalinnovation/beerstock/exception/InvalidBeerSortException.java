@@ -0,0 +1,14 @@
+package one.digitalinnovation.beerstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.Collection;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidBeerSortException extends Exception {
+
+    public InvalidBeerSortException(String property, Collection<String> sortableProperties) {
+        super(String.format("Beers cannot be sorted by %s, only by %s", property, sortableProperties));
+    }
+}
@@ -0,0 +1,12 @@
+package one.digitalinnovation.beerstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidSearchLimitException extends Exception {
+
+    public InvalidSearchLimitException(int limit, int maxResults) {
+        super(String.format("Search limit %s must be between 1 and %s", limit, maxResults));
+    }
+}
@@ -0,0 +1,14 @@
+package one.digitalinnovation.beerstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.time.Instant;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidStockHistoryRangeException extends Exception {
+
+    public InvalidStockHistoryRangeException(Instant from, Instant to) {
+        super(String.format("Stock history range start %s is after its end %s", from, to));
+    }
+}
@@ -0,0 +1,12 @@
+package one.digitalinnovation.beerstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidWarehouseStockException extends Exception {
+
+    public InvalidWarehouseStockException(String warehouse, int quantity, int max) {
+        super(String.format("Quantity %s in warehouse %s exceeds its max stock capacity: %s", quantity, warehouse, max));
+    }
+}
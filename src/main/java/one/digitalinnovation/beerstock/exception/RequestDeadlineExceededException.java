@@ -0,0 +1,19 @@
+package one.digitalinnovation.beerstock.exception;
+
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+public class RequestDeadlineExceededException extends QueryTimeoutException {
+
+    private static final String MESSAGE = "Request deadline passed before the beer request could be completed";
+
+    public RequestDeadlineExceededException() {
+        super(MESSAGE);
+    }
+
+    public RequestDeadlineExceededException(Throwable cause) {
+        super(MESSAGE, cause);
+    }
+}
@@ -0,0 +1,14 @@
+package one.digitalinnovation.beerstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.UUID;
+
+@ResponseStatus(HttpStatus.NOT_FOUND)
+public class StockCommandNotFoundException extends Exception {
+
+    public StockCommandNotFoundException(UUID id) {
+        super(String.format("Stock command with id %s not found or no longer retained.", id));
+    }
+}
@@ -0,0 +1,12 @@
+package one.digitalinnovation.beerstock.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class StockPipelineSaturatedException extends Exception {
+
+    public StockPipelineSaturatedException(Long beerId) {
+        super(String.format("Stock commands of beer with id %s are queued beyond capacity, try again later.", beerId));
+    }
+}
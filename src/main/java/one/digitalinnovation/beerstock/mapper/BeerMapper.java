@@ -2,14 +2,19 @@ package one.digitalinnovation.beerstock.mapper;
 
 import one.digitalinnovation.beerstock.dto.BeerDTO;
 import one.digitalinnovation.beerstock.entity.Beer;
+import org.mapstruct.DecoratedWith;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.factory.Mappers;
 
 @Mapper
+@DecoratedWith(BeerMapperTimingDecorator.class)
 public interface BeerMapper {
 
     BeerMapper INSTANCE = Mappers.getMapper(BeerMapper.class);
 
+    @Mapping(target = "version", ignore = true)
+    @Mapping(target = "outOfStockSince", ignore = true)
     Beer toModel(BeerDTO beerDTO);
 
     BeerDTO toDTO(Beer beer);
@@ -0,0 +1,39 @@
+package one.digitalinnovation.beerstock.mapper;
+
+import one.digitalinnovation.beerstock.config.RequestTimer;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.RequestPhase;
+
+/**
+ * Charges the time spent mapping beers to the {@link RequestPhase#MAPPING} phase of the request
+ * being timed, if any.
+ */
+public abstract class BeerMapperTimingDecorator implements BeerMapper {
+
+    private final BeerMapper delegate;
+
+    public BeerMapperTimingDecorator(BeerMapper delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Beer toModel(BeerDTO beerDTO) {
+        RequestPhase previous = RequestTimer.enter(RequestPhase.MAPPING);
+        try {
+            return delegate.toModel(beerDTO);
+        } finally {
+            RequestTimer.resume(previous);
+        }
+    }
+
+    @Override
+    public BeerDTO toDTO(Beer beer) {
+        RequestPhase previous = RequestTimer.enter(RequestPhase.MAPPING);
+        try {
+            return delegate.toDTO(beer);
+        } finally {
+            RequestTimer.resume(previous);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.entity.ArchivedBeer;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.entity.WarehouseStock;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.LockModeType;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Moves beers between the hot {@code beer} table and the {@code archived_beer} table, and their
+ * warehouse stock between {@code warehouse_stock} and {@code archived_warehouse_stock}, with one
+ * statement per table and batch, copying rows as they are stored. Calls keyed by beer ids go to the
+ * shard of those beers, which must all share it, so both tables are written on the same database;
+ * lookups by name and pages of archived beers are scattered across shards and merged.
+ */
+public interface ArchivedBeerRepository extends JpaRepository<ArchivedBeer, Long> {
+
+    Optional<ArchivedBeer> findFirstByNameOrderByArchivedAtDesc(String name);
+
+    /**
+     * Ids of the beers out of stock since {@code cutoff} or earlier, in id order after {@code afterId},
+     * so a sweep can walk the candidates of its shard a page at a time. Not routed: the sweep binds its
+     * transaction to the shard it walks.
+     */
+    @Query("select b.id from Beer b where b.quantity = 0 and b.outOfStockSince <= :cutoff and b.id > :afterId order by b.id")
+    List<Long> findOutOfStockIds(@Param("cutoff") Instant cutoff, @Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * Locks the beers about to be archived, so their stock cannot change before they are moved.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select b from Beer b where b.id in :ids")
+    List<Beer> lockBeers(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Locks the warehouse stock of the beers about to be moved, so no movement lands between copying
+     * and deleting it.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from WarehouseStock s where s.id.beerId in :ids")
+    List<WarehouseStock> lockWarehouseStock(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "insert into archived_beer (id, name, brand_id, max, quantity, type, version, out_of_stock_since, archived_at) "
+            + "select id, name, brand_id, max, quantity, type, version, out_of_stock_since, cast(:archivedAt as timestamp) "
+            + "from beer where id in (:ids)", nativeQuery = true)
+    int copyFromBeers(@Param("ids") Collection<Long> ids, @Param("archivedAt") Instant archivedAt);
+
+    @Modifying(clearAutomatically = true)
+    @Query("delete from Beer b where b.id in :ids")
+    int deleteBeers(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "insert into archived_warehouse_stock (beer_id, warehouse, max, quantity) "
+            + "select beer_id, warehouse, max, quantity from warehouse_stock where beer_id in (:ids)", nativeQuery = true)
+    int copyWarehouseStockFromBeers(@Param("ids") Collection<Long> ids);
+
+    @Modifying(clearAutomatically = true)
+    @Query("delete from WarehouseStock s where s.id.beerId in :ids")
+    int deleteWarehouseStock(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Copies archived beers back into the hot table. A beer restored without stock counts as out of
+     * stock from {@code restoredAt}, so it is not archived again right away.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = "insert into beer (id, name, brand_id, max, quantity, type, version, out_of_stock_since) "
+            + "select id, name, brand_id, max, quantity, type, version, "
+            + "case when quantity > 0 then cast(null as timestamp) else cast(:restoredAt as timestamp) end "
+            + "from archived_beer where id in (:ids)", nativeQuery = true)
+    int copyToBeers(@Param("ids") Collection<Long> ids, @Param("restoredAt") Instant restoredAt);
+
+    @Modifying(clearAutomatically = true)
+    @Query("delete from ArchivedBeer a where a.id in :ids")
+    int deleteArchived(@Param("ids") Collection<Long> ids);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "insert into warehouse_stock (beer_id, warehouse, max, quantity) "
+            + "select beer_id, warehouse, max, quantity from archived_warehouse_stock where beer_id in (:ids)", nativeQuery = true)
+    int copyWarehouseStockToBeers(@Param("ids") Collection<Long> ids);
+
+    @Modifying(clearAutomatically = true)
+    @Query("delete from ArchivedWarehouseStock s where s.id.beerId in :ids")
+    int deleteArchivedWarehouseStock(@Param("ids") Collection<Long> ids);
+}
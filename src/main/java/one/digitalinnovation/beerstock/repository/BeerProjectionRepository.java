@@ -0,0 +1,20 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.enums.BeerField;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Reads beers selecting only the requested columns. Rows come back as tuples, so no
+ * managed entity is hydrated or dirty-checked, and fields that were not requested
+ * stay null in the returned {@link BeerDTO}.
+ */
+public interface BeerProjectionRepository {
+
+    List<BeerDTO> findAllProjected(Set<BeerField> fields);
+
+    Optional<BeerDTO> findProjectedByName(String name, Set<BeerField> fields);
+}
@@ -0,0 +1,82 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.BeerField;
+import one.digitalinnovation.beerstock.enums.BeerType;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class BeerProjectionRepositoryImpl implements BeerProjectionRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<BeerDTO> findAllProjected(Set<BeerField> fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Beer> root = query.from(Beer.class);
+        query.multiselect(selections(root, fields)).orderBy(cb.asc(root.get("id")));
+        return entityManager.createQuery(query)
+                .getResultStream()
+                .map(tuple -> toDTO(tuple, fields))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public Optional<BeerDTO> findProjectedByName(String name, Set<BeerField> fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Beer> root = query.from(Beer.class);
+        query.multiselect(selections(root, fields)).where(cb.equal(root.get("name"), name));
+        return entityManager.createQuery(query)
+                .getResultStream()
+                .findFirst()
+                .map(tuple -> toDTO(tuple, fields));
+    }
+
+    private static List<Selection<?>> selections(Root<Beer> root, Set<BeerField> fields) {
+        return fields.stream()
+                .<Selection<?>>map(field -> root.get(field.getProperty()).alias(field.getProperty()))
+                .collect(Collectors.toList());
+    }
+
+    private static BeerDTO toDTO(Tuple tuple, Set<BeerField> fields) {
+        BeerDTO beerDTO = new BeerDTO();
+        for (BeerField field : fields) {
+            Object value = tuple.get(field.getProperty());
+            switch (field) {
+                case ID:
+                    beerDTO.setId((Long) value);
+                    break;
+                case NAME:
+                    beerDTO.setName((String) value);
+                    break;
+                case BRAND:
+                    beerDTO.setBrand((String) value);
+                    break;
+                case MAX:
+                    beerDTO.setMax((Integer) value);
+                    break;
+                case QUANTITY:
+                    beerDTO.setQuantity((Integer) value);
+                    break;
+                case TYPE:
+                    beerDTO.setType((BeerType) value);
+                    break;
+            }
+        }
+        return beerDTO;
+    }
+}
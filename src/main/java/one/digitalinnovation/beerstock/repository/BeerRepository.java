@@ -2,10 +2,21 @@ package one.digitalinnovation.beerstock.repository;
 
 import one.digitalinnovation.beerstock.entity.Beer;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface BeerRepository extends JpaRepository<Beer, Long> {
+public interface BeerRepository extends JpaRepository<Beer, Long>, JpaSpecificationExecutor<Beer>, BeerProjectionRepository {
 
     Optional<Beer> findByName(String name);
+
+    List<Beer> findByNameIn(Collection<String> names);
+
+    List<Beer> findByIdInOrNameIn(Collection<Long> ids, Collection<String> names);
+
+    @Query("select b.id as id, b.type as type, b.brand as brand, b.quantity as quantity, b.max as max from Beer b")
+    List<BeerStockLevel> findStockLevels();
 }
@@ -0,0 +1,393 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.config.ShardContext;
+import one.digitalinnovation.beerstock.entity.ArchivedBeer;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.entity.WarehouseStock;
+import one.digitalinnovation.beerstock.entity.WarehouseStockId;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Routes {@link BeerRepository} calls across the shards of the catalogue. Calls keyed by an id or a
+ * name go to the one shard that owns it, calls keyed by several ids or names are split per shard,
+ * and everything else is scattered to every shard, each in a transaction of its own, and merged.
+ * Writes not keyed by a beer, such as {@code deleteAll()}, are broadcast to every shard.
+ * Sorted and paged results are merged by streaming the sorted shard results through a k-way merge,
+ * so a page only needs the first {@code offset + size} rows of each shard. {@link WarehouseStockRepository}
+ * calls follow the shard of their beer, and so do the moves of {@link ArchivedBeerRepository}, since an
+ * archived beer keeps its id.
+ */
+@Aspect
+@SuppressWarnings("unchecked")
+public class BeerShardingAspect {
+
+    private static final Sort ID_ORDER = Sort.by("id");
+
+    private final ObjectProvider<PlatformTransactionManager> transactionManager;
+    private final int shards;
+
+    public BeerShardingAspect(ObjectProvider<PlatformTransactionManager> transactionManager, int shards) {
+        this.transactionManager = transactionManager;
+        this.shards = shards;
+    }
+
+    @Around("target(one.digitalinnovation.beerstock.repository.BeerRepository)")
+    public Object route(ProceedingJoinPoint joinPoint) throws Throwable {
+        Object[] args = joinPoint.getArgs();
+        switch (joinPoint.getSignature().getName()) {
+            case "findByName":
+            case "findProjectedByName":
+                return onShard(ShardContext.shardOf((String) args[0], shards), joinPoint, args);
+            case "findByNameIn":
+                return perShard(joinPoint, partition((Collection<String>) args[0], name -> ShardContext.shardOf(name, shards)), true);
+            case "findByIdInOrNameIn":
+                return findByIdInOrNameIn(joinPoint, (Collection<Long>) args[0], (Collection<String>) args[1]);
+            case "findAllProjected":
+            case "findStockLevels":
+                return concat(scatter(joinPoint, args));
+            default:
+                return routeInherited(joinPoint, args, this::shardOf, id -> ShardContext.shardOf((Long) id, shards),
+                        "BeerRepository");
+        }
+    }
+
+    /**
+     * Warehouse stock lives on the shard of its beer, so every call is keyed by the beer id.
+     */
+    @Around("target(one.digitalinnovation.beerstock.repository.WarehouseStockRepository)")
+    public Object routeWarehouseStock(ProceedingJoinPoint joinPoint) throws Throwable {
+        Object[] args = joinPoint.getArgs();
+        switch (joinPoint.getSignature().getName()) {
+            case "findByIdBeerIdOrderByIdWarehouse":
+            case "incrementQuantity":
+            case "decrementQuantity":
+            case "deleteByBeerId":
+                return onShard(ShardContext.shardOf((Long) args[0], shards), joinPoint, args);
+            case "findLockedById":
+                return onShard(ShardContext.shardOf(((WarehouseStockId) args[0]).getBeerId(), shards), joinPoint, args);
+            default:
+                return routeInherited(joinPoint, args,
+                        stock -> ShardContext.shardOf(((WarehouseStock) stock).getId().getBeerId(), shards),
+                        id -> ShardContext.shardOf(((WarehouseStockId) id).getBeerId(), shards),
+                        "WarehouseStockRepository");
+        }
+    }
+
+    /**
+     * Moves to and from the archive are keyed by the ids of beers of one shard. Lookups by name are
+     * scattered, since an archived name may have been archived from any shard, and the latest
+     * archived beer of that name wins.
+     */
+    @Around("target(one.digitalinnovation.beerstock.repository.ArchivedBeerRepository)")
+    public Object routeArchive(ProceedingJoinPoint joinPoint) throws Throwable {
+        Object[] args = joinPoint.getArgs();
+        switch (joinPoint.getSignature().getName()) {
+            case "findFirstByNameOrderByArchivedAtDesc":
+                return this.<Optional<ArchivedBeer>>scatter(joinPoint, args).stream()
+                        .flatMap(Optional::stream)
+                        .max(Comparator.comparing(ArchivedBeer::getArchivedAt));
+            case "findOutOfStockIds":
+                return joinPoint.proceed(args);
+            case "lockBeers":
+            case "lockWarehouseStock":
+            case "copyFromBeers":
+            case "deleteBeers":
+            case "copyWarehouseStockFromBeers":
+            case "deleteWarehouseStock":
+            case "copyToBeers":
+            case "deleteArchived":
+            case "copyWarehouseStockToBeers":
+            case "deleteArchivedWarehouseStock":
+                return onShard(shardOfBeers((Collection<Long>) args[0]), joinPoint, args);
+            default:
+                return routeInherited(joinPoint, args,
+                        archivedBeer -> ShardContext.shardOf(((ArchivedBeer) archivedBeer).getId(), shards),
+                        id -> ShardContext.shardOf((Long) id, shards),
+                        "ArchivedBeerRepository");
+        }
+    }
+
+    /**
+     * Routes the methods every repository inherits from {@code JpaRepository} and
+     * {@code JpaSpecificationExecutor}: calls keyed by an id or an entity go to its shard, calls keyed
+     * by several go to each of their shards, and the rest are scattered, or broadcast when they write.
+     * Query methods declared by the repository itself must be routed by its caller, since only it knows
+     * their key.
+     */
+    private <E, I> Object routeInherited(ProceedingJoinPoint joinPoint, Object[] args, Function<E, Integer> shardOfEntity,
+                                         Function<I, Integer> shardOfId, String repository) throws Throwable {
+        String method = joinPoint.getSignature().getName();
+        switch (method) {
+            case "findById":
+            case "existsById":
+            case "getOne":
+            case "deleteById":
+                return onShard(shardOfId.apply((I) args[0]), joinPoint, args);
+            case "save":
+            case "saveAndFlush":
+            case "delete":
+                return onShard(shardOfEntity.apply((E) args[0]), joinPoint, args);
+            case "saveAll":
+                return perShard(joinPoint, partition((Iterable<E>) args[0], shardOfEntity), false);
+            case "findAllById":
+                return perShard(joinPoint, partition((Iterable<I>) args[0], shardOfId), true);
+            case "deleteAll":
+                if (args.length == 0) {
+                    return broadcast(joinPoint, args);
+                }
+                // fall through: deleting given entities is keyed by each of them
+            case "deleteInBatch":
+                perShard(joinPoint, partition((Iterable<E>) args[0], shardOfEntity), false);
+                return null;
+            case "deleteAllInBatch":
+                return broadcast(joinPoint, args);
+            case "findAll":
+                return findAll(joinPoint, args);
+            case "findOne":
+                return this.<Optional<?>>scatter(joinPoint, args).stream()
+                        .filter(Optional::isPresent)
+                        .findFirst()
+                        .orElse(Optional.empty());
+            case "count":
+                return this.<Long>scatter(joinPoint, args).stream().mapToLong(Long::longValue).sum();
+            case "exists":
+                return this.<Boolean>scatter(joinPoint, args).stream().anyMatch(Boolean::booleanValue);
+            case "flush":
+            case "toString":
+            case "hashCode":
+            case "equals":
+                return joinPoint.proceed();
+            default:
+                throw new IllegalStateException(String.format(
+                        "%s.%s is not routed across shards, add it to BeerShardingAspect", repository, method));
+        }
+    }
+
+    private Object findAll(ProceedingJoinPoint joinPoint, Object[] args) throws Throwable {
+        int last = args.length - 1;
+        if (last >= 0 && args[last] instanceof Pageable) {
+            return findPage(joinPoint, args, (Pageable) args[last]);
+        }
+        if (last >= 0 && args[last] instanceof Sort) {
+            Sort sort = (Sort) args[last];
+            return mergeSorted(scatter(joinPoint, args), comparator(sort), 0, Integer.MAX_VALUE);
+        }
+        return concat(scatter(joinPoint, args));
+    }
+
+    private <T> Page<T> findPage(ProceedingJoinPoint joinPoint, Object[] args, Pageable pageable) throws Throwable {
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(concat(scatter(joinPoint, args)));
+        }
+        Sort sort = pageable.getSort().and(ID_ORDER);
+        Object[] shardArgs = args.clone();
+        shardArgs[args.length - 1] = PageRequest.of(0, Math.toIntExact(pageable.getOffset() + pageable.getPageSize()), sort);
+        List<Page<T>> pages = scatter(joinPoint, shardArgs);
+        long total = pages.stream().mapToLong(Page::getTotalElements).sum();
+        List<List<T>> contents = pages.stream().map(Page::getContent).collect(Collectors.toList());
+        return new PageImpl<>(mergeSorted(contents, comparator(sort), pageable.getOffset(), pageable.getPageSize()),
+                pageable, total);
+    }
+
+    private List<Beer> findByIdInOrNameIn(ProceedingJoinPoint joinPoint, Collection<Long> ids, Collection<String> names)
+            throws Throwable {
+        Map<Integer, List<Long>> idsByShard = partition(ids, id -> ShardContext.shardOf(id, shards));
+        Map<Integer, List<String>> namesByShard = partition(names, name -> ShardContext.shardOf(name, shards));
+        Map<Integer, Object[]> argsByShard = new LinkedHashMap<>();
+        for (int shard = 0; shard < shards; shard++) {
+            List<Long> shardIds = idsByShard.getOrDefault(shard, List.of());
+            List<String> shardNames = namesByShard.getOrDefault(shard, List.of());
+            if (!shardIds.isEmpty() || !shardNames.isEmpty()) {
+                argsByShard.put(shard, new Object[]{shardIds, shardNames});
+            }
+        }
+        return perShard(joinPoint, argsByShard, true);
+    }
+
+    private Object onShard(int shard, ProceedingJoinPoint joinPoint, Object[] args) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            ShardContext.bindToTransaction(shard);
+            return joinPoint.proceed(args);
+        }
+        Integer previous = ShardContext.bind(shard);
+        try {
+            return joinPoint.proceed(args);
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+
+    private <T> List<T> scatter(ProceedingJoinPoint joinPoint, Object[] args) throws Throwable {
+        List<T> results = new ArrayList<>();
+        for (int shard = 0; shard < shards; shard++) {
+            results.add(inShardTransaction(shard, joinPoint, args, true));
+        }
+        return results;
+    }
+
+    /**
+     * Runs a write on every shard, each in a transaction of its own.
+     */
+    private Object broadcast(ProceedingJoinPoint joinPoint, Object[] args) throws Throwable {
+        checkSingleShardWrite(shards);
+        for (int shard = 0; shard < shards; shard++) {
+            inShardTransaction(shard, joinPoint, args, false);
+        }
+        return null;
+    }
+
+    private <T> List<T> perShard(ProceedingJoinPoint joinPoint, Map<Integer, ?> keysByShard, boolean readOnly)
+            throws Throwable {
+        if (!readOnly) {
+            checkSingleShardWrite(keysByShard.size());
+        }
+        List<T> results = new ArrayList<>();
+        for (Map.Entry<Integer, ?> shardKeys : keysByShard.entrySet()) {
+            Object[] args = shardKeys.getValue() instanceof Object[]
+                    ? (Object[]) shardKeys.getValue()
+                    : new Object[]{shardKeys.getValue()};
+            List<T> shardResults = keysByShard.size() == 1
+                    ? (List<T>) onShard(shardKeys.getKey(), joinPoint, args)
+                    : inShardTransaction(shardKeys.getKey(), joinPoint, args, readOnly);
+            if (shardResults != null) {
+                results.addAll(shardResults);
+            }
+        }
+        return results;
+    }
+
+    private static void checkSingleShardWrite(int writtenShards) {
+        if (writtenShards > 1 && TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("A transaction cannot write to more than one shard");
+        }
+    }
+
+    private <T> T inShardTransaction(int shard, ProceedingJoinPoint joinPoint, Object[] args, boolean readOnly)
+            throws Throwable {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager.getObject());
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        transactionTemplate.setReadOnly(readOnly);
+        try {
+            return transactionTemplate.execute(status -> {
+                ShardContext.bindToTransaction(shard);
+                try {
+                    return (T) joinPoint.proceed(args);
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new UndeclaredThrowableException(e);
+                }
+            });
+        } catch (UndeclaredThrowableException e) {
+            throw e.getUndeclaredThrowable();
+        }
+    }
+
+    private int shardOf(Beer beer) {
+        return beer.getId() != null
+                ? ShardContext.shardOf(beer.getId(), shards)
+                : ShardContext.shardOf(beer.getName(), shards);
+    }
+
+    private int shardOfBeers(Collection<Long> ids) {
+        Set<Integer> beerShards = ids.stream().map(id -> ShardContext.shardOf(id, shards)).collect(Collectors.toSet());
+        if (beerShards.size() != 1) {
+            throw new IllegalStateException(String.format("Beers %s must all belong to one shard to be moved together", ids));
+        }
+        return beerShards.iterator().next();
+    }
+
+    private static <K> Map<Integer, List<K>> partition(Iterable<K> keys, Function<K, Integer> shardOf) {
+        return StreamSupport.stream(keys.spliterator(), false)
+                .collect(Collectors.groupingBy(shardOf, LinkedHashMap::new, Collectors.toList()));
+    }
+
+    private static <T> List<T> concat(List<? extends Collection<T>> shardResults) {
+        return shardResults.stream().flatMap(Collection::stream).collect(Collectors.toList());
+    }
+
+    static <T> List<T> mergeSorted(List<? extends Collection<T>> sortedShardResults, Comparator<? super T> comparator,
+                                   long offset, int limit) {
+        PriorityQueue<Cursor<T>> cursors = new PriorityQueue<>((a, b) -> comparator.compare(a.head, b.head));
+        for (Collection<T> shardResults : sortedShardResults) {
+            Iterator<T> iterator = shardResults.iterator();
+            if (iterator.hasNext()) {
+                cursors.add(new Cursor<>(iterator, iterator.next()));
+            }
+        }
+        List<T> merged = new ArrayList<>();
+        for (long position = 0; !cursors.isEmpty() && merged.size() < limit; position++) {
+            Cursor<T> cursor = cursors.poll();
+            if (position >= offset) {
+                merged.add(cursor.head);
+            }
+            if (cursor.iterator.hasNext()) {
+                cursor.head = cursor.iterator.next();
+                cursors.add(cursor);
+            }
+        }
+        return merged;
+    }
+
+    static Comparator<Object> comparator(Sort sort) {
+        Comparator<Object> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            Comparator<Object> byProperty = Comparator.comparing(
+                    entity -> sortKey(new BeanWrapperImpl(entity).getPropertyValue(order.getProperty()), order),
+                    Comparator.nullsFirst(Comparator.naturalOrder()));
+            comparator = comparator.thenComparing(order.isAscending() ? byProperty : byProperty.reversed());
+        }
+        return comparator;
+    }
+
+    /**
+     * Compares values the way the database orders them: enums are stored, and so sorted, by name.
+     */
+    private static Comparable<Object> sortKey(Object value, Sort.Order order) {
+        if (value instanceof Enum) {
+            value = ((Enum<?>) value).name();
+        }
+        if (value instanceof String && order.isIgnoreCase()) {
+            value = ((String) value).toLowerCase();
+        }
+        return (Comparable<Object>) value;
+    }
+
+    private static class Cursor<T> {
+        private final Iterator<T> iterator;
+        private T head;
+
+        private Cursor(Iterator<T> iterator, T head) {
+            this.iterator = iterator;
+            this.head = head;
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.dto.BeerFilterDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Criteria used by the filtered beer query. Type, brand and quantity are served by the
+ * composite indexes declared on {@link Beer}; the brand is compared by its dictionary id, so it is
+ * an integer comparison, and a brand no beer ever had matches nothing. The fill ratio is written as
+ * {@code quantity >= max * ratio} so it never divides by zero, and is applied as a
+ * residual filter on the rows selected through those indexes.
+ */
+public final class BeerSpecifications {
+
+    private BeerSpecifications() {
+    }
+
+    public static Specification<Beer> matching(BeerFilterDTO filter) {
+        return Specification.where(hasType(filter.getType()))
+                .and(hasBrand(filter.getBrand()))
+                .and(quantityAtLeast(filter.getMinQuantity()))
+                .and(quantityAtMost(filter.getMaxQuantity()))
+                .and(fillRatioAtLeast(filter.getMinFillRatio()))
+                .and(fillRatioAtMost(filter.getMaxFillRatio()));
+    }
+
+    public static Specification<Beer> hasType(BeerType type) {
+        return type == null ? null : (root, query, cb) -> cb.equal(root.get("type"), type);
+    }
+
+    public static Specification<Beer> hasBrand(String brand) {
+        return brand == null ? null : (root, query, cb) -> cb.equal(root.get("brand"), brand);
+    }
+
+    public static Specification<Beer> quantityAtLeast(Integer minQuantity) {
+        return minQuantity == null ? null : (root, query, cb) -> cb.ge(root.get("quantity"), minQuantity);
+    }
+
+    public static Specification<Beer> quantityAtMost(Integer maxQuantity) {
+        return maxQuantity == null ? null : (root, query, cb) -> cb.le(root.get("quantity"), maxQuantity);
+    }
+
+    public static Specification<Beer> fillRatioAtLeast(Double minFillRatio) {
+        return minFillRatio == null ? null : (root, query, cb) ->
+                cb.ge(root.get("quantity"), cb.prod(root.<Integer>get("max"), minFillRatio));
+    }
+
+    public static Specification<Beer> fillRatioAtMost(Double maxFillRatio) {
+        return maxFillRatio == null ? null : (root, query, cb) ->
+                cb.le(root.get("quantity"), cb.prod(root.<Integer>get("max"), maxFillRatio));
+    }
+}
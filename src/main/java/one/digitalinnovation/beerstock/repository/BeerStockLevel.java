@@ -0,0 +1,19 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.enums.BeerType;
+
+/**
+ * Stock of a single beer with the keys it is grouped by, returned by {@link BeerRepository#findStockLevels()}.
+ */
+public interface BeerStockLevel {
+
+    Long getId();
+
+    BeerType getType();
+
+    String getBrand();
+
+    int getQuantity();
+
+    int getMax();
+}
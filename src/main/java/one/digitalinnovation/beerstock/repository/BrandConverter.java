@@ -0,0 +1,35 @@
+package one.digitalinnovation.beerstock.repository;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+/**
+ * Stores the brand of a beer as the id of its {@link BrandDictionary} entry. Brands are registered
+ * by {@link BrandRegistrationListener} before a beer is written, so here a brand that is still
+ * unknown can only come from a query, and is written as {@code null}, which matches no beer.
+ * The dictionary is looked up lazily, since converters are created while the entity manager
+ * factory it depends on is still being built.
+ */
+@Converter
+public class BrandConverter implements AttributeConverter<String, Integer> {
+
+    private final ObjectProvider<BrandDictionary> brandDictionary;
+
+    @Autowired
+    public BrandConverter(ObjectProvider<BrandDictionary> brandDictionary) {
+        this.brandDictionary = brandDictionary;
+    }
+
+    @Override
+    public Integer convertToDatabaseColumn(String brand) {
+        return brand == null ? null : brandDictionary.getObject().idOf(brand);
+    }
+
+    @Override
+    public String convertToEntityAttribute(Integer brandId) {
+        return brandId == null ? null : brandDictionary.getObject().nameOf(brandId);
+    }
+}
@@ -0,0 +1,121 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.config.ShardContext;
+import one.digitalinnovation.beerstock.entity.Brand;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * In-memory dictionary between brand ids and names, shared by every {@link one.digitalinnovation.beerstock.entity.Beer}
+ * loaded by the application: each brand name is held once and handed to every beer of the brand.
+ * Brands are read from and registered on the {@code brand} table of the first shard, in
+ * transactions of their own, so a brand registered by a beer that is later rolled back simply
+ * stays in the dictionary. Brands unknown to this instance, such as those registered by another
+ * one, are looked up one at a time. A name found in no beer is remembered as missing for a short
+ * while, so queries for unknown brands do not each go to the table.
+ */
+@Component
+public class BrandDictionary {
+
+    private static final int DICTIONARY_SHARD = 0;
+    private static final Duration MISS_TTL = Duration.ofSeconds(5);
+    private static final int MAX_MISSES = 10_000;
+
+    private final BrandRepository brandRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long missTtlNanos;
+
+    private final Map<String, Integer> idsByName = new ConcurrentHashMap<>();
+    private final Map<Integer, String> namesById = new ConcurrentHashMap<>();
+    private final Map<String, Long> missedUntilByName = new ConcurrentHashMap<>();
+
+    @Autowired
+    public BrandDictionary(BrandRepository brandRepository, PlatformTransactionManager transactionManager) {
+        this(brandRepository, transactionManager, MISS_TTL);
+    }
+
+    BrandDictionary(BrandRepository brandRepository, PlatformTransactionManager transactionManager, Duration missTtl) {
+        this.brandRepository = brandRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.missTtlNanos = missTtl.toNanos();
+    }
+
+    /**
+     * @return the id of the brand, or {@code null} when no beer was ever registered with it
+     */
+    public Integer idOf(String name) {
+        Integer id = idsByName.get(name);
+        if (id != null) {
+            return id;
+        }
+        Long missedUntil = missedUntilByName.get(name);
+        if (missedUntil != null && System.nanoTime() - missedUntil < 0) {
+            return null;
+        }
+        Brand brand = onDictionaryShard(() -> brandRepository.findByName(name)).orElse(null);
+        if (brand == null) {
+            if (missedUntilByName.size() >= MAX_MISSES) {
+                missedUntilByName.clear();
+            }
+            missedUntilByName.put(name, System.nanoTime() + missTtlNanos);
+            return null;
+        }
+        put(brand);
+        return brand.getId();
+    }
+
+    public String nameOf(Integer id) {
+        String name = namesById.get(id);
+        if (name != null) {
+            return name;
+        }
+        Brand brand = onDictionaryShard(() -> brandRepository.findById(id))
+                .orElseThrow(() -> new IllegalStateException(String.format("Brand with ID %s is not registered", id)));
+        put(brand);
+        return brand.getName();
+    }
+
+    /**
+     * Returns the id of the brand, registering it first if it is new.
+     */
+    public synchronized int register(String name) {
+        Integer id = idsByName.get(name);
+        if (id != null) {
+            return id;
+        }
+        Brand brand;
+        try {
+            brand = onDictionaryShard(() -> brandRepository.findByName(name)
+                    .orElseGet(() -> brandRepository.save(new Brand(null, name))));
+        } catch (DataIntegrityViolationException e) {
+            brand = onDictionaryShard(() -> brandRepository.findByName(name).orElseThrow(() -> e));
+        }
+        put(brand);
+        return brand.getId();
+    }
+
+    private void put(Brand brand) {
+        namesById.put(brand.getId(), brand.getName());
+        idsByName.put(brand.getName(), brand.getId());
+        missedUntilByName.remove(brand.getName());
+    }
+
+    private <T> T onDictionaryShard(Supplier<T> work) {
+        Integer previous = ShardContext.bind(DICTIONARY_SHARD);
+        try {
+            return transactionTemplate.execute(status -> work.get());
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.entity.Beer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+
+/**
+ * Registers the brand of every beer about to be inserted or updated in the {@link BrandDictionary},
+ * so {@link BrandConverter} finds its id when the row is written.
+ */
+public class BrandRegistrationListener {
+
+    private final ObjectProvider<BrandDictionary> brandDictionary;
+
+    @Autowired
+    public BrandRegistrationListener(ObjectProvider<BrandDictionary> brandDictionary) {
+        this.brandDictionary = brandDictionary;
+    }
+
+    @PrePersist
+    @PreUpdate
+    public void registerBrand(Beer beer) {
+        if (beer.getBrand() != null) {
+            brandDictionary.getObject().register(beer.getBrand());
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.entity.WarehouseStock;
+import one.digitalinnovation.beerstock.entity.WarehouseStockId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.LockModeType;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Stock movements are single conditional updates, so they neither read the row first nor lock it
+ * for longer than the statement; zero updated rows means the location is missing or the movement
+ * would leave its quantity outside {@code 0..max}.
+ */
+public interface WarehouseStockRepository extends JpaRepository<WarehouseStock, WarehouseStockId> {
+
+    List<WarehouseStock> findByIdBeerIdOrderByIdWarehouse(Long beerId);
+
+    /**
+     * Reads a location and locks its row until the transaction ends, so that replacing or removing
+     * it is not interleaved with movements of the same location.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from WarehouseStock s where s.id = :id")
+    Optional<WarehouseStock> findLockedById(@Param("id") WarehouseStockId id);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update WarehouseStock s set s.quantity = s.quantity + :quantity "
+            + "where s.id.beerId = :beerId and s.id.warehouse = :warehouse and s.quantity + :quantity <= s.max")
+    int incrementQuantity(@Param("beerId") Long beerId, @Param("warehouse") String warehouse, @Param("quantity") int quantity);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update WarehouseStock s set s.quantity = s.quantity - :quantity "
+            + "where s.id.beerId = :beerId and s.id.warehouse = :warehouse and s.quantity >= :quantity")
+    int decrementQuantity(@Param("beerId") Long beerId, @Param("warehouse") String warehouse, @Param("quantity") int quantity);
+
+    @Modifying
+    @Query("delete from WarehouseStock s where s.id.beerId = :beerId")
+    int deleteByBeerId(@Param("beerId") Long beerId);
+}
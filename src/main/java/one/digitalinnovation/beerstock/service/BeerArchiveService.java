@@ -0,0 +1,210 @@
+package one.digitalinnovation.beerstock.service;
+
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.config.BeerArchiveProperties;
+import one.digitalinnovation.beerstock.config.ShardContext;
+import one.digitalinnovation.beerstock.config.ShardDataSourceProperties;
+import one.digitalinnovation.beerstock.dto.ArchivedBeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerArchiveResultDTO;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.entity.ArchivedBeer;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.exception.ArchivedBeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerAlreadyRegisteredException;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.repository.ArchivedBeerRepository;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the hot {@code beer} table down to the working set by moving beers that are no longer sold
+ * to the {@code archived_beer} table, one at a time or in batches of beers out of stock for long
+ * enough, and back again on restore. Archived beers leave every query on the hot table and every
+ * in-memory view, since moving a beer out is published as an archival deletion and moving it back
+ * as an archival creation. The per-warehouse stock of a beer moves along with it. Archived beers
+ * stay reachable by id and name here. The sweep walks the ids of the candidates of each shard a
+ * batch at a time, and moves each batch in a transaction of its own on that shard, with the beers
+ * locked and the criteria checked again, so a beer restocked since it was selected stays where it is.
+ */
+@Slf4j
+@Service
+public class BeerArchiveService {
+
+    private final BeerRepository beerRepository;
+    private final ArchivedBeerRepository archivedBeerRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final BeerArchiveProperties archiveProperties;
+    private final int shards;
+    private final Clock clock;
+    private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+    @Autowired
+    public BeerArchiveService(BeerRepository beerRepository, ArchivedBeerRepository archivedBeerRepository,
+                              ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager,
+                              BeerArchiveProperties archiveProperties,
+                              ObjectProvider<ShardDataSourceProperties> shardProperties) {
+        this(beerRepository, archivedBeerRepository, eventPublisher, transactionManager, archiveProperties,
+                shardProperties.getIfAvailable(ShardDataSourceProperties::new).getShardCount(), Clock.systemUTC());
+    }
+
+    BeerArchiveService(BeerRepository beerRepository, ArchivedBeerRepository archivedBeerRepository,
+                       ApplicationEventPublisher eventPublisher, PlatformTransactionManager transactionManager,
+                       BeerArchiveProperties archiveProperties, int shards, Clock clock) {
+        this.beerRepository = beerRepository;
+        this.archivedBeerRepository = archivedBeerRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.archiveProperties = archiveProperties;
+        this.shards = shards;
+        this.clock = clock;
+    }
+
+    @Transactional
+    public ArchivedBeerDTO archive(Long id) throws BeerNotFoundException {
+        ShardContext.bindToTransaction(ShardContext.shardOf(id, shards));
+        List<Beer> beers = archivedBeerRepository.lockBeers(List.of(id));
+        if (beers.isEmpty()) {
+            throw new BeerNotFoundException(id);
+        }
+        moveToArchive(beers);
+        return archivedBeerRepository.findById(id)
+                .map(BeerArchiveService::toDTO)
+                .orElseThrow(() -> new IllegalStateException(String.format("Beer with id %s was not archived", id)));
+    }
+
+    /**
+     * Archives every beer out of stock for at least {@code outOfStockFor}, in batches of the
+     * configured size per shard.
+     */
+    public BeerArchiveResultDTO archiveOutOfStock(Duration outOfStockFor) {
+        Instant cutoff = clock.instant().minus(outOfStockFor);
+        int archived = 0;
+        int batches = 0;
+        for (int shard = 0; shard < shards; shard++) {
+            int batchShard = shard;
+            Long afterId = Long.MIN_VALUE;
+            while (afterId != null) {
+                Long lastId = afterId;
+                ArchiveBatch batch = transactionTemplate.execute(status -> archiveBatch(batchShard, lastId, cutoff));
+                if (batch == null || batch.getSelected() == 0) {
+                    break;
+                }
+                archived += batch.getArchived();
+                batches++;
+                afterId = batch.getSelected() < archiveProperties.getBatchSize() ? null : batch.getLastId();
+            }
+        }
+        return new BeerArchiveResultDTO(archived, batches);
+    }
+
+    @Scheduled(fixedDelayString = "${beerstock.archive.interval:PT1H}",
+            initialDelayString = "${beerstock.archive.interval:PT1H}")
+    public void archiveLongOutOfStock() {
+        Duration outOfStockFor = archiveProperties.getOutOfStockFor();
+        if (outOfStockFor == null) {
+            return;
+        }
+        BeerArchiveResultDTO result = archiveOutOfStock(outOfStockFor);
+        if (result.getArchived() > 0) {
+            log.info("Archived {} beers out of stock for {} in {} batches", result.getArchived(), outOfStockFor, result.getBatches());
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public ArchivedBeerDTO findByName(String name) throws ArchivedBeerNotFoundException {
+        return archivedBeerRepository.findFirstByNameOrderByArchivedAtDesc(name)
+                .map(BeerArchiveService::toDTO)
+                .orElseThrow(() -> new ArchivedBeerNotFoundException(name));
+    }
+
+    @Transactional(readOnly = true)
+    public Page<ArchivedBeerDTO> list(Pageable pageable) {
+        return archivedBeerRepository.findAll(pageable).map(BeerArchiveService::toDTO);
+    }
+
+    @Transactional
+    public BeerDTO restore(Long id) throws ArchivedBeerNotFoundException, BeerAlreadyRegisteredException {
+        ShardContext.bindToTransaction(ShardContext.shardOf(id, shards));
+        ArchivedBeer archivedBeer = archivedBeerRepository.findById(id)
+                .orElseThrow(() -> new ArchivedBeerNotFoundException(id));
+        if (beerRepository.findByName(archivedBeer.getName()).isPresent()) {
+            throw new BeerAlreadyRegisteredException(archivedBeer.getName());
+        }
+        archivedBeerRepository.copyToBeers(List.of(id), clock.instant());
+        archivedBeerRepository.copyWarehouseStockToBeers(List.of(id));
+        archivedBeerRepository.deleteArchivedWarehouseStock(List.of(id));
+        archivedBeerRepository.deleteArchived(List.of(id));
+        BeerDTO restoredBeerDTO = beerRepository.findById(id)
+                .map(beerMapper::toDTO)
+                .orElseThrow(() -> new IllegalStateException(String.format("Beer with id %s was not restored", id)));
+        eventPublisher.publishEvent(BeerChangedEvent.restored(restoredBeerDTO));
+        return restoredBeerDTO;
+    }
+
+    /**
+     * Archives the next batch of candidates of a shard, the ones with the lowest ids after {@code afterId}.
+     */
+    private ArchiveBatch archiveBatch(int shard, Long afterId, Instant cutoff) {
+        ShardContext.bindToTransaction(shard);
+        List<Long> ids = archivedBeerRepository.findOutOfStockIds(cutoff, afterId,
+                PageRequest.of(0, archiveProperties.getBatchSize()));
+        if (ids.isEmpty()) {
+            return new ArchiveBatch(0, 0, afterId);
+        }
+        List<Beer> beers = archivedBeerRepository.lockBeers(ids)
+                .stream()
+                .filter(beer -> beer.getQuantity() == 0
+                        && beer.getOutOfStockSince() != null
+                        && !beer.getOutOfStockSince().isAfter(cutoff))
+                .collect(Collectors.toList());
+        return new ArchiveBatch(ids.size(), moveToArchive(beers), ids.get(ids.size() - 1));
+    }
+
+    private int moveToArchive(List<Beer> beers) {
+        if (beers.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = beers.stream().map(Beer::getId).collect(Collectors.toList());
+        List<BeerDTO> archivedBeerDTOs = beers.stream().map(beerMapper::toDTO).collect(Collectors.toList());
+        archivedBeerRepository.lockWarehouseStock(ids);
+        archivedBeerRepository.copyFromBeers(ids, clock.instant());
+        archivedBeerRepository.copyWarehouseStockFromBeers(ids);
+        archivedBeerRepository.deleteWarehouseStock(ids);
+        archivedBeerRepository.deleteBeers(ids);
+        archivedBeerDTOs.forEach(beerDTO -> eventPublisher.publishEvent(BeerChangedEvent.archived(beerDTO)));
+        return ids.size();
+    }
+
+    private static ArchivedBeerDTO toDTO(ArchivedBeer archivedBeer) {
+        return new ArchivedBeerDTO(archivedBeer.getId(), archivedBeer.getName(), archivedBeer.getBrand(),
+                archivedBeer.getMax(), archivedBeer.getQuantity(), archivedBeer.getType(),
+                archivedBeer.getOutOfStockSince(), archivedBeer.getArchivedAt());
+    }
+
+    @Value
+    private static class ArchiveBatch {
+        int selected;
+        int archived;
+        Long lastId;
+    }
+}
@@ -0,0 +1,286 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.config.BeerImportProperties;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerImportRejectionDTO;
+import one.digitalinnovation.beerstock.dto.BeerImportResultDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.exception.InvalidBeerImportException;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Imports beers from a CSV file with a {@code name,brand,max,quantity,type} header, in any column order.
+ * The file is read as a stream and each row is validated against the {@link BeerDTO} constraints, then
+ * valid rows are collected in a fixed-size buffer that is reused for every batch, and each batch is
+ * upserted by name. When a batch repeats a name, the last row wins and the rows it supersedes are
+ * counted with its outcome, so the counts always add up to the number of rows. Rejected rows are reported with their line number, up to a configured limit, so
+ * the memory used by an import does not depend on the size of the file.
+ */
+@Service
+public class BeerImportService {
+
+    static final List<String> COLUMNS = List.of("name", "brand", "max", "quantity", "type");
+
+    private static final String BYTE_ORDER_MARK = "\uFEFF";
+
+    private final BeerRepository beerRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Validator validator;
+    private final BeerImportProperties importProperties;
+    private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+    @Autowired
+    public BeerImportService(BeerRepository beerRepository, ApplicationEventPublisher eventPublisher,
+                             Validator validator, BeerImportProperties importProperties) {
+        this.beerRepository = beerRepository;
+        this.eventPublisher = eventPublisher;
+        this.validator = validator;
+        this.importProperties = importProperties;
+    }
+
+    public BeerImportResultDTO importCsv(InputStream inputStream) throws IOException, InvalidBeerImportException {
+        try (CsvRecordReader csv = new CsvRecordReader(
+                new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)),
+                importProperties.getMaxFieldLength(), importProperties.getMaxRecordLength())) {
+            if (!csv.next()) {
+                throw new InvalidBeerImportException(String.format("The file is empty, expected a header with columns %s", COLUMNS));
+            }
+            int[] columns = resolveColumns(csv.fields());
+            ImportRun run = new ImportRun(importProperties.getBatchSize(), importProperties.getMaxReportedRejections());
+            while (csv.next()) {
+                run.rows++;
+                BeerDTO beer = run.buffer[run.buffered];
+                String reason = parse(csv.fields(), columns, beer);
+                if (reason == null) {
+                    reason = validate(beer);
+                }
+                if (reason != null) {
+                    run.reject(csv.line(), reason);
+                    continue;
+                }
+                run.lines[run.buffered++] = csv.line();
+                if (run.buffered == run.buffer.length) {
+                    upsert(run);
+                }
+            }
+            upsert(run);
+            return run.toResult();
+        }
+    }
+
+    private void upsert(ImportRun run) {
+        if (run.buffered == 0) {
+            return;
+        }
+        Map<String, Integer> lastRowByName = new LinkedHashMap<>();
+        Map<String, Integer> rowsByName = new HashMap<>();
+        for (int i = 0; i < run.buffered; i++) {
+            lastRowByName.put(run.buffer[i].getName(), i);
+            rowsByName.merge(run.buffer[i].getName(), 1, Integer::sum);
+        }
+        Map<String, Beer> existingBeers = beerRepository.findByNameIn(lastRowByName.keySet())
+                .stream()
+                .collect(Collectors.toMap(Beer::getName, Function.identity()));
+
+        List<PendingBeer> pendingBeers = new ArrayList<>();
+        lastRowByName.forEach((name, row) -> {
+            BeerDTO imported = run.buffer[row];
+            int rows = rowsByName.get(name);
+            Beer beer = existingBeers.get(name);
+            if (beer == null) {
+                Beer newBeer = beerMapper.toModel(imported);
+                newBeer.setId(null);
+                pendingBeers.add(new PendingBeer(run.lines[row], rows, newBeer, null));
+            } else if (hasSameStock(beer, imported)) {
+                run.unchanged += rows;
+            } else {
+                BeerDTO previous = beerMapper.toDTO(beer);
+                beer.setBrand(imported.getBrand());
+                beer.setMax(imported.getMax());
+                beer.setQuantity(imported.getQuantity());
+                beer.setType(imported.getType());
+                pendingBeers.add(new PendingBeer(run.lines[row], rows, beer, previous));
+            }
+        });
+        run.buffered = 0;
+        save(run, pendingBeers);
+    }
+
+    /**
+     * Saves the batch at once, falling back to one beer at a time when it conflicts with a concurrent
+     * write, so only the conflicting rows are rejected.
+     */
+    private void save(ImportRun run, List<PendingBeer> pendingBeers) {
+        Map<String, Beer> savedBeers;
+        try {
+            savedBeers = beerRepository.saveAll(pendingBeers.stream().map(PendingBeer::getBeer).collect(Collectors.toList()))
+                    .stream()
+                    .collect(Collectors.toMap(Beer::getName, Function.identity()));
+        } catch (DataIntegrityViolationException | ObjectOptimisticLockingFailureException e) {
+            savedBeers = new LinkedHashMap<>();
+            for (PendingBeer pendingBeer : pendingBeers) {
+                if (pendingBeer.getPrevious() == null) {
+                    pendingBeer.getBeer().setId(null);
+                    pendingBeer.getBeer().setVersion(null);
+                }
+                try {
+                    Beer savedBeer = beerRepository.save(pendingBeer.getBeer());
+                    savedBeers.put(savedBeer.getName(), savedBeer);
+                } catch (DataIntegrityViolationException | ObjectOptimisticLockingFailureException conflict) {
+                    run.reject(pendingBeer.getLine(), pendingBeer.getRows(), String.format("Beer %s was changed concurrently: %s",
+                            pendingBeer.getBeer().getName(), conflict.getMostSpecificCause().getMessage()));
+                }
+            }
+        }
+        for (PendingBeer pendingBeer : pendingBeers) {
+            Beer savedBeer = savedBeers.get(pendingBeer.getBeer().getName());
+            if (savedBeer == null) {
+                continue;
+            }
+            BeerDTO savedBeerDTO = beerMapper.toDTO(savedBeer);
+            if (pendingBeer.getPrevious() == null) {
+                run.created += pendingBeer.getRows();
+                eventPublisher.publishEvent(BeerChangedEvent.created(savedBeerDTO));
+            } else {
+                run.updated += pendingBeer.getRows();
+                eventPublisher.publishEvent(BeerChangedEvent.updated(pendingBeer.getPrevious(), savedBeerDTO));
+            }
+        }
+    }
+
+    private static int[] resolveColumns(List<String> header) throws InvalidBeerImportException {
+        int[] columns = new int[COLUMNS.size()];
+        List<String> names = header.stream()
+                .map(name -> name.replace(BYTE_ORDER_MARK, "").trim().toLowerCase(Locale.ROOT))
+                .collect(Collectors.toList());
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            columns[i] = names.indexOf(COLUMNS.get(i));
+            if (columns[i] < 0) {
+                throw new InvalidBeerImportException(String.format(
+                        "The header has no %s column, expected columns %s", COLUMNS.get(i), COLUMNS));
+            }
+        }
+        return columns;
+    }
+
+    private static String parse(List<String> fields, int[] columns, BeerDTO beer) {
+        int required = 0;
+        for (int column : columns) {
+            required = Math.max(required, column + 1);
+        }
+        if (fields.size() < required) {
+            return String.format("Expected %d columns but found %d", required, fields.size());
+        }
+        beer.setName(fields.get(columns[0]).trim());
+        beer.setBrand(fields.get(columns[1]).trim());
+        try {
+            beer.setMax(Integer.valueOf(fields.get(columns[2]).trim()));
+        } catch (NumberFormatException e) {
+            return String.format("max is not a number: %s", fields.get(columns[2]));
+        }
+        try {
+            beer.setQuantity(Integer.valueOf(fields.get(columns[3]).trim()));
+        } catch (NumberFormatException e) {
+            return String.format("quantity is not a number: %s", fields.get(columns[3]));
+        }
+        try {
+            beer.setType(BeerType.valueOf(fields.get(columns[4]).trim().toUpperCase(Locale.ROOT)));
+        } catch (IllegalArgumentException e) {
+            return String.format("type is not a beer type: %s", fields.get(columns[4]));
+        }
+        return null;
+    }
+
+    private String validate(BeerDTO beer) {
+        List<ConstraintViolation<BeerDTO>> violations = new ArrayList<>(validator.validate(beer));
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .sorted(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .collect(Collectors.joining("; "));
+    }
+
+    private static boolean hasSameStock(Beer beer, BeerDTO imported) {
+        return Objects.equals(beer.getBrand(), imported.getBrand())
+                && beer.getMax() == imported.getMax()
+                && beer.getQuantity() == imported.getQuantity()
+                && beer.getType() == imported.getType();
+    }
+
+    @lombok.Value
+    private static class PendingBeer {
+        long line;
+        int rows;
+        Beer beer;
+        BeerDTO previous;
+    }
+
+    /**
+     * State of one import: the reusable batch buffer, the counters and the reported rejections.
+     */
+    private static class ImportRun {
+
+        private final BeerDTO[] buffer;
+        private final long[] lines;
+        private final int maxReportedRejections;
+        private final List<BeerImportRejectionDTO> rejections = new ArrayList<>();
+        private int buffered;
+        private long rows;
+        private long created;
+        private long updated;
+        private long unchanged;
+        private long rejected;
+
+        private ImportRun(int batchSize, int maxReportedRejections) {
+            this.buffer = new BeerDTO[batchSize];
+            this.lines = new long[batchSize];
+            this.maxReportedRejections = maxReportedRejections;
+            for (int i = 0; i < batchSize; i++) {
+                buffer[i] = new BeerDTO();
+            }
+        }
+
+        private void reject(long line, String reason) {
+            reject(line, 1, reason);
+        }
+
+        private void reject(long line, int rows, String reason) {
+            rejected += rows;
+            if (rejections.size() < maxReportedRejections) {
+                rejections.add(new BeerImportRejectionDTO(line, reason));
+            }
+        }
+
+        private BeerImportResultDTO toResult() {
+            return new BeerImportResultDTO(rows, created, updated, unchanged, rejected, rejections);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package one.digitalinnovation.beerstock.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerSearchHitDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.exception.InvalidSearchLimitException;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Fuzzy search over beer names and brands backed by an in-memory trigram inverted index.
+ * The index is loaded once at startup and then kept up to date from {@link BeerChangedEvent}s,
+ * so a query only touches the posting lists of its own trigrams. Changes published while the
+ * index loads are applied again on top of it, so none of them is lost.
+ */
+@Service
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class BeerSearchService {
+
+    public static final double DEFAULT_MIN_SCORE = 0.3;
+    public static final int MAX_RESULTS = 100;
+
+    private final BeerRepository beerRepository;
+    private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+    private final Map<String, Set<Long>> nameIndex = new HashMap<>();
+    private final Map<String, Set<Long>> brandIndex = new HashMap<>();
+    private final Map<Long, IndexedBeer> indexedBeers = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ChangesDuringReload<BeerChangedEvent> changesDuringBuild = new ChangesDuringReload<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndex() {
+        if (!changesDuringBuild.start()) {
+            return;
+        }
+        try {
+            List<BeerDTO> beers = beerRepository.findAll()
+                    .stream()
+                    .map(beerMapper::toDTO)
+                    .collect(Collectors.toList());
+            lock.writeLock().lock();
+            try {
+                nameIndex.clear();
+                brandIndex.clear();
+                indexedBeers.clear();
+                beers.forEach(this::add);
+                changesDuringBuild.replay(this::apply);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            changesDuringBuild.finish();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBeerChanged(BeerChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            apply(event);
+            changesDuringBuild.record(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<BeerSearchHitDTO> search(String query, BeerType type, Integer minQuantity, Integer maxQuantity, int limit)
+            throws InvalidSearchLimitException {
+        if (limit < 1 || limit > MAX_RESULTS) {
+            throw new InvalidSearchLimitException(limit, MAX_RESULTS);
+        }
+        Set<String> queryTrigrams = trigrams(query);
+        if (queryTrigrams.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<BeerSearchHitDTO> hits = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Map<Long, int[]> matches = new HashMap<>();
+            for (String trigram : queryTrigrams) {
+                nameIndex.getOrDefault(trigram, Collections.emptySet())
+                        .forEach(id -> matches.computeIfAbsent(id, key -> new int[2])[0]++);
+                brandIndex.getOrDefault(trigram, Collections.emptySet())
+                        .forEach(id -> matches.computeIfAbsent(id, key -> new int[2])[1]++);
+            }
+            matches.forEach((id, sharedTrigrams) -> {
+                IndexedBeer indexedBeer = indexedBeers.get(id);
+                if (!matchesFilters(indexedBeer.getBeer(), type, minQuantity, maxQuantity)) {
+                    return;
+                }
+                double score = Math.max(
+                        dice(sharedTrigrams[0], queryTrigrams.size(), indexedBeer.getNameTrigrams()),
+                        dice(sharedTrigrams[1], queryTrigrams.size(), indexedBeer.getBrandTrigrams()));
+                if (score >= DEFAULT_MIN_SCORE) {
+                    hits.add(new BeerSearchHitDTO(indexedBeer.getBeer(), score));
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        return hits.stream()
+                .sorted(Comparator.comparingDouble(BeerSearchHitDTO::getScore).reversed()
+                        .thenComparing(hit -> hit.getBeer().getName()))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Applies a change by replacing the beer with its current state, so applying it twice is harmless.
+     */
+    private void apply(BeerChangedEvent event) {
+        remove(event.getBeerId());
+        if (!event.isDeletion()) {
+            add(event.getCurrent());
+        }
+    }
+
+    private void add(BeerDTO beer) {
+        Set<String> nameTrigrams = trigrams(beer.getName());
+        Set<String> brandTrigrams = trigrams(beer.getBrand());
+        nameTrigrams.forEach(trigram -> nameIndex.computeIfAbsent(trigram, key -> new HashSet<>()).add(beer.getId()));
+        brandTrigrams.forEach(trigram -> brandIndex.computeIfAbsent(trigram, key -> new HashSet<>()).add(beer.getId()));
+        indexedBeers.put(beer.getId(), new IndexedBeer(beer, nameTrigrams.size(), brandTrigrams.size()));
+    }
+
+    private void remove(Long id) {
+        IndexedBeer indexedBeer = indexedBeers.remove(id);
+        if (indexedBeer != null) {
+            removePostings(nameIndex, trigrams(indexedBeer.getBeer().getName()), id);
+            removePostings(brandIndex, trigrams(indexedBeer.getBeer().getBrand()), id);
+        }
+    }
+
+    private static void removePostings(Map<String, Set<Long>> index, Set<String> trigrams, Long id) {
+        for (String trigram : trigrams) {
+            Set<Long> postings = index.get(trigram);
+            if (postings != null && postings.remove(id) && postings.isEmpty()) {
+                index.remove(trigram);
+            }
+        }
+    }
+
+    private static boolean matchesFilters(BeerDTO beer, BeerType type, Integer minQuantity, Integer maxQuantity) {
+        return (type == null || type == beer.getType())
+                && (minQuantity == null || beer.getQuantity() >= minQuantity)
+                && (maxQuantity == null || beer.getQuantity() <= maxQuantity);
+    }
+
+    private static double dice(int sharedTrigrams, int queryTrigrams, int fieldTrigrams) {
+        return sharedTrigrams == 0 ? 0 : 2.0 * sharedTrigrams / (queryTrigrams + fieldTrigrams);
+    }
+
+    static Set<String> trigrams(String text) {
+        Set<String> trigrams = new HashSet<>();
+        if (text == null) {
+            return trigrams;
+        }
+        String normalized = text.toLowerCase(Locale.ROOT)
+                .replaceAll("[^\\p{L}\\p{N}]+", " ")
+                .trim();
+        if (normalized.isEmpty()) {
+            return trigrams;
+        }
+        String padded = "  " + normalized + " ";
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    @Value
+    private static class IndexedBeer {
+        BeerDTO beer;
+        int nameTrigrams;
+        int brandTrigrams;
+    }
+}
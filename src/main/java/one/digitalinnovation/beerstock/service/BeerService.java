@@ -1,41 +1,174 @@
 package one.digitalinnovation.beerstock.service;
 
-import lombok.AllArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import one.digitalinnovation.beerstock.config.RequestDeadline;
+import one.digitalinnovation.beerstock.config.StockRetryProperties;
+import one.digitalinnovation.beerstock.config.SyntheticTraffic;
+import one.digitalinnovation.beerstock.dto.BeerBatchLookupDTO;
+import one.digitalinnovation.beerstock.dto.BeerBatchResultDTO;
 import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerFilterDTO;
+import one.digitalinnovation.beerstock.dto.StockCommandDTO;
 import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.BeerField;
+import one.digitalinnovation.beerstock.enums.StockOperation;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
 import one.digitalinnovation.beerstock.exception.BeerAlreadyRegisteredException;
+import one.digitalinnovation.beerstock.exception.BeerDatabaseUnavailableException;
 import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerStockConflictException;
 import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.exception.BeerVersionMismatchException;
+import one.digitalinnovation.beerstock.exception.InvalidBeerSortException;
 import one.digitalinnovation.beerstock.exception.NegativeBeerStockException;
+import one.digitalinnovation.beerstock.exception.RequestDeadlineExceededException;
 import one.digitalinnovation.beerstock.mapper.BeerMapper;
 import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.BeerSpecifications;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Service
-@AllArgsConstructor(onConstructor = @__(@Autowired))
 public class BeerService {
 
+    private static final String STOCK_CHANGES_METRIC = "beerstock.stock.changes";
+    private static final String STOCK_CONFLICTS_METRIC = "beerstock.stock.conflicts";
+    private static final String STOCK_RETRIES_METRIC = "beerstock.stock.retries";
+    private static final String STOCK_RETRIES_EXHAUSTED_METRIC = "beerstock.stock.retries.exhausted";
+    private static final String OPERATION_TAG = "operation";
+    private static final String INCREMENT = "increment";
+    private static final String DECREMENT = "decrement";
+    private static final Set<String> SORTABLE_PROPERTIES = new LinkedHashSet<>(Arrays.asList(
+            BeerField.ID.getProperty(), BeerField.NAME.getProperty(), BeerField.MAX.getProperty(),
+            BeerField.QUANTITY.getProperty(), BeerField.TYPE.getProperty()));
+
     private final BeerRepository beerRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final StockRetryProperties stockRetryProperties;
+    private final MeterRegistry meterRegistry;
+    private final BeerSnapshotService beerSnapshotService;
     private final BeerMapper beerMapper = BeerMapper.INSTANCE;
 
+    @Autowired
+    public BeerService(BeerRepository beerRepository, ApplicationEventPublisher eventPublisher,
+                       PlatformTransactionManager transactionManager, StockRetryProperties stockRetryProperties,
+                       MeterRegistry meterRegistry, BeerSnapshotService beerSnapshotService) {
+        this.beerRepository = beerRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.stockRetryProperties = stockRetryProperties;
+        this.meterRegistry = meterRegistry;
+        this.beerSnapshotService = beerSnapshotService;
+    }
+
+    @Transactional
     public BeerDTO createBeer(BeerDTO beerDTO) throws BeerAlreadyRegisteredException {
         verifyIfIsAlreadyRegistered(beerDTO.getName());
         Beer beer = beerMapper.toModel(beerDTO);
         Beer savedBeer = beerRepository.save(beer);
-        return beerMapper.toDTO(savedBeer);
+        BeerDTO savedBeerDTO = beerMapper.toDTO(savedBeer);
+        eventPublisher.publishEvent(BeerChangedEvent.created(savedBeerDTO));
+        return savedBeerDTO;
     }
 
+    @Transactional(readOnly = true)
     public BeerDTO findByName(String name) throws BeerNotFoundException {
         Beer foundBeer = beerRepository.findByName(name)
                 .orElseThrow(() -> new BeerNotFoundException(name));
         return beerMapper.toDTO(foundBeer);
     }
 
+    @Transactional(readOnly = true)
+    public BeerDTO findByName(String name, Set<BeerField> fields) throws BeerNotFoundException {
+        if (fields.isEmpty()) {
+            return findByName(name);
+        }
+        return beerRepository.findProjectedByName(name, fields)
+                .orElseThrow(() -> new BeerNotFoundException(name));
+    }
+
+    /**
+     * Looks a beer up like {@link #findByName(String, Set)}, but answers from the snapshot of the
+     * catalogue when the database is degraded. An empty set of fields means every field.
+     */
+    public SnapshotRead<BeerDTO> findByNameAllowingStale(String name, Set<BeerField> fields) throws BeerNotFoundException {
+        return beerSnapshotService.read(
+                () -> findByName(name, fields),
+                () -> project(beerSnapshotService.findInSnapshot(name)
+                        .orElseThrow(() -> new BeerNotFoundException(name)), fields));
+    }
+
+    @Transactional(readOnly = true)
+    public BeerBatchResultDTO findAll(BeerBatchLookupDTO lookup) {
+        Set<Long> ids = lookup.getIds() == null ? new LinkedHashSet<>() : new LinkedHashSet<>(lookup.getIds());
+        Set<String> names = lookup.getNames() == null ? new LinkedHashSet<>() : new LinkedHashSet<>(lookup.getNames());
+        List<Beer> beers;
+        if (ids.isEmpty() && names.isEmpty()) {
+            beers = new ArrayList<>();
+        } else if (ids.isEmpty()) {
+            beers = beerRepository.findByNameIn(names);
+        } else if (names.isEmpty()) {
+            beers = beerRepository.findAllById(ids);
+        } else {
+            beers = beerRepository.findByIdInOrNameIn(ids, names);
+        }
+
+        Map<Long, Beer> beersById = new HashMap<>();
+        Map<String, Beer> beersByName = new HashMap<>();
+        beers.forEach(beer -> {
+            beersById.put(beer.getId(), beer);
+            beersByName.put(beer.getName(), beer);
+        });
+        Map<Long, Beer> found = new LinkedHashMap<>();
+        List<Long> missingIds = new ArrayList<>();
+        List<String> missingNames = new ArrayList<>();
+        for (Long id : ids) {
+            Beer beer = beersById.get(id);
+            if (beer == null) {
+                missingIds.add(id);
+            } else {
+                found.putIfAbsent(beer.getId(), beer);
+            }
+        }
+        for (String name : names) {
+            Beer beer = beersByName.get(name);
+            if (beer == null) {
+                missingNames.add(name);
+            } else {
+                found.putIfAbsent(beer.getId(), beer);
+            }
+        }
+        List<BeerDTO> foundDTOs = found.values()
+                .stream()
+                .map(beerMapper::toDTO)
+                .collect(Collectors.toList());
+        return new BeerBatchResultDTO(foundDTOs, missingIds, missingNames);
+    }
+
+    @Transactional(readOnly = true)
     public List<BeerDTO> listAll() {
         return beerRepository.findAll()
                 .stream()
@@ -43,9 +176,48 @@ public class BeerService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
+    public List<BeerDTO> listAll(Set<BeerField> fields) {
+        if (fields.isEmpty()) {
+            return listAll();
+        }
+        return beerRepository.findAllProjected(fields);
+    }
+
+    /**
+     * Lists beers like {@link #listAll(Set)}, but answers from the snapshot of the catalogue when
+     * the database is degraded. An empty set of fields means every field.
+     */
+    public SnapshotRead<List<BeerDTO>> listAllAllowingStale(Set<BeerField> fields) {
+        return beerSnapshotService.read(
+                () -> listAll(fields),
+                () -> beerSnapshotService.listSnapshot()
+                        .stream()
+                        .map(beer -> project(beer, fields))
+                        .collect(Collectors.toList()));
+    }
+
+    /**
+     * Pages the beers matching the filter. The brand column holds the id of the brand in its
+     * dictionary, which orders brands by when they were first registered rather than by name, so
+     * beers cannot be sorted by brand.
+     */
+    @Transactional(readOnly = true)
+    public Page<BeerDTO> query(BeerFilterDTO filter, Pageable pageable) throws InvalidBeerSortException {
+        for (Sort.Order order : pageable.getSort()) {
+            if (!SORTABLE_PROPERTIES.contains(order.getProperty())) {
+                throw new InvalidBeerSortException(order.getProperty(), SORTABLE_PROPERTIES);
+            }
+        }
+        return beerRepository.findAll(BeerSpecifications.matching(filter), pageable)
+                .map(beerMapper::toDTO);
+    }
+
+    @Transactional
     public void deleteById(Long id) throws BeerNotFoundException {
-        verifyIfExists(id);
+        Beer beerToDelete = verifyIfExists(id);
         beerRepository.deleteById(id);
+        eventPublisher.publishEvent(BeerChangedEvent.deleted(beerMapper.toDTO(beerToDelete)));
     }
 
     private void verifyIfIsAlreadyRegistered(String name) throws BeerAlreadyRegisteredException {
@@ -60,26 +232,235 @@ public class BeerService {
                 .orElseThrow(() -> new BeerNotFoundException(id));
     }
 
+    private static BeerDTO project(BeerDTO beer, Set<BeerField> fields) {
+        if (fields.isEmpty()) {
+            return beer;
+        }
+        BeerDTO projected = new BeerDTO();
+        for (BeerField field : fields) {
+            switch (field) {
+                case ID:
+                    projected.setId(beer.getId());
+                    break;
+                case NAME:
+                    projected.setName(beer.getName());
+                    break;
+                case BRAND:
+                    projected.setBrand(beer.getBrand());
+                    break;
+                case MAX:
+                    projected.setMax(beer.getMax());
+                    break;
+                case QUANTITY:
+                    projected.setQuantity(beer.getQuantity());
+                    break;
+                case TYPE:
+                    projected.setType(beer.getType());
+                    break;
+            }
+        }
+        return projected;
+    }
+
     public BeerDTO increment(Long id, int quantityToIncrement) throws BeerNotFoundException, BeerStockExceededException {
-        Beer beerToIncrementStock = verifyIfExists(id);
+        try {
+            return changeStock(id, null, INCREMENT, beer -> incrementStock(beer, quantityToIncrement));
+        } catch (BeerVersionMismatchException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Increments the stock only if the beer is still at {@code expectedVersion}. A concurrent
+     * change is reported instead of retried, since the caller based the change on that version.
+     */
+    public BeerDTO increment(Long id, int quantityToIncrement, Long expectedVersion)
+            throws BeerNotFoundException, BeerStockExceededException, BeerVersionMismatchException {
+        return changeStock(id, expectedVersion, INCREMENT, beer -> incrementStock(beer, quantityToIncrement));
+    }
+
+    public BeerDTO decrement(Long id, int quantityToDecrement) throws BeerNotFoundException, NegativeBeerStockException {
+        try {
+            return changeStock(id, null, DECREMENT, beer -> decrementStock(beer, quantityToDecrement));
+        } catch (BeerVersionMismatchException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public BeerDTO decrement(Long id, int quantityToDecrement, Long expectedVersion)
+            throws BeerNotFoundException, NegativeBeerStockException, BeerVersionMismatchException {
+        return changeStock(id, expectedVersion, DECREMENT, beer -> decrementStock(beer, quantityToDecrement));
+    }
+
+    /**
+     * Applies several stock commands of one beer as a single change, joining the caller's
+     * transaction. Each command is checked in order against the stock the previous ones left, as
+     * {@link #increment(Long, int)} and {@link #decrement(Long, int)} would check it, but the beer
+     * is read and written once with their net result. Each command is answered, in order, with the
+     * beer right after it or with the exception that rejected it, in which case it left the stock
+     * as it was.
+     */
+    @Transactional
+    public List<Object> applyStockCommands(Long id, List<StockCommandDTO> commands) throws BeerNotFoundException {
+        if (beerSnapshotService.isDegraded()) {
+            throw new BeerDatabaseUnavailableException(id);
+        }
+        commands.forEach(command -> count(STOCK_CHANGES_METRIC,
+                command.getOperation() == StockOperation.INCREMENT ? INCREMENT : DECREMENT));
+        List<Object> outcomes = new ArrayList<>(commands.size());
+        BeerDTO changedBeerDTO;
+        try {
+            changedBeerDTO = applyStockChange(id, null, beer -> {
+                for (StockCommandDTO command : commands) {
+                    try {
+                        outcomes.add(beerMapper.toDTO(command.getOperation() == StockOperation.INCREMENT
+                                ? incrementStock(beer, command.getQuantity())
+                                : decrementStock(beer, command.getQuantity())));
+                    } catch (BeerStockExceededException | NegativeBeerStockException e) {
+                        outcomes.add(e);
+                    }
+                }
+                return beer;
+            });
+        } catch (BeerVersionMismatchException e) {
+            throw new IllegalStateException(e);
+        }
+        outcomes.stream()
+                .filter(BeerDTO.class::isInstance)
+                .forEach(outcome -> ((BeerDTO) outcome).setVersion(changedBeerDTO.getVersion()));
+        return outcomes;
+    }
+
+    private Beer incrementStock(Beer beerToIncrementStock, int quantityToIncrement) throws BeerStockExceededException {
         int quantityAfterIncrement = quantityToIncrement + beerToIncrementStock.getQuantity();
         if (quantityAfterIncrement <= beerToIncrementStock.getMax()) {
             beerToIncrementStock.setQuantity(quantityAfterIncrement);
-            Beer incrementedBeerStock = beerRepository.save(beerToIncrementStock);
-            return beerMapper.toDTO(incrementedBeerStock);
+            return beerToIncrementStock;
         }
-        throw new BeerStockExceededException(id, quantityToIncrement);
+        throw new BeerStockExceededException(beerToIncrementStock.getId(), quantityToIncrement);
     }
 
-    public BeerDTO decrement(Long id, int quantityToDecrement) throws BeerNotFoundException, NegativeBeerStockException {
-        Beer beerToDecrementStock = verifyIfExists(id);
+    private Beer decrementStock(Beer beerToDecrementStock, int quantityToDecrement) throws NegativeBeerStockException {
         int initialQuantity = beerToDecrementStock.getQuantity();
         int quantityAfterDecrement = beerToDecrementStock.getQuantity()-quantityToDecrement;
         if (quantityAfterDecrement >= 0) {
             beerToDecrementStock.setQuantity(quantityAfterDecrement);
-            Beer incrementedBeerStock = beerRepository.save(beerToDecrementStock);
-            return beerMapper.toDTO(incrementedBeerStock);
+            return beerToDecrementStock;
+        }
+        throw new NegativeBeerStockException(beerToDecrementStock.getId(), quantityAfterDecrement,initialQuantity);
+    }
+
+    /**
+     * Applies a stock change in a transaction of its own and flushes it, so a version conflict
+     * with a concurrent change surfaces here. With an expected version the conflict is reported
+     * as a mismatch; without one the change is retried on a fresh copy of the beer, after a
+     * random wait whose bound doubles with every attempt, up to the configured number of
+     * attempts. When a transaction is already active, the change joins it and conflicts are
+     * left to whoever commits it. While the database is degraded the change is refused at once
+     * instead of waiting for a connection.
+     */
+    private <E extends Exception> BeerDTO changeStock(Long id, Long expectedVersion, String operation, StockChange<E> change)
+            throws BeerNotFoundException, BeerVersionMismatchException, E {
+        if (beerSnapshotService.isDegraded()) {
+            throw new BeerDatabaseUnavailableException(id);
+        }
+        count(STOCK_CHANGES_METRIC, operation);
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return applyStockChange(id, expectedVersion, change);
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> {
+                    try {
+                        return applyStockChange(id, expectedVersion, change);
+                    } catch (RuntimeException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        throw new StockChangeRejected(e);
+                    }
+                });
+            } catch (StockChangeRejected rejected) {
+                throw rejected.<E>unwrap();
+            } catch (ObjectOptimisticLockingFailureException conflict) {
+                count(STOCK_CONFLICTS_METRIC, operation);
+                if (expectedVersion != null) {
+                    throw new BeerVersionMismatchException(id, String.valueOf(expectedVersion));
+                }
+                if (attempt >= stockRetryProperties.getMaxAttempts()) {
+                    count(STOCK_RETRIES_EXHAUSTED_METRIC, operation);
+                    throw new BeerStockConflictException(id, attempt, conflict);
+                }
+                count(STOCK_RETRIES_METRIC, operation);
+                backOff(id, attempt, conflict);
+            }
+        }
+    }
+
+    /**
+     * Counts a stock operation, unless the thread runs {@link SyntheticTraffic} whose changes would
+     * skew the rates of real ones.
+     */
+    private void count(String metric, String operation) {
+        if (!SyntheticTraffic.isActive()) {
+            meterRegistry.counter(metric, OPERATION_TAG, operation).increment();
+        }
+    }
+
+    private <E extends Exception> BeerDTO applyStockChange(Long id, Long expectedVersion, StockChange<E> change)
+            throws BeerNotFoundException, BeerVersionMismatchException, E {
+        Beer beer = verifyIfExists(id);
+        if (expectedVersion != null && !expectedVersion.equals(beer.getVersion())) {
+            throw new BeerVersionMismatchException(id, String.valueOf(expectedVersion));
+        }
+        BeerDTO beerBeforeChange = beerMapper.toDTO(beer);
+        Beer changedBeer = beerRepository.saveAndFlush(change.apply(beer));
+        BeerDTO changedBeerDTO = beerMapper.toDTO(changedBeer);
+        eventPublisher.publishEvent(BeerChangedEvent.updated(beerBeforeChange, changedBeerDTO));
+        return changedBeerDTO;
+    }
+
+    /**
+     * Waits before the next attempt, unless the request deadline would pass first, in which case
+     * there is no point in trying again.
+     */
+    private void backOff(Long id, int attempt, ObjectOptimisticLockingFailureException conflict) {
+        long bound = Math.min(stockRetryProperties.getMaxBackoff().toMillis(),
+                stockRetryProperties.getInitialBackoff().toMillis() << Math.min(attempt - 1, 30));
+        long wait = ThreadLocalRandom.current().nextLong(bound + 1);
+        if (TimeUnit.MILLISECONDS.toNanos(wait) >= RequestDeadline.remainingNanos()) {
+            throw new RequestDeadlineExceededException(conflict);
+        }
+        try {
+            Thread.sleep(wait);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BeerStockConflictException(id, attempt, conflict);
+        }
+    }
+
+    private interface StockChange<E extends Exception> {
+        Beer apply(Beer beer) throws E;
+    }
+
+    /**
+     * Carries a checked exception of a stock change out of the transaction callback, which
+     * rolls the transaction back on the way.
+     */
+    private static class StockChangeRejected extends RuntimeException {
+
+        private StockChangeRejected(Exception cause) {
+            super(cause);
+        }
+
+        @SuppressWarnings("unchecked")
+        private <E extends Exception> E unwrap() throws BeerNotFoundException, BeerVersionMismatchException {
+            if (getCause() instanceof BeerNotFoundException) {
+                throw (BeerNotFoundException) getCause();
+            }
+            if (getCause() instanceof BeerVersionMismatchException) {
+                throw (BeerVersionMismatchException) getCause();
+            }
+            return (E) getCause();
         }
-        throw new NegativeBeerStockException(id, quantityAfterDecrement,initialQuantity);
     }
 }
@@ -0,0 +1,367 @@
+package one.digitalinnovation.beerstock.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.config.ReadYourWrites;
+import one.digitalinnovation.beerstock.config.RequestDeadline;
+import one.digitalinnovation.beerstock.config.RequestTimer;
+import one.digitalinnovation.beerstock.config.StaleReadProperties;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.enums.RequestPhase;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.exception.RequestDeadlineExceededException;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Lets beer reads answer from an in-memory snapshot of the catalogue while the database is degraded.
+ * Database reads run on a bounded pool, guarded by a circuit breaker, and the caller only waits for
+ * them up to a latency budget. A read that fails, runs late or finds the breaker open answers from
+ * the snapshot, marked with when the snapshot last matched the database. While the breaker is open,
+ * reads never touch the database; once it has been open long enough, a background refresh of the
+ * snapshot is the trial that closes it again. The snapshot is loaded at startup and kept up to date
+ * from {@link BeerChangedEvent}s in between.
+ */
+@Slf4j
+@Service
+public class BeerSnapshotService {
+
+    private static final String STALE_READS_METRIC = "beerstock.stale-reads.served";
+    private static final String CIRCUIT_METRIC = "beerstock.stale-reads.circuit";
+
+    private final BeerRepository beerRepository;
+    private final TransactionTemplate readTransaction;
+    private final StaleReadProperties staleReadProperties;
+    private final MeterRegistry meterRegistry;
+    private final Clock clock;
+    private final ReadCircuitBreaker circuitBreaker;
+    private final ThreadPoolExecutor readExecutor;
+    private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+    private final Object monitor = new Object();
+    private volatile Snapshot snapshot;
+    private volatile Instant verifiedAt;
+    private final ChangesDuringReload<BeerChangedEvent> changesDuringRefresh = new ChangesDuringReload<>();
+
+    @Autowired
+    public BeerSnapshotService(BeerRepository beerRepository, PlatformTransactionManager transactionManager,
+                               StaleReadProperties staleReadProperties, MeterRegistry meterRegistry) {
+        this(beerRepository, transactionManager, staleReadProperties, meterRegistry, Clock.systemUTC());
+    }
+
+    BeerSnapshotService(BeerRepository beerRepository, PlatformTransactionManager transactionManager,
+                        StaleReadProperties staleReadProperties, MeterRegistry meterRegistry, Clock clock) {
+        this.beerRepository = beerRepository;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setReadOnly(true);
+        this.staleReadProperties = staleReadProperties;
+        this.meterRegistry = meterRegistry;
+        this.clock = clock;
+        this.circuitBreaker = new ReadCircuitBreaker(staleReadProperties.getFailureThreshold(),
+                staleReadProperties.getOpenDuration(), clock);
+        AtomicInteger threads = new AtomicInteger();
+        this.readExecutor = new ThreadPoolExecutor(staleReadProperties.getReadThreads(),
+                staleReadProperties.getReadThreads(), 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(staleReadProperties.getReadQueueCapacity()), runnable -> {
+                    Thread thread = new Thread(runnable, "beer-read-" + threads.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        Gauge.builder(CIRCUIT_METRIC, circuitBreaker, breaker -> breaker.getState().ordinal())
+                .description("0 closed, 1 open, 2 half-open")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (staleReadProperties.isEnabled()) {
+            refresh();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBeerChanged(BeerChangedEvent event) {
+        synchronized (monitor) {
+            if (snapshot != null) {
+                snapshot.apply(event);
+            }
+            changesDuringRefresh.record(event);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        readExecutor.shutdownNow();
+    }
+
+    /**
+     * Whether the circuit breaker currently keeps reads away from the database. Writes should
+     * fail fast while it does.
+     */
+    public boolean isDegraded() {
+        return staleReadProperties.isEnabled() && !circuitBreaker.allowsRequests();
+    }
+
+    public Optional<BeerDTO> findInSnapshot(String name) {
+        return Optional.ofNullable(snapshot.byName.get(name));
+    }
+
+    public List<BeerDTO> listSnapshot() {
+        return new ArrayList<>(snapshot.byId.values());
+    }
+
+    /**
+     * Runs {@code database} in a read-only transaction, or answers with {@code fromSnapshot} when
+     * the database is degraded and the snapshot is loaded. Exceptions of {@code database} that
+     * are not database failures, such as a beer that was not found, are a valid answer and are
+     * rethrown as they are, and so is the request deadline passing. The read carries the deadline,
+     * the read-your-writes client and the timing of the request to the pool, so it is routed as the
+     * request would be and its phases are charged to the request. A read within an active transaction joins it and always goes to the database,
+     * since only that transaction can see its own changes.
+     */
+    public <T, E extends Exception> SnapshotRead<T> read(BeerRead<T, E> database, BeerRead<T, E> fromSnapshot) throws E {
+        if (!staleReadProperties.isEnabled() || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return SnapshotRead.fresh(inReadTransaction(database));
+        }
+        if (!circuitBreaker.allowsRequests() && snapshot != null) {
+            refreshInBackground();
+            return stale(fromSnapshot, "circuit-open");
+        }
+
+        Future<HandedOffRead<T>> result;
+        Long deadline = RequestDeadline.current();
+        ReadYourWrites.Client client = ReadYourWrites.current();
+        RequestPhase phase = RequestTimer.currentPhase();
+        try {
+            result = readExecutor.submit(() -> {
+                Long previousDeadline = RequestDeadline.bind(deadline);
+                ReadYourWrites.Client previousClient = ReadYourWrites.bind(client);
+                RequestTimer timer = RequestTimer.startHandOff(phase);
+                T value = null;
+                Exception failure = null;
+                try {
+                    value = inReadTransaction(database);
+                } catch (Exception e) {
+                    failure = e;
+                } finally {
+                    if (timer != null) {
+                        timer.stop();
+                    }
+                    ReadYourWrites.restore(previousClient);
+                    RequestDeadline.restore(previousDeadline);
+                }
+                return new HandedOffRead<>(value, failure, timer == null ? null : timer.split());
+            });
+        } catch (RejectedExecutionException e) {
+            circuitBreaker.recordFailure();
+            if (snapshot != null) {
+                return stale(fromSnapshot, "saturated");
+            }
+            throw e;
+        }
+        try {
+            HandedOffRead<T> read = snapshot == null
+                    ? result.get()
+                    : result.get(staleReadProperties.getLatencyBudget().toNanos(), TimeUnit.NANOSECONDS);
+            RequestTimer.merge(read.getTiming());
+            if (read.getFailure() != null) {
+                return onFailedRead(read.getFailure(), fromSnapshot);
+            }
+            recordSuccess();
+            return SnapshotRead.fresh(read.getValue());
+        } catch (TimeoutException e) {
+            circuitBreaker.recordFailure();
+            return stale(fromSnapshot, "latency-budget");
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading beers", e);
+        } catch (ExecutionException e) {
+            return onFailedRead(e.getCause(), fromSnapshot);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T, E extends Exception> SnapshotRead<T> onFailedRead(Throwable cause, BeerRead<T, E> fromSnapshot) throws E {
+        if (isDatabaseFailure(cause)) {
+            circuitBreaker.recordFailure();
+            if (snapshot != null) {
+                log.warn("Beer read failed, answering from the snapshot: {}", cause.getMessage());
+                return stale(fromSnapshot, "failure");
+            }
+        } else {
+            recordSuccess();
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        throw (E) cause;
+    }
+
+    private <T, E extends Exception> SnapshotRead<T> stale(BeerRead<T, E> fromSnapshot, String reason) throws E {
+        meterRegistry.counter(STALE_READS_METRIC, "reason", reason).increment();
+        return SnapshotRead.stale(fromSnapshot.read(), verifiedAt);
+    }
+
+    private void refreshInBackground() {
+        if (!circuitBreaker.tryTrial()) {
+            return;
+        }
+        try {
+            readExecutor.execute(this::refresh);
+        } catch (RejectedExecutionException e) {
+            circuitBreaker.recordFailure();
+        }
+    }
+
+    /**
+     * Reloads the whole snapshot from the database. Changes published while it loads are applied
+     * again on top of it, so none of them is lost when the new snapshot replaces the old one.
+     */
+    void refresh() {
+        if (!changesDuringRefresh.start()) {
+            return;
+        }
+        try {
+            List<BeerDTO> beers = inReadTransaction(() -> beerRepository.findAll()
+                    .stream()
+                    .map(beerMapper::toDTO)
+                    .collect(Collectors.toList()));
+            Snapshot refreshed = new Snapshot();
+            beers.forEach(refreshed::put);
+            synchronized (monitor) {
+                changesDuringRefresh.replay(refreshed::apply);
+                snapshot = refreshed;
+            }
+            recordSuccess();
+        } catch (RuntimeException e) {
+            if (!isDatabaseFailure(e)) {
+                throw e;
+            }
+            circuitBreaker.recordFailure();
+            log.warn("Beer snapshot could not be refreshed: {}", e.getMessage());
+        } finally {
+            changesDuringRefresh.finish();
+        }
+    }
+
+    private void recordSuccess() {
+        circuitBreaker.recordSuccess();
+        verifiedAt = clock.instant();
+    }
+
+    private <T, E extends Exception> T inReadTransaction(BeerRead<T, E> read) throws E {
+        try {
+            return readTransaction.execute(status -> {
+                try {
+                    return read.read();
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new RejectedRead(e);
+                }
+            });
+        } catch (RejectedRead rejected) {
+            throw rejected.<E>unwrap();
+        }
+    }
+
+    private static boolean isDatabaseFailure(Throwable e) {
+        if (e instanceof RequestDeadlineExceededException) {
+            return false;
+        }
+        return e instanceof DataAccessException || e instanceof TransactionException;
+    }
+
+    /**
+     * A read of beers that may answer with a checked exception of its own.
+     */
+    public interface BeerRead<T, E extends Exception> {
+
+        T read() throws E;
+    }
+
+    /**
+     * Carries a checked exception of a read out of its transaction callback, which rolls the
+     * transaction back before it is unwrapped.
+     */
+    private static class RejectedRead extends RuntimeException {
+
+        private RejectedRead(Exception cause) {
+            super(cause);
+        }
+
+        @SuppressWarnings("unchecked")
+        private <E extends Exception> E unwrap() {
+            return (E) getCause();
+        }
+    }
+
+    /**
+     * The outcome of a read run on the pool, with the phases it spent, to be charged to the request.
+     */
+    @Value
+    private static class HandedOffRead<T> {
+        T value;
+        Exception failure;
+        RequestTimer.Split timing;
+    }
+
+    private static class Snapshot {
+
+        private final Map<Long, BeerDTO> byId = new ConcurrentSkipListMap<>();
+        private final Map<String, BeerDTO> byName = new ConcurrentHashMap<>();
+
+        private void put(BeerDTO beer) {
+            byId.put(beer.getId(), beer);
+            byName.put(beer.getName(), beer);
+        }
+
+        /**
+         * Puts the beer in its current state, or drops it when the change deleted it.
+         */
+        private void apply(BeerChangedEvent event) {
+            BeerDTO replaced = byId.remove(event.getBeerId());
+            if (replaced != null) {
+                byName.remove(replaced.getName(), replaced);
+            }
+            if (!event.isDeletion()) {
+                put(event.getCurrent());
+            }
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package one.digitalinnovation.beerstock.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.config.ReadYourWrites;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.StockAggregateDTO;
+import one.digitalinnovation.beerstock.dto.StockAggregatesDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.BeerStockLevel;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Stock totals per {@link BeerType} and per brand, maintained incrementally from
+ * {@link BeerChangedEvent}s so reads never touch the database. The counters are
+ * reconciled periodically against the stock of every beer on the primary, and replaced as a whole
+ * when they drifted, so readers see either the old counters or the new ones.
+ */
+@Slf4j
+@Service
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class BeerStockAggregateService {
+
+    private final BeerRepository beerRepository;
+
+    private final AtomicReference<Counters> counters = new AtomicReference<>(
+            new Counters(newTypeCounters(), new ConcurrentHashMap<>()));
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ChangesDuringReload<BeerChangedEvent> changesDuringReload = new ChangesDuringReload<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        reload(false);
+    }
+
+    @Scheduled(fixedDelayString = "${beerstock.aggregates.verification-interval:PT5M}",
+            initialDelayString = "${beerstock.aggregates.verification-interval:PT5M}")
+    public void verify() {
+        reload(true);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBeerChanged(BeerChangedEvent event) {
+        lock.readLock().lock();
+        try {
+            Counters current = counters.get();
+            if (!event.isCreation()) {
+                apply(current.getByType(), current.getByBrand(), StockLevel.of(event.getPrevious()), -1);
+            }
+            if (!event.isDeletion()) {
+                apply(current.getByType(), current.getByBrand(), StockLevel.of(event.getCurrent()), 1);
+            }
+            changesDuringReload.record(event);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public StockAggregatesDTO getAggregates() {
+        Counters current = counters.get();
+        Map<BeerType, StockAggregateDTO> byType = new EnumMap<>(BeerType.class);
+        current.getByType().forEach((type, counter) -> byType.put(type, counter.toDTO()));
+        Map<String, StockAggregateDTO> byBrand = new TreeMap<>();
+        current.getByBrand().forEach((brand, counter) -> putIfNotEmpty(byBrand, brand, counter.toDTO()));
+        return new StockAggregatesDTO(byType, byBrand);
+    }
+
+    public StockAggregateDTO getByType(BeerType type) {
+        return counters.get().getByType().get(type).toDTO();
+    }
+
+    public StockAggregateDTO getByBrand(String brand) {
+        StockCounter counter = counters.get().getByBrand().get(brand);
+        return counter == null ? new StockAggregateDTO() : counter.toDTO();
+    }
+
+    /**
+     * Loads the stock of every beer from the primary, since a lagging replica would miss recent
+     * changes, and replaces the counters with its totals. Changes published while it loads replace
+     * the loaded stock of their beer before the totals are summed.
+     */
+    private void reload(boolean verifying) {
+        if (!changesDuringReload.start()) {
+            return;
+        }
+        try {
+            Map<Long, StockLevel> levels = new HashMap<>();
+            ReadYourWrites.Client previous = ReadYourWrites.bindPrimary();
+            try {
+                beerRepository.findStockLevels().forEach(level -> levels.put(level.getId(), StockLevel.of(level)));
+            } finally {
+                ReadYourWrites.restore(previous);
+            }
+            lock.writeLock().lock();
+            try {
+                changesDuringReload.replay(event -> {
+                    levels.remove(event.getBeerId());
+                    if (!event.isDeletion()) {
+                        levels.put(event.getBeerId(), StockLevel.of(event.getCurrent()));
+                    }
+                });
+                Map<BeerType, StockCounter> loadedTypeCounters = newTypeCounters();
+                Map<String, StockCounter> loadedBrandCounters = new ConcurrentHashMap<>();
+                levels.values().forEach(level -> apply(loadedTypeCounters, loadedBrandCounters, level, 1));
+                Map<Object, StockAggregateDTO> expected = totals(loadedTypeCounters, loadedBrandCounters);
+                Map<Object, StockAggregateDTO> actual = totals(counters.get().getByType(), counters.get().getByBrand());
+                if (verifying && !expected.equals(actual)) {
+                    log.warn("Stock aggregates drifted from the database, replacing them: expected {} but was {}", expected, actual);
+                }
+                counters.set(new Counters(loadedTypeCounters, loadedBrandCounters));
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            changesDuringReload.finish();
+        }
+    }
+
+    private static void apply(Map<BeerType, StockCounter> typeCounters, Map<String, StockCounter> brandCounters,
+                              StockLevel level, int sign) {
+        typeCounters.get(level.getType()).add(sign, level);
+        brandCounters.computeIfAbsent(level.getBrand(), brand -> new StockCounter()).add(sign, level);
+    }
+
+    private static Map<Object, StockAggregateDTO> totals(Map<BeerType, StockCounter> typeCounters,
+                                                         Map<String, StockCounter> brandCounters) {
+        Map<Object, StockAggregateDTO> totals = new HashMap<>();
+        typeCounters.forEach((type, counter) -> putIfNotEmpty(totals, type, counter.toDTO()));
+        brandCounters.forEach((brand, counter) -> putIfNotEmpty(totals, brand, counter.toDTO()));
+        return totals;
+    }
+
+    private static <K> void putIfNotEmpty(Map<K, StockAggregateDTO> aggregates, K key, StockAggregateDTO aggregate) {
+        if (aggregate.getBeers() != 0) {
+            aggregates.put(key, aggregate);
+        }
+    }
+
+    private static Map<BeerType, StockCounter> newTypeCounters() {
+        Map<BeerType, StockCounter> counters = new EnumMap<>(BeerType.class);
+        for (BeerType type : BeerType.values()) {
+            counters.put(type, new StockCounter());
+        }
+        return counters;
+    }
+
+    /**
+     * Counters per type and per brand, replaced together.
+     */
+    @Value
+    private static class Counters {
+        Map<BeerType, StockCounter> byType;
+        Map<String, StockCounter> byBrand;
+    }
+
+    private static class StockCounter {
+
+        private final LongAdder beers = new LongAdder();
+        private final LongAdder quantity = new LongAdder();
+        private final LongAdder max = new LongAdder();
+
+        void add(int sign, StockLevel level) {
+            beers.add(sign);
+            quantity.add((long) sign * level.getQuantity());
+            max.add((long) sign * level.getMax());
+        }
+
+        StockAggregateDTO toDTO() {
+            return new StockAggregateDTO(beers.sum(), quantity.sum(), max.sum());
+        }
+    }
+
+    @Value
+    private static class StockLevel {
+        BeerType type;
+        String brand;
+        int quantity;
+        int max;
+
+        static StockLevel of(BeerDTO beer) {
+            return new StockLevel(beer.getType(), beer.getBrand(), beer.getQuantity(), beer.getMax());
+        }
+
+        static StockLevel of(BeerStockLevel level) {
+            return new StockLevel(level.getType(), level.getBrand(), level.getQuantity(), level.getMax());
+        }
+    }
+}
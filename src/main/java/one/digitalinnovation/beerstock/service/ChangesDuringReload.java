@@ -0,0 +1,45 @@
+package one.digitalinnovation.beerstock.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Records the changes published while an in-memory view is reloaded from the database, so they
+ * can be applied again on top of what the reload read. Each change must replace the state it
+ * touches rather than adjust it, since the reload may already have seen it and applying it twice
+ * must be harmless. Only one reload records at a time.
+ *
+ * <p>The owner applies each change to its live view and records it under a lock that
+ * {@link #replay(Consumer)} holds exclusively, together with the swap of the reloaded view, so no
+ * change falls between the replay and the swap.
+ */
+class ChangesDuringReload<C> {
+
+    private final AtomicReference<List<C>> changes = new AtomicReference<>();
+
+    /**
+     * @return {@code false} when another reload is already recording, in which case this one
+     * should be skipped
+     */
+    boolean start() {
+        return changes.compareAndSet(null, Collections.synchronizedList(new ArrayList<>()));
+    }
+
+    void record(C change) {
+        List<C> recorded = changes.get();
+        if (recorded != null) {
+            recorded.add(change);
+        }
+    }
+
+    void replay(Consumer<? super C> apply) {
+        changes.get().forEach(apply);
+    }
+
+    void finish() {
+        changes.set(null);
+    }
+}
@@ -0,0 +1,157 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.exception.InvalidBeerImportException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads RFC 4180 CSV records one at a time. Quoted fields may contain separators, doubled
+ * quotes and line breaks. The field list and the field buffer are reused from record to
+ * record, so reading a file allocates only the field strings themselves. Fields and records
+ * longer than the configured limits reject the file, so a missing closing quote cannot buffer
+ * the rest of it.
+ */
+class CsvRecordReader implements Closeable {
+
+    private static final int END_OF_STREAM = -1;
+    private static final int NOTHING_PENDING = -2;
+
+    private final Reader reader;
+    private final int maxFieldLength;
+    private final int maxRecordLength;
+    private final List<String> fields = new ArrayList<>();
+    private final StringBuilder field = new StringBuilder();
+
+    private long line = 1;
+    private long recordLine;
+    private int recordLength;
+    private int pending = NOTHING_PENDING;
+
+    CsvRecordReader(Reader reader, int maxFieldLength, int maxRecordLength) {
+        this.reader = reader;
+        this.maxFieldLength = maxFieldLength;
+        this.maxRecordLength = maxRecordLength;
+    }
+
+    /**
+     * Reads the next record, skipping blank lines.
+     *
+     * @return false once the end of the stream is reached
+     */
+    boolean next() throws IOException, InvalidBeerImportException {
+        do {
+            if (!readRecord()) {
+                return false;
+            }
+        } while (fields.size() == 1 && fields.get(0).isEmpty());
+        return true;
+    }
+
+    /**
+     * Fields of the current record, valid until the next call to {@link #next()}.
+     */
+    List<String> fields() {
+        return fields;
+    }
+
+    /**
+     * Line of the input on which the current record starts.
+     */
+    long line() {
+        return recordLine;
+    }
+
+    private boolean readRecord() throws IOException, InvalidBeerImportException {
+        fields.clear();
+        field.setLength(0);
+        recordLine = line;
+        recordLength = 0;
+        int c = read();
+        if (c == END_OF_STREAM) {
+            return false;
+        }
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == END_OF_STREAM) {
+                    throw new InvalidBeerImportException(String.format("Unterminated quoted field starting on line %d", recordLine));
+                }
+                if (c == '"') {
+                    int following = read();
+                    if (following == '"') {
+                        append('"');
+                    } else {
+                        quoted = false;
+                        c = following;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    append(c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                endField();
+                countRecordCharacter();
+            } else if (c == '\r' || c == '\n' || c == END_OF_STREAM) {
+                if (c == '\r') {
+                    int following = read();
+                    if (following != '\n') {
+                        pending = following;
+                    }
+                }
+                if (c != END_OF_STREAM) {
+                    line++;
+                }
+                endField();
+                return true;
+            } else {
+                append(c);
+            }
+            c = read();
+        }
+    }
+
+    private void append(int c) throws InvalidBeerImportException {
+        if (field.length() == maxFieldLength) {
+            throw new InvalidBeerImportException(String.format(
+                    "Field on line %d is longer than %d characters", recordLine, maxFieldLength));
+        }
+        countRecordCharacter();
+        field.append((char) c);
+    }
+
+    private void countRecordCharacter() throws InvalidBeerImportException {
+        recordLength++;
+        if (recordLength > maxRecordLength) {
+            throw new InvalidBeerImportException(String.format(
+                    "Record starting on line %d is longer than %d characters", recordLine, maxRecordLength));
+        }
+    }
+
+    private void endField() {
+        fields.add(field.toString());
+        field.setLength(0);
+    }
+
+    private int read() throws IOException {
+        if (pending != NOTHING_PENDING) {
+            int c = pending;
+            pending = NOTHING_PENDING;
+            return c;
+        }
+        return reader.read();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
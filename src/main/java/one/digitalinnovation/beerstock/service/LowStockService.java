@@ -0,0 +1,189 @@
+package one.digitalinnovation.beerstock.service;
+
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.config.LowStockProperties;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.LowStockBeerDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.event.LowStockEvent;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.BeerSpecifications;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps a watch list of the beers whose fill ratio (quantity / max) is below their threshold,
+ * ordered from the emptiest beer. Thresholds are resolved per beer, then per {@link BeerType},
+ * then from the configured default. The list is updated from {@link BeerChangedEvent}s, so
+ * reading it costs the size of the watch list, and every crossing publishes a {@link LowStockEvent}.
+ * Only the watch list mutation itself is serialized: repository queries and event publishing run
+ * outside the lock, so post-commit hooks never wait on an admin query.
+ */
+@Slf4j
+@Service
+public class LowStockService {
+
+    private static final Comparator<LowStockBeerDTO> BY_FILL_RATIO = Comparator
+            .comparingDouble(LowStockBeerDTO::getFillRatio)
+            .thenComparing(lowStockBeer -> lowStockBeer.getBeer().getId());
+
+    private final BeerRepository beerRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+    private final double defaultThreshold;
+    private final Map<BeerType, Double> typeThresholds;
+    private final Map<Long, Double> beerThresholds = new ConcurrentHashMap<>();
+
+    private final NavigableSet<LowStockBeerDTO> watchList = new ConcurrentSkipListSet<>(BY_FILL_RATIO);
+    private final Map<Long, LowStockBeerDTO> watchedBeers = new ConcurrentHashMap<>();
+    private final Object watchListLock = new Object();
+
+    @Autowired
+    public LowStockService(BeerRepository beerRepository, ApplicationEventPublisher eventPublisher, LowStockProperties lowStockProperties) {
+        this.beerRepository = beerRepository;
+        this.eventPublisher = eventPublisher;
+        this.defaultThreshold = lowStockProperties.getDefaultThreshold();
+        this.typeThresholds = Collections.synchronizedMap(new EnumMap<>(BeerType.class));
+        this.typeThresholds.putAll(lowStockProperties.getTypeThresholds());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadWatchList() {
+        double highestThreshold = typeThresholds.values().stream()
+                .reduce(defaultThreshold, Math::max);
+        List<BeerDTO> candidates = findBeers(BeerSpecifications.fillRatioAtMost(highestThreshold));
+        synchronized (watchListLock) {
+            watchList.clear();
+            watchedBeers.clear();
+        }
+        candidates.forEach(beer -> evaluate(beer, false));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBeerChanged(BeerChangedEvent event) {
+        if (event.isDeletion()) {
+            unwatch(event.getBeerId());
+        } else {
+            evaluate(event.getCurrent(), true);
+        }
+    }
+
+    public List<LowStockBeerDTO> getWatchList() {
+        return new ArrayList<>(watchList);
+    }
+
+    public LowStockBeerDTO setBeerThreshold(Long id, double fillRatio) throws BeerNotFoundException {
+        BeerDTO beer = findBeer(id);
+        beerThresholds.put(id, fillRatio);
+        evaluate(beer, true);
+        return toLowStockBeer(beer);
+    }
+
+    public LowStockBeerDTO removeBeerThreshold(Long id) throws BeerNotFoundException {
+        BeerDTO beer = findBeer(id);
+        beerThresholds.remove(id);
+        evaluate(beer, true);
+        return toLowStockBeer(beer);
+    }
+
+    public void setTypeThreshold(BeerType type, double fillRatio) {
+        typeThresholds.put(type, fillRatio);
+        List<BeerDTO> candidates = findBeers(BeerSpecifications.hasType(type)
+                .and(BeerSpecifications.fillRatioAtMost(fillRatio)));
+        new ArrayList<>(watchList).stream()
+                .filter(lowStockBeer -> lowStockBeer.getBeer().getType() == type)
+                .forEach(lowStockBeer -> evaluate(lowStockBeer.getBeer(), true));
+        candidates.forEach(beer -> evaluate(beer, true));
+    }
+
+    private void evaluate(BeerDTO beer, boolean publishCrossing) {
+        LowStockBeerDTO lowStockBeer = toLowStockBeer(beer);
+        boolean lowStock = isLowStock(lowStockBeer);
+        boolean crossed;
+        synchronized (watchListLock) {
+            LowStockBeerDTO watchedBeer = lowStock ? watch(lowStockBeer) : unwatch(beer.getId());
+            crossed = lowStock == (watchedBeer == null);
+        }
+        if (crossed && publishCrossing) {
+            publish(lowStockBeer, lowStock);
+        }
+    }
+
+    private LowStockBeerDTO watch(LowStockBeerDTO lowStockBeer) {
+        LowStockBeerDTO watchedBeer = watchedBeers.put(lowStockBeer.getBeer().getId(), lowStockBeer);
+        if (watchedBeer != null) {
+            watchList.remove(watchedBeer);
+        }
+        watchList.add(lowStockBeer);
+        return watchedBeer;
+    }
+
+    private LowStockBeerDTO unwatch(Long id) {
+        synchronized (watchListLock) {
+            LowStockBeerDTO watchedBeer = watchedBeers.remove(id);
+            if (watchedBeer != null) {
+                watchList.remove(watchedBeer);
+            }
+            return watchedBeer;
+        }
+    }
+
+    private void publish(LowStockBeerDTO lowStockBeer, boolean lowStock) {
+        if (lowStock) {
+            log.warn("Beer {} is low on stock: fill ratio {} is below threshold {}",
+                    lowStockBeer.getBeer().getName(), lowStockBeer.getFillRatio(), lowStockBeer.getThreshold());
+        }
+        eventPublisher.publishEvent(new LowStockEvent(lowStockBeer.getBeer(), lowStockBeer.getFillRatio(),
+                lowStockBeer.getThreshold(), lowStock));
+    }
+
+    private LowStockBeerDTO toLowStockBeer(BeerDTO beer) {
+        double fillRatio = beer.getMax() > 0 ? (double) beer.getQuantity() / beer.getMax() : 1.0;
+        return new LowStockBeerDTO(beer, fillRatio, thresholdFor(beer));
+    }
+
+    private double thresholdFor(BeerDTO beer) {
+        Double beerThreshold = beerThresholds.get(beer.getId());
+        if (beerThreshold != null) {
+            return beerThreshold;
+        }
+        return typeThresholds.getOrDefault(beer.getType(), defaultThreshold);
+    }
+
+    private static boolean isLowStock(LowStockBeerDTO lowStockBeer) {
+        return lowStockBeer.getFillRatio() < lowStockBeer.getThreshold();
+    }
+
+    private List<BeerDTO> findBeers(Specification<Beer> specification) {
+        return beerRepository.findAll(specification).stream()
+                .map(beerMapper::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    private BeerDTO findBeer(Long id) throws BeerNotFoundException {
+        return beerRepository.findById(id)
+                .map(beerMapper::toDTO)
+                .orElseThrow(() -> new BeerNotFoundException(id));
+    }
+}
@@ -0,0 +1,67 @@
+package one.digitalinnovation.beerstock.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Tracks whether beer reads should still go to the database. It opens after a number of
+ * consecutive failed or late reads. Once it has been open for a while, a single trial is allowed
+ * through; the trial's outcome closes the breaker or opens it again.
+ */
+class ReadCircuitBreaker {
+
+    enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final Clock clock;
+
+    private volatile State state = State.CLOSED;
+    private int failures;
+    private Instant openedAt;
+
+    ReadCircuitBreaker(int failureThreshold, Duration openDuration, Clock clock) {
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.clock = clock;
+    }
+
+    State getState() {
+        return state;
+    }
+
+    boolean allowsRequests() {
+        return state == State.CLOSED;
+    }
+
+    /**
+     * Moves an open breaker whose open duration has passed to half-open.
+     *
+     * @return whether the caller should run the trial
+     */
+    synchronized boolean tryTrial() {
+        if (state != State.OPEN || clock.instant().isBefore(openedAt.plus(openDuration))) {
+            return false;
+        }
+        state = State.HALF_OPEN;
+        return true;
+    }
+
+    synchronized void recordSuccess() {
+        failures = 0;
+        state = State.CLOSED;
+    }
+
+    synchronized void recordFailure() {
+        failures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && failures >= failureThreshold)) {
+            state = State.OPEN;
+            openedAt = clock.instant();
+        }
+    }
+}
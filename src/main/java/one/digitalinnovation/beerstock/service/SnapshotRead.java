@@ -0,0 +1,27 @@
+package one.digitalinnovation.beerstock.service;
+
+import lombok.Value;
+
+import java.time.Instant;
+
+/**
+ * The answer of a read that may have been served from the beer snapshot. For stale answers,
+ * {@code asOf} is when the snapshot was last known to match the database.
+ */
+@Value
+public class SnapshotRead<T> {
+
+    T value;
+
+    boolean stale;
+
+    Instant asOf;
+
+    public static <T> SnapshotRead<T> fresh(T value) {
+        return new SnapshotRead<>(value, false, null);
+    }
+
+    public static <T> SnapshotRead<T> stale(T value, Instant asOf) {
+        return new SnapshotRead<>(value, true, asOf);
+    }
+}
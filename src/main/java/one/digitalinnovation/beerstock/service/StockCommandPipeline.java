@@ -0,0 +1,307 @@
+package one.digitalinnovation.beerstock.service;
+
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.config.ShardContext;
+import one.digitalinnovation.beerstock.config.ShardDataSourceProperties;
+import one.digitalinnovation.beerstock.config.StockPipelineProperties;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.StockCommandDTO;
+import one.digitalinnovation.beerstock.dto.StockCommandStatusDTO;
+import one.digitalinnovation.beerstock.enums.StockCommandStatus;
+import one.digitalinnovation.beerstock.enums.StockOperation;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.exception.NegativeBeerStockException;
+import one.digitalinnovation.beerstock.exception.StockCommandNotFoundException;
+import one.digitalinnovation.beerstock.exception.StockPipelineSaturatedException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Applies stock increments and decrements through a fixed set of single-writer partitions.
+ * Every command of a beer goes to the partition chosen by its id, so commands on the same beer
+ * never race each other for its row. Each partition drains the commands queued since its last
+ * batch and applies them in order in one transaction per shard, writing each beer once with the
+ * net change of its commands, then completes them once the transaction has committed.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "beerstock.stock-pipeline", name = "enabled", havingValue = "true")
+public class StockCommandPipeline {
+
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    private final BeerService beerService;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxBatchSize;
+    private final int retainedCommands;
+    private final int shardCount;
+    private final List<Partition> partitions = new ArrayList<>();
+
+    private final Map<UUID, StockCommand> commands = new ConcurrentHashMap<>();
+    private final Queue<UUID> completedCommands = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger completedCount = new AtomicInteger();
+
+    private volatile boolean running = true;
+
+    @Autowired
+    public StockCommandPipeline(BeerService beerService, PlatformTransactionManager transactionManager,
+                                StockPipelineProperties pipelineProperties,
+                                ObjectProvider<ShardDataSourceProperties> shardProperties) {
+        this.beerService = beerService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxBatchSize = pipelineProperties.getMaxBatchSize();
+        this.retainedCommands = pipelineProperties.getRetainedCommands();
+        ShardDataSourceProperties shards = shardProperties.getIfAvailable();
+        this.shardCount = shards == null ? 1 : shards.getShardCount();
+        for (int i = 0; i < pipelineProperties.getPartitions(); i++) {
+            Partition partition = new Partition(pipelineProperties.getQueueCapacity());
+            Thread thread = new Thread(partition::run, "stock-pipeline-" + i);
+            thread.setDaemon(true);
+            partition.thread = thread;
+            partitions.add(partition);
+            thread.start();
+        }
+    }
+
+    public UUID submit(Long beerId, StockOperation operation, int quantity) throws StockPipelineSaturatedException {
+        if (!running) {
+            throw new StockPipelineSaturatedException(beerId);
+        }
+        StockCommand command = new StockCommand(UUID.randomUUID(), beerId, operation, quantity);
+        commands.put(command.id, command);
+        if (!partitions.get(Math.floorMod(beerId, partitions.size())).queue.offer(command)) {
+            commands.remove(command.id);
+            throw new StockPipelineSaturatedException(beerId);
+        }
+        command.result.whenComplete((beer, error) -> retain(command.id));
+        return command.id;
+    }
+
+    public StockCommandStatusDTO getStatus(UUID id) throws StockCommandNotFoundException {
+        return toStatusDTO(verifyIfExists(id));
+    }
+
+    /**
+     * Waits for a command to be applied. A rejected command rethrows the exception the same
+     * movement would throw through {@link BeerService}; a command still queued after the timeout
+     * is returned as {@link StockCommandStatus#PENDING}.
+     */
+    public StockCommandStatusDTO await(UUID id, Duration timeout)
+            throws StockCommandNotFoundException, BeerNotFoundException, BeerStockExceededException, NegativeBeerStockException {
+        StockCommand command = verifyIfExists(id);
+        try {
+            command.result.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return toStatusDTO(command);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return toStatusDTO(command);
+        } catch (ExecutionException e) {
+            rethrow(e.getCause());
+        }
+        return toStatusDTO(command);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Partition partition : partitions) {
+            partition.thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        for (Partition partition : partitions) {
+            List<StockCommand> abandoned = new ArrayList<>();
+            partition.queue.drainTo(abandoned);
+            abandoned.forEach(command -> command.result.completeExceptionally(
+                    new IllegalStateException("The stock pipeline stopped before applying the command")));
+        }
+    }
+
+    private void apply(List<StockCommand> batch) {
+        Map<Integer, List<StockCommand>> commandsByShard = batch.stream()
+                .collect(Collectors.groupingBy(command -> ShardContext.shardOf(command.beerId, shardCount),
+                        LinkedHashMap::new, Collectors.toList()));
+        commandsByShard.values().forEach(this::applyInTransaction);
+    }
+
+    /**
+     * Applies the commands in one transaction, folding the commands of each beer into one net
+     * change of its stock. When it fails as a whole, each beer is retried in a transaction of its
+     * own, and then each of its commands, so one failure does not reject its neighbours.
+     */
+    private void applyInTransaction(List<StockCommand> batch) {
+        Map<Long, List<StockCommand>> commandsByBeer = batch.stream()
+                .collect(Collectors.groupingBy(command -> command.beerId, LinkedHashMap::new, Collectors.toList()));
+        Map<StockCommand, Object> outcomes;
+        try {
+            outcomes = transactionTemplate.execute(status -> {
+                Map<StockCommand, Object> applied = new HashMap<>();
+                commandsByBeer.forEach((beerId, commands) -> applyCommands(beerId, commands, applied));
+                return applied;
+            });
+        } catch (RuntimeException e) {
+            if (commandsByBeer.size() > 1) {
+                commandsByBeer.values().forEach(this::applyInTransaction);
+            } else if (batch.size() > 1) {
+                batch.forEach(command -> applyInTransaction(Collections.singletonList(command)));
+            } else {
+                log.warn("Stock command {} on beer {} failed", batch.get(0).id, batch.get(0).beerId, e);
+                batch.get(0).result.completeExceptionally(e);
+            }
+            return;
+        }
+        batch.forEach(command -> {
+            Object outcome = outcomes.get(command);
+            if (outcome instanceof Exception) {
+                command.result.completeExceptionally((Exception) outcome);
+            } else {
+                command.result.complete((BeerDTO) outcome);
+            }
+        });
+    }
+
+    private void applyCommands(Long beerId, List<StockCommand> commands, Map<StockCommand, Object> outcomes) {
+        List<StockCommandDTO> stockCommands = commands.stream()
+                .map(command -> new StockCommandDTO(command.operation, command.quantity))
+                .collect(Collectors.toList());
+        try {
+            List<Object> applied = beerService.applyStockCommands(beerId, stockCommands);
+            for (int i = 0; i < commands.size(); i++) {
+                outcomes.put(commands.get(i), applied.get(i));
+            }
+        } catch (BeerNotFoundException e) {
+            commands.forEach(command -> outcomes.put(command, e));
+        }
+    }
+
+    private void retain(UUID id) {
+        completedCommands.add(id);
+        if (completedCount.incrementAndGet() > retainedCommands) {
+            UUID evicted = completedCommands.poll();
+            if (evicted != null) {
+                commands.remove(evicted);
+                completedCount.decrementAndGet();
+            }
+        }
+    }
+
+    private StockCommand verifyIfExists(UUID id) throws StockCommandNotFoundException {
+        StockCommand command = commands.get(id);
+        if (command == null) {
+            throw new StockCommandNotFoundException(id);
+        }
+        return command;
+    }
+
+    private static StockCommandStatusDTO toStatusDTO(StockCommand command) {
+        StockCommandStatusDTO status = StockCommandStatusDTO.builder()
+                .id(command.id)
+                .beerId(command.beerId)
+                .operation(command.operation)
+                .quantity(command.quantity)
+                .status(StockCommandStatus.PENDING)
+                .build();
+        if (command.result.isDone()) {
+            try {
+                status.setBeer(command.result.getNow(null));
+                status.setStatus(StockCommandStatus.APPLIED);
+            } catch (CompletionException e) {
+                status.setStatus(StockCommandStatus.REJECTED);
+                status.setError(e.getCause().getMessage());
+            }
+        }
+        return status;
+    }
+
+    private static void rethrow(Throwable cause) throws BeerNotFoundException, BeerStockExceededException, NegativeBeerStockException {
+        if (cause instanceof BeerNotFoundException) {
+            throw (BeerNotFoundException) cause;
+        }
+        if (cause instanceof BeerStockExceededException) {
+            throw (BeerStockExceededException) cause;
+        }
+        if (cause instanceof NegativeBeerStockException) {
+            throw (NegativeBeerStockException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        throw new IllegalStateException(cause);
+    }
+
+    private static class StockCommand {
+
+        private final UUID id;
+        private final Long beerId;
+        private final StockOperation operation;
+        private final int quantity;
+        private final CompletableFuture<BeerDTO> result = new CompletableFuture<>();
+
+        private StockCommand(UUID id, Long beerId, StockOperation operation, int quantity) {
+            this.id = id;
+            this.beerId = beerId;
+            this.operation = operation;
+            this.quantity = quantity;
+        }
+    }
+
+    private class Partition {
+
+        private final BlockingQueue<StockCommand> queue;
+        private final List<StockCommand> batch;
+        private Thread thread;
+
+        private Partition(int queueCapacity) {
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.batch = new ArrayList<>(maxBatchSize);
+        }
+
+        private void run() {
+            while (running) {
+                try {
+                    StockCommand first = queue.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, maxBatchSize - 1);
+                    apply(batch);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (RuntimeException e) {
+                    log.error("Stock pipeline partition {} failed to apply a batch", thread.getName(), e);
+                    batch.forEach(command -> command.result.completeExceptionally(e));
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.config.StockHistoryProperties;
+import one.digitalinnovation.beerstock.dto.StockHistoryDTO;
+import one.digitalinnovation.beerstock.enums.StockResolution;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.InvalidStockHistoryRangeException;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Samples every stock change published as a {@link BeerChangedEvent} into an in-process
+ * time series per beer. Raw changes are kept for a short window, while per-minute, hourly and
+ * daily rollups (min, max and last quantity) are kept for longer. A query is served from the
+ * finest resolution that still covers its start and fits its span in the configured number of
+ * points, so long ranges only ever read rollups.
+ */
+@Service
+public class StockHistoryService {
+
+    private static final Duration DEFAULT_RANGE = Duration.ofDays(7);
+
+    private final BeerRepository beerRepository;
+    private final Clock clock;
+    private final Map<StockResolution, Duration> retentions = new EnumMap<>(StockResolution.class);
+    private final int maxPoints;
+
+    private final Map<Long, StockSeries> series = new ConcurrentHashMap<>();
+
+    @Autowired
+    public StockHistoryService(BeerRepository beerRepository, StockHistoryProperties stockHistoryProperties) {
+        this(beerRepository, stockHistoryProperties, Clock.systemUTC());
+    }
+
+    StockHistoryService(BeerRepository beerRepository, StockHistoryProperties stockHistoryProperties, Clock clock) {
+        this.beerRepository = beerRepository;
+        this.clock = clock;
+        this.retentions.put(StockResolution.RAW, stockHistoryProperties.getRawRetention());
+        this.retentions.put(StockResolution.MINUTE, stockHistoryProperties.getMinuteRetention());
+        this.retentions.put(StockResolution.HOUR, stockHistoryProperties.getHourRetention());
+        this.retentions.put(StockResolution.DAY, stockHistoryProperties.getDayRetention());
+        this.maxPoints = stockHistoryProperties.getMaxPoints();
+    }
+
+    /**
+     * Starts the series of every registered beer at its current quantity, unless a change was
+     * already recorded for it.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        long now = clock.millis();
+        beerRepository.findAll().forEach(beer -> series.computeIfAbsent(beer.getId(), id -> {
+            StockSeries beerSeries = new StockSeries();
+            beerSeries.record(now, beer.getQuantity());
+            return beerSeries;
+        }));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBeerChanged(BeerChangedEvent event) {
+        if (event.isDeletion()) {
+            series.remove(event.getBeerId());
+        } else if (event.isCreation() || event.getPrevious().getQuantity() != event.getCurrent().getQuantity()) {
+            series.computeIfAbsent(event.getBeerId(), id -> new StockSeries())
+                    .record(clock.millis(), event.getCurrent().getQuantity());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${beerstock.stock-history.eviction-interval:PT1M}",
+            initialDelayString = "${beerstock.stock-history.eviction-interval:PT1M}")
+    public void evictExpired() {
+        Instant now = clock.instant();
+        retentions.forEach((resolution, retention) -> {
+            long cutoff = now.minus(retention).toEpochMilli();
+            series.values().forEach(beerSeries -> beerSeries.evictBefore(resolution, cutoff));
+        });
+    }
+
+    /**
+     * Returns the stock history of a beer between two instants. A missing end defaults to now
+     * and a missing start to a week before the end; a missing resolution is picked from the range.
+     */
+    public StockHistoryDTO getHistory(Long id, Instant from, Instant to, StockResolution resolution)
+            throws BeerNotFoundException, InvalidStockHistoryRangeException {
+        Instant now = clock.instant();
+        Instant end = to == null ? now : to;
+        Instant start = from == null ? end.minus(DEFAULT_RANGE) : from;
+        if (start.isAfter(end)) {
+            throw new InvalidStockHistoryRangeException(start, end);
+        }
+        StockResolution readResolution = resolution == null ? resolve(start, end, now) : resolution;
+
+        StockSeries beerSeries = series.get(id);
+        if (beerSeries == null) {
+            verifyIfExists(id);
+            return new StockHistoryDTO(id, readResolution, start, end, Collections.emptyList());
+        }
+        return new StockHistoryDTO(id, readResolution, start, end,
+                beerSeries.read(readResolution, start.toEpochMilli(), end.toEpochMilli()));
+    }
+
+    /**
+     * Picks the finest resolution whose retention reaches back to the start of the range and
+     * which spans it in at most {@code maxPoints} buckets, falling back to daily rollups.
+     */
+    private StockResolution resolve(Instant start, Instant end, Instant now) {
+        long span = Duration.between(start, end).toMillis();
+        for (StockResolution resolution : StockResolution.values()) {
+            boolean retained = !start.isBefore(now.minus(retentions.get(resolution)));
+            boolean fits = resolution == StockResolution.RAW
+                    || span / resolution.getBucket().toMillis() <= maxPoints;
+            if (retained && fits) {
+                return resolution;
+            }
+        }
+        return StockResolution.DAY;
+    }
+
+    private void verifyIfExists(Long id) throws BeerNotFoundException {
+        if (!beerRepository.existsById(id)) {
+            throw new BeerNotFoundException(id);
+        }
+    }
+}
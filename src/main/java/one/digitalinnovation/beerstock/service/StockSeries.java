@@ -0,0 +1,150 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.dto.StockPointDTO;
+import one.digitalinnovation.beerstock.enums.StockResolution;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stock level history of one beer, kept at every {@link StockResolution} at once. Each resolution
+ * is a set of parallel primitive columns (bucket start, min, max, last) that only grows at its
+ * tail, so recording a change touches the last bucket of each resolution and reading a range is
+ * a binary search followed by a sequential scan. Expired buckets are dropped from the head.
+ */
+class StockSeries {
+
+    private final Map<StockResolution, Column> columns = new EnumMap<>(StockResolution.class);
+
+    private int lastQuantity;
+    private boolean recorded;
+
+    StockSeries() {
+        for (StockResolution resolution : StockResolution.values()) {
+            columns.put(resolution, new Column(resolution));
+        }
+    }
+
+    synchronized void record(long millis, int quantity) {
+        for (Column column : columns.values()) {
+            column.add(millis, quantity, recorded ? lastQuantity : quantity);
+        }
+        lastQuantity = quantity;
+        recorded = true;
+    }
+
+    synchronized void evictBefore(StockResolution resolution, long millis) {
+        columns.get(resolution).evictBefore(millis);
+    }
+
+    synchronized List<StockPointDTO> read(StockResolution resolution, long fromMillis, long toMillis) {
+        return columns.get(resolution).read(fromMillis, toMillis);
+    }
+
+    /**
+     * Buckets of one resolution, stored from {@code head} to {@code head + size}. Raw changes are
+     * one millisecond wide and only keep their quantity. A rollup bucket opens with the quantity
+     * held before it, so its min and max cover the whole bucket and not just the changes in it.
+     */
+    private static class Column {
+
+        private static final int INITIAL_CAPACITY = 8;
+
+        private final long width;
+        private final boolean rollup;
+
+        private long[] starts = new long[INITIAL_CAPACITY];
+        private int[] mins;
+        private int[] maxs;
+        private int[] lasts = new int[INITIAL_CAPACITY];
+        private int head;
+        private int size;
+
+        Column(StockResolution resolution) {
+            this.rollup = resolution != StockResolution.RAW;
+            this.width = rollup ? resolution.getBucket().toMillis() : 1;
+            if (rollup) {
+                mins = new int[INITIAL_CAPACITY];
+                maxs = new int[INITIAL_CAPACITY];
+            }
+        }
+
+        void add(long millis, int quantity, int previousQuantity) {
+            long start = millis - Math.floorMod(millis, width);
+            int tail = head + size - 1;
+            if (size > 0 && start <= starts[tail]) {
+                // same bucket, or the clock stepped back: fold into the latest bucket
+                if (rollup) {
+                    mins[tail] = Math.min(mins[tail], quantity);
+                    maxs[tail] = Math.max(maxs[tail], quantity);
+                }
+                lasts[tail] = quantity;
+                return;
+            }
+            if (head + size == starts.length) {
+                resize(size <= starts.length / 2 ? starts.length : starts.length * 2);
+            }
+            int index = head + size;
+            starts[index] = start;
+            lasts[index] = quantity;
+            if (rollup) {
+                mins[index] = Math.min(previousQuantity, quantity);
+                maxs[index] = Math.max(previousQuantity, quantity);
+            }
+            size++;
+        }
+
+        void evictBefore(long millis) {
+            while (size > 0 && starts[head] + width <= millis) {
+                head++;
+                size--;
+            }
+            if (size == 0) {
+                head = 0;
+            }
+            if (starts.length > INITIAL_CAPACITY && size < starts.length / 4) {
+                resize(Math.max(INITIAL_CAPACITY, starts.length / 2));
+            }
+        }
+
+        List<StockPointDTO> read(long fromMillis, long toMillis) {
+            List<StockPointDTO> points = new ArrayList<>();
+            for (int i = firstOverlapping(fromMillis); i < head + size && starts[i] <= toMillis; i++) {
+                points.add(new StockPointDTO(Instant.ofEpochMilli(starts[i]),
+                        rollup ? mins[i] : lasts[i], rollup ? maxs[i] : lasts[i], lasts[i]));
+            }
+            return points;
+        }
+
+        private int firstOverlapping(long millis) {
+            int low = head;
+            int high = head + size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (starts[middle] + width > millis) {
+                    high = middle;
+                } else {
+                    low = middle + 1;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Moves the live buckets to the start of arrays of the given capacity.
+         */
+        private void resize(int capacity) {
+            starts = Arrays.copyOfRange(starts, head, head + capacity);
+            lasts = Arrays.copyOfRange(lasts, head, head + capacity);
+            if (rollup) {
+                mins = Arrays.copyOfRange(mins, head, head + capacity);
+                maxs = Arrays.copyOfRange(maxs, head, head + capacity);
+            }
+            head = 0;
+        }
+    }
+}
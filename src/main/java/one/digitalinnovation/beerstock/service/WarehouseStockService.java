@@ -0,0 +1,285 @@
+package one.digitalinnovation.beerstock.service;
+
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.config.ReadYourWrites;
+import one.digitalinnovation.beerstock.dto.BeerStockTotalDTO;
+import one.digitalinnovation.beerstock.dto.WarehouseStockDTO;
+import one.digitalinnovation.beerstock.entity.WarehouseStock;
+import one.digitalinnovation.beerstock.entity.WarehouseStockId;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.event.WarehouseStockChangedEvent;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.exception.InvalidWarehouseStockException;
+import one.digitalinnovation.beerstock.exception.NegativeBeerStockException;
+import one.digitalinnovation.beerstock.exception.WarehouseStockNotFoundException;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.WarehouseStockRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Stock of beers per warehouse. Movements are conditional updates of the row of one location,
+ * and the total stock of each beer is kept in striped counters fed by committed
+ * {@link WarehouseStockChangedEvent}s, so reading a total never sums rows. The counters are
+ * reconciled periodically against the stored locations and replaced when they drifted. Deleting
+ * a beer deletes its locations; archiving one only drops its totals, since the archive moved its
+ * locations along with it, and restoring it loads them back.
+ */
+@Slf4j
+@Service
+@AllArgsConstructor(onConstructor = @__(@Autowired))
+public class WarehouseStockService {
+
+    private final WarehouseStockRepository warehouseStockRepository;
+    private final BeerRepository beerRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<Long, StockCounter> totals = new ConcurrentHashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ChangesDuringReload<Consumer<Map<WarehouseStockId, WarehouseStock>>> changesDuringReload =
+            new ChangesDuringReload<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadTotals() {
+        reload(false);
+    }
+
+    @Scheduled(fixedDelayString = "${beerstock.warehouse-stock.verification-interval:PT5M}",
+            initialDelayString = "${beerstock.warehouse-stock.verification-interval:PT5M}")
+    public void verify() {
+        reload(true);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStockChanged(WarehouseStockChangedEvent event) {
+        lock.readLock().lock();
+        try {
+            totals.computeIfAbsent(event.getBeerId(), beerId -> new StockCounter())
+                    .add(event.getWarehousesDelta(), event.getQuantityDelta(), event.getMaxDelta());
+            changesDuringReload.record(locations -> {
+                WarehouseStockId id = new WarehouseStockId(event.getBeerId(), event.getWarehouse());
+                if (event.isRemoval()) {
+                    locations.remove(id);
+                } else {
+                    locations.put(id, new WarehouseStock(id, event.getMax(), event.getQuantity()));
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true, condition = "#event.deletion and !#event.archival")
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void onBeerChanged(BeerChangedEvent event) {
+        warehouseStockRepository.deleteByBeerId(event.getBeerId());
+        dropTotal(event.getBeerId());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true, condition = "#event.archival")
+    public void onBeerArchived(BeerChangedEvent event) {
+        if (event.isDeletion()) {
+            dropTotal(event.getBeerId());
+            return;
+        }
+        List<WarehouseStock> restored = warehouseStockRepository.findByIdBeerIdOrderByIdWarehouse(event.getBeerId());
+        lock.readLock().lock();
+        try {
+            StockCounter counter = new StockCounter();
+            restored.forEach(stock -> counter.add(1, stock.getQuantity(), stock.getMax()));
+            totals.put(event.getBeerId(), counter);
+            changesDuringReload.record(locations -> restored.forEach(stock -> locations.put(stock.getId(), stock)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public List<WarehouseStockDTO> findByBeer(Long beerId) throws BeerNotFoundException {
+        verifyIfBeerExists(beerId);
+        return warehouseStockRepository.findByIdBeerIdOrderByIdWarehouse(beerId)
+                .stream()
+                .map(WarehouseStockService::toDTO)
+                .collect(Collectors.toList());
+    }
+
+    public BeerStockTotalDTO getTotal(Long beerId) throws BeerNotFoundException {
+        StockCounter counter = totals.get(beerId);
+        if (counter == null) {
+            verifyIfBeerExists(beerId);
+            return new BeerStockTotalDTO(beerId, 0, 0, 0);
+        }
+        return counter.toDTO(beerId);
+    }
+
+    @Transactional
+    public WarehouseStockDTO setStock(Long beerId, String warehouse, WarehouseStockDTO warehouseStockDTO)
+            throws BeerNotFoundException, InvalidWarehouseStockException {
+        verifyIfBeerExists(beerId);
+        if (warehouseStockDTO.getQuantity() > warehouseStockDTO.getMax()) {
+            throw new InvalidWarehouseStockException(warehouse, warehouseStockDTO.getQuantity(), warehouseStockDTO.getMax());
+        }
+        WarehouseStockId id = new WarehouseStockId(beerId, warehouse);
+        WarehouseStock stock = warehouseStockRepository.findLockedById(id).orElse(null);
+        if (stock == null) {
+            stock = warehouseStockRepository.save(
+                    new WarehouseStock(id, warehouseStockDTO.getMax(), warehouseStockDTO.getQuantity()));
+            eventPublisher.publishEvent(WarehouseStockChangedEvent.added(beerId, warehouse, stock.getQuantity(), stock.getMax()));
+            return toDTO(stock);
+        }
+        int quantityDelta = warehouseStockDTO.getQuantity() - stock.getQuantity();
+        int maxDelta = warehouseStockDTO.getMax() - stock.getMax();
+        stock.setQuantity(warehouseStockDTO.getQuantity());
+        stock.setMax(warehouseStockDTO.getMax());
+        eventPublisher.publishEvent(WarehouseStockChangedEvent.changed(beerId, warehouse, quantityDelta, maxDelta,
+                stock.getQuantity(), stock.getMax()));
+        return toDTO(stock);
+    }
+
+    @Transactional
+    public void removeStock(Long beerId, String warehouse) throws WarehouseStockNotFoundException {
+        WarehouseStock stock = warehouseStockRepository.findLockedById(new WarehouseStockId(beerId, warehouse))
+                .orElseThrow(() -> new WarehouseStockNotFoundException(beerId, warehouse));
+        warehouseStockRepository.delete(stock);
+        eventPublisher.publishEvent(WarehouseStockChangedEvent.removed(beerId, warehouse, stock.getQuantity(), stock.getMax()));
+    }
+
+    @Transactional
+    public WarehouseStockDTO increment(Long beerId, String warehouse, int quantityToIncrement)
+            throws WarehouseStockNotFoundException, BeerStockExceededException {
+        if (warehouseStockRepository.incrementQuantity(beerId, warehouse, quantityToIncrement) == 0) {
+            verifyIfExists(beerId, warehouse);
+            throw new BeerStockExceededException(beerId, quantityToIncrement);
+        }
+        WarehouseStock stock = verifyIfExists(beerId, warehouse);
+        eventPublisher.publishEvent(WarehouseStockChangedEvent.changed(beerId, warehouse, quantityToIncrement, 0,
+                stock.getQuantity(), stock.getMax()));
+        return toDTO(stock);
+    }
+
+    @Transactional
+    public WarehouseStockDTO decrement(Long beerId, String warehouse, int quantityToDecrement)
+            throws WarehouseStockNotFoundException, NegativeBeerStockException {
+        if (warehouseStockRepository.decrementQuantity(beerId, warehouse, quantityToDecrement) == 0) {
+            WarehouseStock stock = verifyIfExists(beerId, warehouse);
+            throw new NegativeBeerStockException(beerId, quantityToDecrement, stock.getQuantity());
+        }
+        WarehouseStock stock = verifyIfExists(beerId, warehouse);
+        eventPublisher.publishEvent(WarehouseStockChangedEvent.changed(beerId, warehouse, -quantityToDecrement, 0,
+                stock.getQuantity(), stock.getMax()));
+        return toDTO(stock);
+    }
+
+    /**
+     * Loads every location from the primary, since a lagging replica would drop recent movements from
+     * the totals, and replaces the totals with their sums. Changes published while it loads replace
+     * the loaded locations they touch before the totals are summed.
+     */
+    private void reload(boolean verifying) {
+        if (!changesDuringReload.start()) {
+            return;
+        }
+        try {
+            Map<WarehouseStockId, WarehouseStock> locations = new HashMap<>();
+            ReadYourWrites.Client previous = ReadYourWrites.bindPrimary();
+            try {
+                warehouseStockRepository.findAll().forEach(stock -> locations.put(stock.getId(), stock));
+            } finally {
+                ReadYourWrites.restore(previous);
+            }
+            lock.writeLock().lock();
+            try {
+                changesDuringReload.replay(change -> change.accept(locations));
+                Map<Long, StockCounter> loaded = new HashMap<>();
+                locations.values().forEach(stock -> loaded.computeIfAbsent(stock.getId().getBeerId(), beerId -> new StockCounter())
+                        .add(1, stock.getQuantity(), stock.getMax()));
+                if (verifying) {
+                    logDrift(loaded);
+                }
+                totals.clear();
+                totals.putAll(loaded);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } finally {
+            changesDuringReload.finish();
+        }
+    }
+
+    private void dropTotal(Long beerId) {
+        lock.readLock().lock();
+        try {
+            totals.remove(beerId);
+            changesDuringReload.record(locations -> locations.keySet().removeIf(id -> id.getBeerId().equals(beerId)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void logDrift(Map<Long, StockCounter> loaded) {
+        Map<Long, BeerStockTotalDTO> expected = new HashMap<>();
+        loaded.forEach((beerId, counter) -> expected.put(beerId, counter.toDTO(beerId)));
+        Map<Long, BeerStockTotalDTO> actual = new HashMap<>();
+        totals.forEach((beerId, counter) -> {
+            BeerStockTotalDTO total = counter.toDTO(beerId);
+            if (total.getWarehouses() != 0) {
+                actual.put(beerId, total);
+            }
+        });
+        if (!expected.equals(actual)) {
+            log.warn("Warehouse stock totals drifted from the database, replacing them: expected {} but was {}",
+                    expected.values(), actual.values());
+        }
+    }
+
+    private void verifyIfBeerExists(Long beerId) throws BeerNotFoundException {
+        if (!beerRepository.existsById(beerId)) {
+            throw new BeerNotFoundException(beerId);
+        }
+    }
+
+    private WarehouseStock verifyIfExists(Long beerId, String warehouse) throws WarehouseStockNotFoundException {
+        return warehouseStockRepository.findById(new WarehouseStockId(beerId, warehouse))
+                .orElseThrow(() -> new WarehouseStockNotFoundException(beerId, warehouse));
+    }
+
+    private static WarehouseStockDTO toDTO(WarehouseStock stock) {
+        return new WarehouseStockDTO(stock.getId().getWarehouse(), stock.getMax(), stock.getQuantity());
+    }
+
+    private static class StockCounter {
+
+        private final LongAdder warehouses = new LongAdder();
+        private final LongAdder quantity = new LongAdder();
+        private final LongAdder max = new LongAdder();
+
+        void add(long warehousesDelta, long quantityDelta, long maxDelta) {
+            warehouses.add(warehousesDelta);
+            quantity.add(quantityDelta);
+            max.add(maxDelta);
+        }
+
+        BeerStockTotalDTO toDTO(Long beerId) {
+            return new BeerStockTotalDTO(beerId, warehouses.sum(), quantity.sum(), max.sum());
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package one.digitalinnovation.beerstock.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import one.digitalinnovation.beerstock.config.SyntheticTraffic;
+import one.digitalinnovation.beerstock.config.WarmUpProperties;
+import one.digitalinnovation.beerstock.controller.BeerController;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerFilterDTO;
+import one.digitalinnovation.beerstock.dto.QuantityDTO;
+import one.digitalinnovation.beerstock.dto.WarmUpReportDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.info.Info;
+import org.springframework.boot.actuate.info.InfoContributor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+
+/**
+ * Runs synthetic calls through {@link BeerController}, {@link BeerService}, the mapper, Hibernate
+ * and the Jackson serializers of {@link BeerDTO} before the application reports itself ready, so
+ * the first real requests do not pay for interpretation and C1 code. The calls run against the
+ * live database: each iteration works on a throwaway beer of the dedicated {@code warm-up} brand
+ * inside a transaction that is always rolled back, which leaves the catalogue and every view fed
+ * by committed {@link one.digitalinnovation.beerstock.event.BeerChangedEvent}s untouched. The one
+ * thing left behind is the {@code warm-up} entry of the brand dictionary, which is registered in
+ * a transaction of its own and names no beer. Iterations run as {@link SyntheticTraffic}, so they
+ * are left out of the stock change metrics. Warm-up ends once JIT compilation time has stopped
+ * growing for a few rounds, or at the configured iteration or time limit.
+ *
+ * <p>The listener runs on {@link ApplicationReadyEvent}, before Spring Boot switches readiness to
+ * {@link ReadinessState#ACCEPTING_TRAFFIC}, so the readiness probe stays down until it returns.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "beerstock.warm-up", name = "enabled", havingValue = "true")
+public class WarmUpService implements InfoContributor {
+
+    private static final String WARM_UP_BRAND = "warm-up";
+    private static final Set<String> PROJECTED_FIELDS = Set.of("name", "quantity");
+
+    private final BeerController beerController;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final WarmUpProperties warmUpProperties;
+
+    private volatile WarmUpReportDTO report;
+
+    @Autowired
+    public WarmUpService(BeerController beerController, ObjectMapper objectMapper,
+                         PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher,
+                         WarmUpProperties warmUpProperties) {
+        this.beerController = beerController;
+        this.objectMapper = objectMapper;
+        this.transactionManager = transactionManager;
+        this.eventPublisher = eventPublisher;
+        this.warmUpProperties = warmUpProperties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+        CompilationMXBean compilation = ManagementFactory.getCompilationMXBean();
+        boolean compilationTimed = compilation != null && compilation.isCompilationTimeMonitoringSupported();
+        long startCompilationMillis = compilationTimed ? compilation.getTotalCompilationTime() : 0;
+        long start = System.nanoTime();
+        long deadline = start + warmUpProperties.getMaxDuration().toNanos();
+
+        long iterations = 0;
+        long failedIterations = 0;
+        int settledRounds = 0;
+        while (iterations < warmUpProperties.getMaxIterations() && System.nanoTime() < deadline
+                && (iterations < warmUpProperties.getMinIterations() || settledRounds < warmUpProperties.getSettledRounds())) {
+            long roundStart = System.nanoTime();
+            long roundCompilationMillis = compilationTimed ? compilation.getTotalCompilationTime() : 0;
+            for (int i = 0; i < warmUpProperties.getRoundSize(); i++, iterations++) {
+                if (!runIteration(iterations)) {
+                    failedIterations++;
+                }
+            }
+            double roundMillis = (System.nanoTime() - roundStart) / 1_000_000.0;
+            double compiledMillis = compilationTimed ? compilation.getTotalCompilationTime() - roundCompilationMillis : 0;
+            settledRounds = compiledMillis <= roundMillis * warmUpProperties.getSettleRatio() ? settledRounds + 1 : 0;
+        }
+
+        report = new WarmUpReportDTO(iterations, failedIterations, (System.nanoTime() - start) / 1_000_000,
+                compilationTimed ? compilation.getTotalCompilationTime() - startCompilationMillis : 0,
+                compilationTimed && settledRounds >= warmUpProperties.getSettledRounds());
+        log.info("Warm-up ran {} iterations ({} failed) in {} ms, {} ms of it compiling, compilation {}",
+                report.getIterations(), report.getFailedIterations(), report.getDurationMillis(),
+                report.getCompilationMillis(), report.isSettled() ? "settled" : "still active");
+    }
+
+    public WarmUpReportDTO getReport() {
+        return report;
+    }
+
+    @Override
+    public void contribute(Info.Builder builder) {
+        if (report != null) {
+            builder.withDetail("warmUp", report);
+        }
+    }
+
+    private boolean runIteration(long iteration) {
+        boolean synthetic = SyntheticTraffic.begin();
+        TransactionStatus status = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        try {
+            exercise(iteration);
+            return true;
+        } catch (Exception e) {
+            log.debug("Warm-up iteration {} failed", iteration, e);
+            return false;
+        } finally {
+            transactionManager.rollback(status);
+            SyntheticTraffic.restore(synthetic);
+        }
+    }
+
+    private void exercise(long iteration) throws Exception {
+        BeerDTO beerDTO = BeerDTO.builder()
+                .name(WARM_UP_BRAND + "-" + iteration)
+                .brand(WARM_UP_BRAND)
+                .max(100)
+                .quantity(50)
+                .type(BeerType.values()[(int) (iteration % BeerType.values().length)])
+                .build();
+        BeerDTO createdBeerDTO = beerController.createBeer(beerDTO);
+        beerController.findByName(createdBeerDTO.getName(), null);
+        beerController.findByName(createdBeerDTO.getName(), PROJECTED_FIELDS);
+        beerController.increment(createdBeerDTO.getId(), new QuantityDTO(10), null);
+        BeerDTO movedBeerDTO = beerController.decrement(createdBeerDTO.getId(), new QuantityDTO(20), null).getBody();
+        beerController.query(BeerFilterDTO.builder().brand(WARM_UP_BRAND).build(), PageRequest.of(0, 10));
+        objectMapper.readValue(objectMapper.writeValueAsBytes(movedBeerDTO), BeerDTO.class);
+        beerController.deleteById(createdBeerDTO.getId());
+    }
+}
@@ -0,0 +1,190 @@
+package one.digitalinnovation.beerstock.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Compares storing the brand of every beer as a name against storing the id of a shared brand
+ * dictionary, at catalogue scale: table size on disk, heap held by the brands of the loaded beers
+ * and time of a brand filter. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+public class BrandStorageBenchmark {
+
+    private static final int BEERS = 100_000;
+    private static final int BRANDS = 300;
+    private static final int QUERIES = 2_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void compareBrandNamesWithDictionaryIds() throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:file:" + directory.resolve("brands"), "sa", "")) {
+            createTables(connection);
+            insertBeers(connection);
+
+            long legacyBytes = diskSpaceUsed(connection, "BEER_LEGACY");
+            long encodedBytes = diskSpaceUsed(connection, "BEER_ENCODED") + diskSpaceUsed(connection, "BRAND");
+            long legacyHeap = retainedBytes(loadLegacyBrands(connection));
+            long encodedHeap = retainedBytes(loadEncodedBrands(connection));
+            double legacyQueryMicros = measureQueries(connection, "select count(*) from beer_legacy where brand = ?", true);
+            double encodedQueryMicros = measureQueries(connection, "select count(*) from beer_encoded where brand_id = ?", false);
+
+            System.out.printf("%-8s %12s %12s %14s%n", "storage", "disk bytes", "heap bytes", "query us/op");
+            System.out.printf("%-8s %12d %12d %14.1f%n", "name", legacyBytes, legacyHeap, legacyQueryMicros);
+            System.out.printf("%-8s %12d %12d %14.1f%n", "id", encodedBytes, encodedHeap, encodedQueryMicros);
+
+            assertThat(encodedBytes, is(lessThan(legacyBytes)));
+            assertThat(encodedHeap * 10, is(lessThan(legacyHeap)));
+        }
+    }
+
+    private void createTables(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table beer_legacy (id bigint primary key, name varchar(255) not null, "
+                    + "brand varchar(255) not null, max int not null, quantity int not null, type varchar(255) not null)");
+            statement.execute("create index idx_legacy_brand_quantity on beer_legacy (brand, quantity)");
+            statement.execute("create table brand (id int primary key, name varchar(200) not null unique)");
+            statement.execute("create table beer_encoded (id bigint primary key, name varchar(255) not null, "
+                    + "brand_id int not null, max int not null, quantity int not null, type varchar(255) not null)");
+            statement.execute("create index idx_encoded_brand_quantity on beer_encoded (brand_id, quantity)");
+        }
+    }
+
+    private void insertBeers(Connection connection) throws SQLException {
+        connection.setAutoCommit(false);
+        try (PreparedStatement brand = connection.prepareStatement("insert into brand values (?, ?)")) {
+            for (int i = 0; i < BRANDS; i++) {
+                brand.setInt(1, i);
+                brand.setString(2, brandName(i));
+                brand.addBatch();
+            }
+            brand.executeBatch();
+        }
+        try (PreparedStatement legacy = connection.prepareStatement("insert into beer_legacy values (?, ?, ?, ?, ?, ?)");
+             PreparedStatement encoded = connection.prepareStatement("insert into beer_encoded values (?, ?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < BEERS; i++) {
+                legacy.setLong(1, i);
+                legacy.setString(2, "Beer " + i);
+                legacy.setString(3, brandName(i % BRANDS));
+                legacy.setInt(4, 100);
+                legacy.setInt(5, i % 100);
+                legacy.setString(6, "LAGER");
+                legacy.addBatch();
+                encoded.setLong(1, i);
+                encoded.setString(2, "Beer " + i);
+                encoded.setInt(3, i % BRANDS);
+                encoded.setInt(4, 100);
+                encoded.setInt(5, i % 100);
+                encoded.setString(6, "LAGER");
+                encoded.addBatch();
+                if (i % 1_000 == 999) {
+                    legacy.executeBatch();
+                    encoded.executeBatch();
+                }
+            }
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+
+    private long diskSpaceUsed(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("call disk_space_used('" + table + "')")) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private List<String> loadLegacyBrands(Connection connection) throws SQLException {
+        List<String> brands = new ArrayList<>(BEERS);
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("select brand from beer_legacy")) {
+            while (resultSet.next()) {
+                brands.add(resultSet.getString(1));
+            }
+        }
+        return brands;
+    }
+
+    private List<String> loadEncodedBrands(Connection connection) throws SQLException {
+        Map<Integer, String> dictionary = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("select id, name from brand")) {
+            while (resultSet.next()) {
+                dictionary.put(resultSet.getInt(1), resultSet.getString(2));
+            }
+        }
+        List<String> brands = new ArrayList<>(BEERS);
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("select brand_id from beer_encoded")) {
+            while (resultSet.next()) {
+                brands.add(dictionary.get(resultSet.getInt(1)));
+            }
+        }
+        return brands;
+    }
+
+    /**
+     * Estimates the heap held by distinct string instances: a 24-byte {@code String} plus a
+     * {@code byte[]} of 16 bytes of header and one byte per Latin-1 character, padded to 8 bytes.
+     */
+    private long retainedBytes(List<String> brands) {
+        Set<String> instances = Collections.newSetFromMap(new IdentityHashMap<>());
+        instances.addAll(brands);
+        return instances.stream().mapToLong(brand -> 24 + ((16 + brand.length() + 7) / 8) * 8).sum();
+    }
+
+    private double measureQueries(Connection connection, String sql, boolean byName) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < QUERIES; i++) {
+                count(statement, byName, i);
+            }
+            long start = System.nanoTime();
+            long total = 0;
+            for (int i = 0; i < QUERIES; i++) {
+                total += count(statement, byName, i);
+            }
+            long elapsed = System.nanoTime() - start;
+            assertThat(total, is((long) QUERIES * BEERS / BRANDS));
+            return elapsed / 1_000.0 / QUERIES;
+        }
+    }
+
+    private long count(PreparedStatement statement, boolean byName, int query) throws SQLException {
+        int brand = (query * 7) % BRANDS;
+        if (byName) {
+            statement.setString(1, brandName(brand));
+        } else {
+            statement.setInt(1, brand);
+        }
+        try (ResultSet resultSet = statement.executeQuery()) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private static String brandName(int brand) {
+        return String.format("Cervejaria Artesanal do Vale %03d", brand);
+    }
+}
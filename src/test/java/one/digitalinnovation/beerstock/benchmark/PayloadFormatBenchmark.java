@@ -0,0 +1,90 @@
+package one.digitalinnovation.beerstock.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Compares payload size and (de)serialization cost of a beer list in JSON, Smile and CBOR.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+public class PayloadFormatBenchmark {
+
+    private static final int BEERS = 1_000;
+    private static final int WARMUP_ITERATIONS = 2_000;
+    private static final int MEASURED_ITERATIONS = 2_000;
+    private static final TypeReference<List<BeerDTO>> BEER_LIST = new TypeReference<>() {
+    };
+
+    private final List<BeerDTO> beers = IntStream.range(0, BEERS)
+            .mapToObj(i -> BeerDTOBuilder.builder()
+                    .id((long) i)
+                    .name("Beer " + i)
+                    .brand("Brand " + (i % 50))
+                    .quantity(i % 100)
+                    .type(BeerType.values()[i % BeerType.values().length])
+                    .build()
+                    .toBeerDTO())
+            .collect(Collectors.toList());
+
+    @Test
+    void compareJsonSmileAndCbor() throws Exception {
+        Result json = measure("JSON", new ObjectMapper());
+        Result smile = measure("Smile", new ObjectMapper(new SmileFactory()));
+        Result cbor = measure("CBOR", new ObjectMapper(new CBORFactory()));
+
+        System.out.printf("%-6s %10s %14s %14s%n", "format", "bytes", "write us/op", "read us/op");
+        for (Result result : List.of(json, smile, cbor)) {
+            System.out.printf("%-6s %10d %14.1f %14.1f%n", result.format, result.bytes, result.writeMicros, result.readMicros);
+        }
+
+        assertThat(smile.bytes, is(lessThan(json.bytes)));
+        assertThat(cbor.bytes, is(lessThan(json.bytes)));
+    }
+
+    private Result measure(String format, ObjectMapper objectMapper) throws Exception {
+        byte[] payload = objectMapper.writeValueAsBytes(beers);
+        assertThat(objectMapper.readValue(payload, BEER_LIST), is(equalTo(beers)));
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            objectMapper.readValue(objectMapper.writeValueAsBytes(beers), BEER_LIST);
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            payload = objectMapper.writeValueAsBytes(beers);
+        }
+        double writeMicros = (System.nanoTime() - start) / 1_000.0 / MEASURED_ITERATIONS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            objectMapper.readValue(payload, BEER_LIST);
+        }
+        double readMicros = (System.nanoTime() - start) / 1_000.0 / MEASURED_ITERATIONS;
+
+        return new Result(format, payload.length, writeMicros, readMicros);
+    }
+
+    @AllArgsConstructor
+    private static class Result {
+        private final String format;
+        private final int bytes;
+        private final double writeMicros;
+        private final double readMicros;
+    }
+}
@@ -0,0 +1,70 @@
+package one.digitalinnovation.beerstock.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import one.digitalinnovation.beerstock.config.RequestTimer;
+import one.digitalinnovation.beerstock.config.RequestTimingFilter;
+import one.digitalinnovation.beerstock.config.RequestTimingProperties;
+import one.digitalinnovation.beerstock.enums.RequestPhase;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThan;
+
+/**
+ * Measures what phase timing adds to a request: the {@link RequestTimingFilter} around a chain that
+ * goes through controller, service, two repository calls and mapping, against the same chain alone.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+public class RequestTimingBenchmark {
+
+    private static final int WARMUP_REQUESTS = 200_000;
+    private static final int MEASURED_REQUESTS = 2_000_000;
+    private static final double MAX_OVERHEAD_NANOS = 3_000;
+
+    private static final FilterChain CHAIN = (request, response) -> {
+        RequestPhase controller = RequestTimer.enter(RequestPhase.CONTROLLER);
+        RequestPhase service = RequestTimer.enter(RequestPhase.SERVICE);
+        RequestTimer.resume(RequestTimer.enter(RequestPhase.REPOSITORY));
+        RequestTimer.resume(RequestTimer.enter(RequestPhase.REPOSITORY));
+        RequestTimer.resume(RequestTimer.enter(RequestPhase.MAPPING));
+        RequestTimer.resume(service);
+        RequestTimer.resume(controller);
+        RequestTimer.enter(RequestPhase.SERIALIZATION);
+    };
+
+    @Test
+    void measureOverheadPerRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/beers/Brahma");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/beers/{name}");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestTimingFilter filter = new RequestTimingFilter(new SimpleMeterRegistry(), new RequestTimingProperties());
+
+        FilterChain timed = (req, res) -> filter.doFilter(req, res, CHAIN);
+        run(CHAIN, request, response, WARMUP_REQUESTS);
+        run(timed, request, response, WARMUP_REQUESTS);
+        double bare = run(CHAIN, request, response, MEASURED_REQUESTS);
+        double withTiming = run(timed, request, response, MEASURED_REQUESTS);
+
+        System.out.printf("%-14s %12s%n", "mode", "ns/request");
+        System.out.printf("%-14s %12.1f%n", "untimed", bare);
+        System.out.printf("%-14s %12.1f%n", "timed", withTiming);
+        System.out.printf("%-14s %12.1f%n", "overhead", withTiming - bare);
+        assertThat(withTiming - bare, lessThan(MAX_OVERHEAD_NANOS));
+    }
+
+    private static double run(FilterChain chain, MockHttpServletRequest request, MockHttpServletResponse response,
+                              int requests) throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            chain.doFilter(request, response);
+        }
+        return (System.nanoTime() - start) / (double) requests;
+    }
+}
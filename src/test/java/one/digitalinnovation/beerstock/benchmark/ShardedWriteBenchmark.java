@@ -0,0 +1,106 @@
+package one.digitalinnovation.beerstock.benchmark;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.BeerstockApplication;
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.service.BeerService;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Measures beer creation throughput with the catalogue split across 1, 2 and 4 shards,
+ * each shard being a separate in-memory H2 database. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+public class ShardedWriteBenchmark {
+
+    private static final int[] SHARD_COUNTS = {1, 2, 4};
+    private static final int WRITER_THREADS = 8;
+    private static final int WARMUP_WRITES = 2_000;
+    private static final int MEASURED_WRITES = 10_000;
+
+    @Test
+    void compareWriteThroughputByShardCount() throws Exception {
+        List<Result> results = new ArrayList<>();
+        for (int shards : SHARD_COUNTS) {
+            results.add(measure(shards));
+        }
+
+        System.out.printf("%-7s %14s %10s%n", "shards", "writes/s", "speedup");
+        for (Result result : results) {
+            System.out.printf("%-7d %14.0f %9.2fx%n",
+                    result.shards, result.writesPerSecond, result.writesPerSecond / results.get(0).writesPerSecond);
+        }
+    }
+
+    private Result measure(int shards) throws Exception {
+        try (ConfigurableApplicationContext context = start(shards)) {
+            BeerService beerService = context.getBean(BeerService.class);
+            AtomicInteger sequence = new AtomicInteger();
+
+            write(beerService, sequence, WARMUP_WRITES);
+            long start = System.nanoTime();
+            write(beerService, sequence, MEASURED_WRITES);
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+            assertThat(context.getBean(BeerRepository.class).count(), is((long) WARMUP_WRITES + MEASURED_WRITES));
+            return new Result(shards, MEASURED_WRITES / seconds);
+        }
+    }
+
+    private static void write(BeerService beerService, AtomicInteger sequence, int writes) throws Exception {
+        int end = sequence.get() + writes;
+        ExecutorService executor = Executors.newFixedThreadPool(WRITER_THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < WRITER_THREADS; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = sequence.getAndIncrement(); i < end; i = sequence.getAndIncrement()) {
+                        beerService.createBeer(BeerDTOBuilder.builder().id(null).name("Beer " + i).build().toBeerDTO());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+            sequence.set(end);
+        }
+    }
+
+    private static ConfigurableApplicationContext start(int shards) {
+        List<String> properties = new ArrayList<>();
+        properties.add("spring.datasource.url=jdbc:h2:mem:benchmark-" + shards + "-0;DB_CLOSE_DELAY=-1");
+        for (int shard = 1; shard < shards; shard++) {
+            String prefix = "beerstock.datasource.shards[" + (shard - 1) + "].";
+            properties.add(prefix + "url=jdbc:h2:mem:benchmark-" + shards + "-" + shard + ";DB_CLOSE_DELAY=-1");
+            properties.add(prefix + "username=sa");
+        }
+        return new SpringApplicationBuilder(BeerstockApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(properties.toArray(new String[0]))
+                .run();
+    }
+
+    @AllArgsConstructor
+    private static class Result {
+        private final int shards;
+        private final double writesPerSecond;
+    }
+}
@@ -0,0 +1,140 @@
+package one.digitalinnovation.beerstock.benchmark;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.BeerstockApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Measures start-up time (the "JVM running for" Spring Boot reports once the application is
+ * ready) in separate JVMs: the default configuration with devtools on the classpath, the
+ * {@code fast-startup} profile without devtools, and the same profile with an AppCDS archive
+ * recorded by a training run. Application classes are packed into a jar first, because the
+ * JVM only archives classes loaded from jars. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+public class StartupBenchmark {
+
+    private static final int RUNS = 5;
+    private static final Pattern JVM_RUNNING_FOR = Pattern.compile("JVM running for ([0-9.]+)");
+
+    @Test
+    void compareStartupTime() throws Exception {
+        Path workDirectory = Files.createTempDirectory("startup-benchmark");
+        String appJar = packApplicationClasses(workDirectory.resolve("beerstock.jar")).toString();
+        List<String> dependencies = dependencyJars();
+        List<String> withoutDevtools = dependencies.stream()
+                .filter(jar -> !jar.contains("spring-boot-devtools"))
+                .collect(Collectors.toList());
+        String archive = workDirectory.resolve("beerstock.jsa").toString();
+
+        List<Result> results = new ArrayList<>();
+        results.add(measure("default", classpath(appJar, dependencies), List.of()));
+        List<String> fastStartup = List.of("-Dspring.profiles.active=fast-startup");
+        results.add(measure("fast-startup", classpath(appJar, withoutDevtools), fastStartup));
+        start(classpath(appJar, withoutDevtools), concat(fastStartup, "-XX:ArchiveClassesAtExit=" + archive));
+        results.add(measure("fast-startup + AppCDS", classpath(appJar, withoutDevtools),
+                concat(fastStartup, "-XX:SharedArchiveFile=" + archive)));
+
+        System.out.printf("%-22s %12s %10s%n", "mode", "startup (s)", "speedup");
+        for (Result result : results) {
+            System.out.printf("%-22s %12.2f %9.2fx%n", result.mode, result.seconds, results.get(0).seconds / result.seconds);
+        }
+    }
+
+    private Result measure(String mode, String classpath, List<String> jvmOptions) throws Exception {
+        start(classpath, jvmOptions);
+        List<Double> seconds = new ArrayList<>();
+        for (int run = 0; run < RUNS; run++) {
+            seconds.add(start(classpath, jvmOptions));
+        }
+        Collections.sort(seconds);
+        return new Result(mode, seconds.get(RUNS / 2));
+    }
+
+    /**
+     * Starts the application in a new JVM that exits once it is ready, and returns its start-up time.
+     */
+    private double start(String classpath, List<String> jvmOptions) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmOptions);
+        command.addAll(List.of("-Dbeerstock.startup.exit-after-ready=true", "-Dserver.port=0",
+                "-cp", classpath, BeerstockApplication.class.getName()));
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        Double seconds = null;
+        try (BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = output.readLine()) != null) {
+                Matcher matcher = JVM_RUNNING_FOR.matcher(line);
+                if (matcher.find()) {
+                    seconds = Double.parseDouble(matcher.group(1));
+                }
+            }
+        }
+        assertThat(process.waitFor(), is(0));
+        if (seconds == null) {
+            throw new IllegalStateException("The application did not report its start-up time");
+        }
+        return seconds;
+    }
+
+    private static Path packApplicationClasses(Path jar) throws IOException {
+        Path classes = Arrays.stream(System.getProperty("java.class.path").split(File.pathSeparator))
+                .map(Paths::get)
+                .filter(entry -> entry.endsWith(Paths.get("target", "classes")))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Application classes not found on the classpath"));
+        try (JarOutputStream output = new JarOutputStream(Files.newOutputStream(jar));
+             Stream<Path> files = Files.walk(classes)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                output.putNextEntry(new JarEntry(classes.relativize(file).toString().replace(File.separatorChar, '/')));
+                Files.copy(file, (OutputStream) output);
+                output.closeEntry();
+            }
+        }
+        return jar;
+    }
+
+    private static List<String> dependencyJars() {
+        return Arrays.stream(System.getProperty("java.class.path").split(File.pathSeparator))
+                .filter(entry -> entry.endsWith(".jar"))
+                .collect(Collectors.toList());
+    }
+
+    private static String classpath(String appJar, List<String> dependencies) {
+        return Stream.concat(Stream.of(appJar), dependencies.stream()).collect(Collectors.joining(File.pathSeparator));
+    }
+
+    private static List<String> concat(List<String> options, String option) {
+        return Stream.concat(options.stream(), Stream.of(option)).collect(Collectors.toList());
+    }
+
+    @AllArgsConstructor
+    private static class Result {
+        private final String mode;
+        private final double seconds;
+    }
+}
@@ -0,0 +1,140 @@
+package one.digitalinnovation.beerstock.benchmark;
+
+import lombok.AllArgsConstructor;
+import one.digitalinnovation.beerstock.BeerstockApplication;
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.enums.StockOperation;
+import one.digitalinnovation.beerstock.service.BeerService;
+import one.digitalinnovation.beerstock.service.StockCommandPipeline;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Compares stock movement throughput of direct {@link BeerService} transactions, one per movement,
+ * against the single-writer pipeline with 1, 2 and 4 partitions, with concurrent clients moving the
+ * stock of a few hot beers. Run with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+public class StockPipelineBenchmark {
+
+    private static final int[] PARTITION_COUNTS = {1, 2, 4};
+    private static final int CLIENT_THREADS = 16;
+    private static final int BEERS = 8;
+    private static final int WARMUP_MOVEMENTS = 4_000;
+    private static final int MEASURED_MOVEMENTS = 20_000;
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    @Test
+    void compareMovementThroughput() throws Exception {
+        List<Result> results = new ArrayList<>();
+        results.add(measure(0));
+        for (int partitions : PARTITION_COUNTS) {
+            results.add(measure(partitions));
+        }
+
+        System.out.printf("%-12s %14s %10s%n", "mode", "movements/s", "speedup");
+        for (Result result : results) {
+            System.out.printf("%-12s %14.0f %9.2fx%n", result.mode, result.movementsPerSecond,
+                    result.movementsPerSecond / results.get(0).movementsPerSecond);
+        }
+    }
+
+    private Result measure(int partitions) throws Exception {
+        try (ConfigurableApplicationContext context = start(partitions)) {
+            BeerService beerService = context.getBean(BeerService.class);
+            List<Long> beerIds = new ArrayList<>();
+            for (int i = 0; i < BEERS; i++) {
+                beerIds.add(beerService.createBeer(BeerDTOBuilder.builder()
+                        .id(null).name("Beer " + i).max(500).quantity(250).build().toBeerDTO()).getId());
+            }
+            Mover mover = partitions == 0 ? direct(beerService) : pipelined(context.getBean(StockCommandPipeline.class));
+
+            move(mover, beerIds, WARMUP_MOVEMENTS);
+            long start = System.nanoTime();
+            move(mover, beerIds, MEASURED_MOVEMENTS);
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+            return new Result(partitions == 0 ? "direct" : partitions + " partitions", MEASURED_MOVEMENTS / seconds);
+        }
+    }
+
+    private static Mover direct(BeerService beerService) {
+        return (beerId, increment) -> {
+            if (increment) {
+                beerService.increment(beerId, 1);
+            } else {
+                beerService.decrement(beerId, 1);
+            }
+        };
+    }
+
+    private static Mover pipelined(StockCommandPipeline pipeline) {
+        return (beerId, increment) -> {
+            UUID commandId = pipeline.submit(beerId, increment ? StockOperation.INCREMENT : StockOperation.DECREMENT, 1);
+            pipeline.await(commandId, TIMEOUT);
+        };
+    }
+
+    /**
+     * Each client alternates increments and decrements so stock stays within bounds. Direct
+     * movements that lose a race on the same row are retried, as a client would.
+     */
+    private static void move(Mover mover, List<Long> beerIds, int movements) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CLIENT_THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < CLIENT_THREADS; thread++) {
+                int client = thread;
+                futures.add(executor.submit(() -> {
+                    for (int i = client; i < movements; i += CLIENT_THREADS) {
+                        Long beerId = beerIds.get(i % beerIds.size());
+                        while (true) {
+                            try {
+                                mover.move(beerId, i / beerIds.size() % 2 == 0);
+                                break;
+                            } catch (RuntimeException conflict) {
+                                Thread.yield();
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static ConfigurableApplicationContext start(int partitions) {
+        return new SpringApplicationBuilder(BeerstockApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("spring.datasource.url=jdbc:h2:mem:pipeline-benchmark-" + partitions + ";DB_CLOSE_DELAY=-1",
+                        "beerstock.stock-pipeline.enabled=" + (partitions > 0),
+                        "beerstock.stock-pipeline.partitions=" + Math.max(partitions, 1))
+                .run();
+    }
+
+    private interface Mover {
+        void move(Long beerId, boolean increment) throws Exception;
+    }
+
+    @AllArgsConstructor
+    private static class Result {
+        private final String mode;
+        private final double movementsPerSecond;
+    }
+}
@@ -29,12 +29,16 @@ public class BeerDTOBuilder {
     @Builder.Default
     private BeerType type = BeerType.LAGER;
 
+    @Builder.Default
+    private Long version = null;
+
     public BeerDTO toBeerDTO() {
         return new BeerDTO(id,
                 name,
                 brand,
                 max,
                 quantity,
-                type);
+                type,
+                version);
     }
 }
@@ -0,0 +1,142 @@
+package one.digitalinnovation.beerstock.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.servlet.http.Cookie;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+
+public class ReadWriteRoutingDataSourceTest {
+
+    private static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary";
+    private static final String REPLICA_URL = "jdbc:h2:mem:routing-replica";
+
+    private final DataSource primary = new DriverManagerDataSource(PRIMARY_URL, "sa", "");
+    private final DataSource replica = new DriverManagerDataSource(REPLICA_URL, "sa", "");
+
+    private final ReadYourWrites.Client previousClient = ReadYourWrites.bind(null, null);
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        ReadYourWrites.restore(previousClient);
+    }
+
+    @Test
+    void whenTransactionIsReadOnlyThenTheReplicaIsUsed() throws SQLException {
+        ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(primary, replica, Duration.ZERO, Duration.ofSeconds(30));
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(urlOf(dataSource), containsString("routing-replica"));
+    }
+
+    @Test
+    void whenTransactionWritesThenThePrimaryIsUsed() throws SQLException {
+        ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(primary, replica, Duration.ZERO, Duration.ofSeconds(30));
+
+        assertThat(urlOf(dataSource), containsString("routing-primary"));
+    }
+
+    @Test
+    void whenReadHappensWithinTheLagToleranceOfAWriteThenThePrimaryIsUsed() throws SQLException {
+        ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(primary, replica, Duration.ofMinutes(1), Duration.ofSeconds(30));
+        urlOf(dataSource);
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(urlOf(dataSource), containsString("routing-primary"));
+    }
+
+    @Test
+    void whenClientReadsFromThePrimaryOnlyThenReadOnlyTransactionsUseThePrimary() throws SQLException {
+        ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(primary, replica, Duration.ZERO, Duration.ofSeconds(30));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        ReadYourWrites.Client previous = ReadYourWrites.bindPrimary();
+        try {
+            assertThat(urlOf(dataSource), containsString("routing-primary"));
+        } finally {
+            ReadYourWrites.restore(previous);
+        }
+        assertThat(urlOf(dataSource), containsString("routing-replica"));
+    }
+
+    @Test
+    void whenAnotherClientWroteThenReadsStillUseTheReplica() throws Exception {
+        ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(primary, replica, Duration.ofMinutes(1), Duration.ofSeconds(30));
+        Thread otherClient = new Thread(() -> urlOfQuietly(dataSource));
+        otherClient.start();
+        otherClient.join();
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(urlOf(dataSource), containsString("routing-replica"));
+    }
+
+    @Test
+    void whenRequestWritesThenLaterRequestsOfTheSameClientReadFromThePrimary() throws Exception {
+        ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(primary, replica, Duration.ofMinutes(1), Duration.ofSeconds(30));
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofMinutes(1));
+        String[] readUrl = new String[1];
+
+        MockHttpServletResponse writeResponse = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("PUT", "/api/v1/beers"), writeResponse,
+                (request, response) -> readUrl[0] = urlOfQuietly(dataSource));
+        Cookie lastWrite = writeResponse.getCookie(ReadYourWritesFilter.LAST_WRITE_COOKIE);
+
+        MockHttpServletRequest otherClientRead = new MockHttpServletRequest("GET", "/api/v1/beers");
+        filter.doFilter(otherClientRead, new MockHttpServletResponse(), (request, response) -> {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+            readUrl[0] = urlOfQuietly(dataSource);
+        });
+        assertThat(readUrl[0], containsString("routing-replica"));
+
+        MockHttpServletRequest sameClientRead = new MockHttpServletRequest("GET", "/api/v1/beers");
+        sameClientRead.setCookies(lastWrite);
+        filter.doFilter(sameClientRead, new MockHttpServletResponse(), (request, response) -> {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+            readUrl[0] = urlOfQuietly(dataSource);
+        });
+        assertThat(lastWrite, is(notNullValue()));
+        assertThat(lastWrite.getMaxAge(), is(60));
+        assertThat(readUrl[0], containsString("routing-primary"));
+    }
+
+    @Test
+    void whenReplicaIsUnavailableThenReadsFallBackToThePrimary() throws SQLException {
+        DataSource unavailableReplica = new DriverManagerDataSource("jdbc:h2:mem:routing-replica;IFEXISTS=TRUE;ACCESS_MODE_DATA=x", "sa", "");
+        ReadWriteRoutingDataSource dataSource = new ReadWriteRoutingDataSource(primary, unavailableReplica, Duration.ZERO, Duration.ofSeconds(30));
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        assertThat(urlOf(dataSource), containsString("routing-primary"));
+        assertThat(urlOf(dataSource), containsString("routing-primary"));
+    }
+
+    private static String urlOfQuietly(DataSource dataSource) {
+        try {
+            return urlOf(dataSource);
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String urlOf(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.getMetaData().getURL();
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package one.digitalinnovation.beerstock.config;
+
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.exception.RequestDeadlineExceededException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.data.repository.Repository;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class RequestDeadlineTest {
+
+    private final RequestDeadlineProperties properties = new RequestDeadlineProperties();
+    private final RequestDeadlineInterceptor interceptor = new RequestDeadlineInterceptor(properties);
+    private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/beers");
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @AfterEach
+    void tearDown() {
+        RequestDeadline.restore(null);
+    }
+
+    @Test
+    void whenTimeoutHeaderIsSentThenDeadlineIsBoundUntilRequestCompletes() throws Exception {
+        request.addHeader("X-Request-Timeout", "500");
+
+        interceptor.preHandle(request, response, handler());
+
+        assertThat(RequestDeadline.remainingNanos(), is(both(greaterThan(0L)).and(lessThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(500)))));
+        interceptor.afterCompletion(request, response, handler(), null);
+        assertThat(RequestDeadline.current(), is(nullValue()));
+    }
+
+    @Test
+    void whenNoHeaderIsSentThenEndpointDefaultIsPreferredToGeneralDefault() throws Exception {
+        properties.setDefaultTimeout(Duration.ofSeconds(30));
+        properties.getEndpoints().put("RequestDeadlineTest#listBeers", Duration.ofMillis(200));
+
+        interceptor.preHandle(request, response, handler());
+
+        assertThat(RequestDeadline.remainingNanos(), is(lessThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(200))));
+    }
+
+    @Test
+    void whenControllersShareAMethodNameThenEachKeepsItsOwnEndpointDefault() throws Exception {
+        properties.getEndpoints().put("BeerArchiveController#findByName", Duration.ofMillis(200));
+        MockHttpServletRequest archiveRequest = new MockHttpServletRequest("GET", "/api/v1/beers/archive/Brahma");
+
+        interceptor.preHandle(request, response, new HandlerMethod(new BeerController(), BeerController.class.getDeclaredMethod("findByName")));
+        assertThat(RequestDeadline.current(), is(nullValue()));
+        interceptor.afterCompletion(request, response, null, null);
+
+        interceptor.preHandle(archiveRequest, response, new HandlerMethod(new BeerArchiveController(), BeerArchiveController.class.getDeclaredMethod("findByName")));
+        assertThat(RequestDeadline.remainingNanos(), is(lessThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(200))));
+    }
+
+    @Test
+    void whenNoTimeoutIsConfiguredThenNoDeadlineIsBound() throws Exception {
+        request.addHeader("X-Request-Timeout", "soon");
+
+        interceptor.preHandle(request, response, handler());
+
+        assertThat(RequestDeadline.current(), is(nullValue()));
+        assertThat(RequestDeadline.queryTimeoutSeconds(), is(0));
+    }
+
+    @Test
+    void whenTimeoutHeaderIsHugeThenDeadlineIsCutToTheLongestQueryTimeout() throws Exception {
+        request.addHeader("X-Request-Timeout", String.valueOf(Long.MAX_VALUE));
+
+        interceptor.preHandle(request, response, handler());
+
+        assertThat(RequestDeadline.remainingNanos(), is(greaterThan(0L)));
+        assertThat(RequestDeadline.queryTimeoutSeconds(), is(Integer.MAX_VALUE - 1));
+    }
+
+    @Test
+    void whenTimeoutHeaderOverflowsALongThenItIsIgnored() throws Exception {
+        request.addHeader("X-Request-Timeout", "92233720368547758070");
+
+        interceptor.preHandle(request, response, handler());
+
+        assertThat(RequestDeadline.current(), is(nullValue()));
+    }
+
+    @Test
+    void whenRequestArrivesWithNoTimeLeftThenItIsRefused() {
+        request.addHeader("X-Request-Timeout", "0");
+
+        assertThrows(RequestDeadlineExceededException.class, () -> interceptor.preHandle(request, response, handler()));
+        assertThat(RequestDeadline.current(), is(nullValue()));
+    }
+
+    @Test
+    void whenStatementIsPreparedThenTimeLeftIsItsQueryTimeoutRoundedUp() throws Exception {
+        try (Connection connection = withDeadlines(new DriverManagerDataSource("jdbc:h2:mem:deadline", "sa", "")).getConnection()) {
+            RequestDeadline.bind(RequestDeadline.after(Duration.ofMillis(1_500)));
+
+            try (PreparedStatement statement = connection.prepareStatement("select 1")) {
+                assertThat(statement.getQueryTimeout(), is(2));
+            }
+        }
+    }
+
+    @Test
+    void whenDeadlineHasPassedThenNoStatementIsPrepared() throws Exception {
+        try (Connection connection = withDeadlines(new DriverManagerDataSource("jdbc:h2:mem:deadline", "sa", "")).getConnection()) {
+            RequestDeadline.bind(System.nanoTime() - 1);
+
+            assertThrows(SQLTimeoutException.class, () -> connection.prepareStatement("select 1"));
+        }
+    }
+
+    @Test
+    void whenDeadlineHasPassedThenRepositoryIsNotCalled() {
+        AtomicInteger calls = new AtomicInteger();
+        AspectJProxyFactory factory = new AspectJProxyFactory((BeerCounter) calls::incrementAndGet);
+        factory.addAspect(new RequestDeadlineAspect());
+        BeerCounter counter = factory.getProxy();
+        RequestDeadline.bind(System.nanoTime() - 1);
+
+        assertThrows(RequestDeadlineExceededException.class, counter::count);
+        assertThat(calls.get(), is(0));
+    }
+
+    private static DataSource withDeadlines(DataSource dataSource) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(dataSource);
+        factory.addAspect(new RequestDeadlineAspect());
+        return factory.getProxy();
+    }
+
+    private HandlerMethod handler() throws NoSuchMethodException {
+        return new HandlerMethod(this, getClass().getDeclaredMethod("listBeers"));
+    }
+
+    @SuppressWarnings("unused")
+    private void listBeers() {
+    }
+
+    private static class BeerController {
+
+        @SuppressWarnings("unused")
+        void findByName() {
+        }
+    }
+
+    private static class BeerArchiveController {
+
+        @SuppressWarnings("unused")
+        void findByName() {
+        }
+    }
+
+    interface BeerCounter extends Repository<Beer, Long> {
+
+        long count();
+    }
+}
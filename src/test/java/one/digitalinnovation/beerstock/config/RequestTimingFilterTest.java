@@ -0,0 +1,138 @@
+package one.digitalinnovation.beerstock.config;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import one.digitalinnovation.beerstock.enums.RequestPhase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+
+public class RequestTimingFilterTest {
+
+    private static final String URI = "/api/v1/beers/{name}";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestTimingProperties properties = new RequestTimingProperties();
+    private MockHttpServletRequest request;
+
+    @BeforeEach
+    void setUp() {
+        request = new MockHttpServletRequest("GET", "/api/v1/beers/Brahma");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, URI);
+    }
+
+    @Test
+    void whenRequestGoesThroughEveryLayerThenEachPhaseIsRecorded() throws Exception {
+        RequestTimingFilter filter = new RequestTimingFilter(meterRegistry, properties);
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            RequestPhase controller = RequestTimer.enter(RequestPhase.CONTROLLER);
+            RequestPhase service = RequestTimer.enter(RequestPhase.SERVICE);
+            for (int i = 0; i < 2; i++) {
+                RequestPhase repository = RequestTimer.enter(RequestPhase.REPOSITORY);
+                sleep(5);
+                RequestTimer.resume(repository);
+            }
+            RequestPhase mapping = RequestTimer.enter(RequestPhase.MAPPING);
+            RequestTimer.resume(mapping);
+            RequestTimer.resume(service);
+            RequestTimer.resume(controller);
+            RequestTimer.enter(RequestPhase.SERIALIZATION);
+        });
+
+        for (RequestPhase phase : RequestPhase.values()) {
+            assertThat(phaseTimer(phase).count(), is(1L));
+        }
+        assertThat(phaseTimer(RequestPhase.REPOSITORY).totalTime(TimeUnit.MILLISECONDS), is(greaterThanOrEqualTo(10.0)));
+        double phases = 0;
+        for (RequestPhase phase : RequestPhase.values()) {
+            phases += phaseTimer(phase).totalTime(TimeUnit.NANOSECONDS);
+        }
+        Timer total = meterRegistry.get(RequestTimingFilter.TOTAL_TIMER).tag("uri", URI).timer();
+        assertThat(total.totalTime(TimeUnit.NANOSECONDS), is(closeTo(phases, 0.5)));
+    }
+
+    @Test
+    void whenNoRequestIsTimedThenEnteringAPhaseDoesNothing() {
+        assertThat(RequestTimer.enter(RequestPhase.SERVICE), is(nullValue()));
+    }
+
+    @Test
+    void whenRequestIsBrokenDownThenEveryPhaseAndRepeatedCallsAreListed() {
+        RequestTimer timer = RequestTimer.start();
+        RequestTimer.resume(RequestTimer.enter(RequestPhase.REPOSITORY));
+        RequestTimer.resume(RequestTimer.enter(RequestPhase.REPOSITORY));
+        timer.stop();
+
+        String breakdown = RequestTimingFilter.breakdown(timer);
+
+        for (RequestPhase phase : RequestPhase.values()) {
+            assertThat(breakdown.contains(phase.getTag()), is(true));
+        }
+        assertThat(breakdown.contains("over 2 calls"), is(true));
+        assertThat(timer.getTotalNanos(), is(greaterThan(0L)));
+    }
+
+    @Test
+    void whenWorkIsHandedOffToAnotherThreadThenItsPhasesAreChargedToTheRequest() throws Exception {
+        RequestTimingFilter filter = new RequestTimingFilter(meterRegistry, properties);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+                RequestPhase service = RequestTimer.enter(RequestPhase.SERVICE);
+                RequestPhase phase = RequestTimer.currentPhase();
+                RequestTimer.Split split = await(executor.submit(() -> {
+                    RequestTimer timer = RequestTimer.startHandOff(phase);
+                    RequestPhase repository = RequestTimer.enter(RequestPhase.REPOSITORY);
+                    sleep(20);
+                    RequestTimer.resume(repository);
+                    timer.stop();
+                    return timer.split();
+                }));
+                RequestTimer.merge(split);
+                RequestTimer.resume(service);
+            });
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(phaseTimer(RequestPhase.REPOSITORY).totalTime(TimeUnit.MILLISECONDS), is(greaterThanOrEqualTo(20.0)));
+        assertThat(phaseTimer(RequestPhase.SERVICE).totalTime(TimeUnit.MILLISECONDS), is(lessThan(20.0)));
+    }
+
+    private Timer phaseTimer(RequestPhase phase) {
+        return meterRegistry.get(RequestTimingFilter.PHASE_TIMER).tag("uri", URI).tag("phase", phase.getTag()).timer();
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
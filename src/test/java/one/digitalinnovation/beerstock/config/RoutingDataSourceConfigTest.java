@@ -0,0 +1,78 @@
+package one.digitalinnovation.beerstock.config;
+
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.service.BeerService;
+import one.digitalinnovation.beerstock.service.SnapshotRead;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+@SpringBootTest(properties = {
+        "beerstock.datasource.replica.url=" + RoutingDataSourceConfigTest.REPLICA_URL,
+        "beerstock.datasource.replica.username=sa",
+        "beerstock.datasource.replica.password=",
+        "beerstock.datasource.replica.lag-tolerance=1m",
+        "beerstock.stale-reads.latency-budget=1m"
+})
+public class RoutingDataSourceConfigTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:beerstock-replica;DB_CLOSE_DELAY=-1"
+            + ";INIT=RUNSCRIPT FROM 'classpath:replica-schema.sql'";
+
+    @Autowired
+    private BeerService beerService;
+
+    private final DataSource primaryDataSource = new DriverManagerDataSource("jdbc:h2:mem:beerstock", "sa", "");
+
+    private final DataSource replicaDataSource = new DriverManagerDataSource(REPLICA_URL, "sa", "");
+
+    @Test
+    void whenReplicaIsConfiguredThenReadsGoToTheReplicaAndWritesToThePrimary() throws Exception {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().id(null).name("Replicated").build().toBeerDTO();
+        BeerDTO createdBeerDTO = beerService.createBeer(beerDTO);
+        replicate();
+
+        new JdbcTemplate(replicaDataSource).update("update beer set quantity = 42 where name = ?", beerDTO.getName());
+
+        ReadYourWrites.Client previous = ReadYourWrites.bind(null, null);
+        try {
+            assertThat(beerService.findByName(beerDTO.getName()).getQuantity(), is(42));
+        } finally {
+            ReadYourWrites.restore(previous);
+        }
+        assertThat(beerService.increment(createdBeerDTO.getId(), 1).getQuantity(), is(beerDTO.getQuantity() + 1));
+    }
+
+    @Test
+    void whenClientReadsAllowingStaleRightAfterItsWriteThenTheReadGoesToThePrimary() throws Exception {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().id(null).name("Written").build().toBeerDTO();
+        beerService.createBeer(beerDTO);
+        replicate();
+        new JdbcTemplate(replicaDataSource).update("update beer set quantity = 42 where name = ?", beerDTO.getName());
+
+        SnapshotRead<BeerDTO> read = beerService.findByNameAllowingStale(beerDTO.getName(), Set.of());
+
+        assertThat(read.isStale(), is(false));
+        assertThat(read.getValue().getQuantity(), is(beerDTO.getQuantity()));
+    }
+
+    private void replicate() {
+        JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+        List<Object[]> rows = new JdbcTemplate(primaryDataSource).query(
+                "select id, name, brand_id, max, quantity, type from beer",
+                (resultSet, rowNum) -> new Object[]{resultSet.getLong(1), resultSet.getString(2), resultSet.getInt(3),
+                        resultSet.getInt(4), resultSet.getInt(5), resultSet.getString(6)});
+        replica.update("delete from beer");
+        replica.batchUpdate("insert into beer (id, name, brand_id, max, quantity, type) values (?, ?, ?, ?, ?, ?)", rows);
+    }
+}
@@ -0,0 +1,217 @@
+package one.digitalinnovation.beerstock.config;
+
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.ArchivedBeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerArchiveResultDTO;
+import one.digitalinnovation.beerstock.dto.BeerBatchLookupDTO;
+import one.digitalinnovation.beerstock.dto.BeerBatchResultDTO;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerFilterDTO;
+import one.digitalinnovation.beerstock.dto.WarehouseStockDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.BeerStockLevel;
+import one.digitalinnovation.beerstock.service.BeerArchiveService;
+import one.digitalinnovation.beerstock.service.BeerService;
+import one.digitalinnovation.beerstock.service.WarehouseStockService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.ExampleMatcher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:beerstock-shard-0;DB_CLOSE_DELAY=-1",
+        "beerstock.datasource.shards[0].url=jdbc:h2:mem:beerstock-shard-1;DB_CLOSE_DELAY=-1",
+        "beerstock.datasource.shards[0].username=sa",
+        "beerstock.datasource.shards[1].url=jdbc:h2:mem:beerstock-shard-2;DB_CLOSE_DELAY=-1",
+        "beerstock.datasource.shards[1].username=sa"
+})
+public class ShardingConfigTest {
+
+    private static final int SHARDS = 3;
+    private static final int BEERS = 30;
+
+    @Autowired
+    private BeerService beerService;
+
+    @Autowired
+    private BeerRepository beerRepository;
+
+    @Autowired
+    private WarehouseStockService warehouseStockService;
+
+    @Autowired
+    private BeerArchiveService beerArchiveService;
+
+    private final List<JdbcTemplate> shards = new ArrayList<>();
+    private final List<BeerDTO> createdBeers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        for (int shard = 0; shard < SHARDS; shard++) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(
+                    new DriverManagerDataSource("jdbc:h2:mem:beerstock-shard-" + shard, "sa", ""));
+            jdbcTemplate.update("delete from warehouse_stock");
+            jdbcTemplate.update("delete from beer");
+            jdbcTemplate.update("delete from archived_warehouse_stock");
+            jdbcTemplate.update("delete from archived_beer");
+            shards.add(jdbcTemplate);
+        }
+        for (int i = 0; i < BEERS; i++) {
+            createdBeers.add(beerService.createBeer(BeerDTOBuilder.builder()
+                    .id(null)
+                    .name("Beer " + i)
+                    .brand("Brand " + (i % 4))
+                    .quantity(i)
+                    .type(i % 2 == 0 ? BeerType.LAGER : BeerType.IPA)
+                    .build()
+                    .toBeerDTO()));
+        }
+    }
+
+    @Test
+    void whenBeersAreCreatedThenEachIsStoredOnlyOnTheShardEncodedInItsId() {
+        long stored = 0;
+        for (int shard = 0; shard < SHARDS; shard++) {
+            List<Long> ids = shards.get(shard).queryForList("select id from beer", Long.class);
+            assertThat(ids, is(not(empty())));
+            assertThat(ids.stream().map(id -> ShardContext.shardOf(id, SHARDS)).distinct().collect(Collectors.toList()),
+                    contains(shard));
+            stored += ids.size();
+        }
+        assertThat(stored, is((long) BEERS));
+    }
+
+    @Test
+    void whenBeerIsLookedUpByNameOrIdThenItsShardIsUsed() throws Exception {
+        BeerDTO beer = createdBeers.get(7);
+
+        assertThat(beerService.findByName(beer.getName()), is(equalTo(beer)));
+        assertThat(beerService.increment(beer.getId(), 1).getQuantity(), is(beer.getQuantity() + 1));
+        assertThat(beerRepository.existsById(beer.getId()), is(true));
+    }
+
+    @Test
+    void whenBeersAreListedThenEveryShardIsRead() {
+        assertThat(beerService.listAll(), hasSize(BEERS));
+        assertThat(beerRepository.count(), is((long) BEERS));
+    }
+
+    @Test
+    void whenPageIsQueriedThenShardResultsAreMergedInSortOrder() throws Exception {
+        List<String> expectedNames = createdBeers.stream()
+                .filter(beer -> beer.getType() == BeerType.LAGER)
+                .map(BeerDTO::getName)
+                .sorted(Comparator.reverseOrder())
+                .skip(5)
+                .limit(5)
+                .collect(Collectors.toList());
+
+        Page<BeerDTO> page = beerService.query(BeerFilterDTO.builder().type(BeerType.LAGER).build(),
+                PageRequest.of(1, 5, Sort.by(Sort.Direction.DESC, "name")));
+
+        assertThat(page.getTotalElements(), is((long) BEERS / 2));
+        assertThat(page.getContent().stream().map(BeerDTO::getName).collect(Collectors.toList()),
+                is(equalTo(expectedNames)));
+    }
+
+    @Test
+    void whenStockLevelsAreLoadedThenEveryShardIsRead() {
+        List<BeerStockLevel> levels = beerRepository.findStockLevels();
+
+        assertThat(levels, hasSize(BEERS));
+        assertThat(levels.stream().mapToLong(BeerStockLevel::getQuantity).sum(), is((long) BEERS * (BEERS - 1) / 2));
+    }
+
+    @Test
+    void whenWarehouseStockIsSetThenItIsStoredOnTheShardOfItsBeer() throws Exception {
+        BeerDTO beer = createdBeers.get(11);
+        int shard = ShardContext.shardOf(beer.getId(), SHARDS);
+
+        warehouseStockService.setStock(beer.getId(), "north", new WarehouseStockDTO(null, 50, 10));
+        warehouseStockService.setStock(beer.getId(), "south", new WarehouseStockDTO(null, 50, 20));
+        warehouseStockService.decrement(beer.getId(), "south", 5);
+
+        assertThat(shards.get(shard).queryForObject("select sum(quantity) from warehouse_stock", Long.class), is(25L));
+        assertThat(warehouseStockService.findByBeer(beer.getId()), hasSize(2));
+        assertThat(warehouseStockService.getTotal(beer.getId()).getQuantity(), is(25L));
+    }
+
+    @Test
+    void whenBatchIsLookedUpThenKeysAreSplitByShard() {
+        List<Long> ids = createdBeers.stream().limit(10).map(BeerDTO::getId).collect(Collectors.toList());
+        ids.add(-1L);
+        List<String> names = List.of("Beer 20", "Beer 21", "Beer 22", "Missing");
+
+        BeerBatchResultDTO result = beerService.findAll(new BeerBatchLookupDTO(ids, names));
+
+        assertThat(result.getFound(), hasSize(13));
+        assertThat(result.getMissingIds(), contains(-1L));
+        assertThat(result.getMissingNames(), contains("Missing"));
+    }
+
+    @Test
+    void whenInheritedRepositoryMethodsAreCalledThenTheyAreRoutedAcrossShards() {
+        Beer probe = new Beer();
+        probe.setType(BeerType.LAGER);
+        Example<Beer> lagers = Example.of(probe, ExampleMatcher.matching().withIgnorePaths("id", "max", "quantity"));
+
+        assertThat(beerRepository.findAll(lagers), hasSize(BEERS / 2));
+        assertThat(beerRepository.count(lagers), is((long) BEERS / 2));
+        assertThat(beerRepository.exists(lagers), is(true));
+        assertThat(beerRepository.findAll(lagers, PageRequest.of(1, 4, Sort.by("name"))).getTotalElements(), is((long) BEERS / 2));
+
+        List<Beer> doomed = beerRepository.findAllById(createdBeers.stream().limit(6).map(BeerDTO::getId)
+                .collect(Collectors.toList()));
+        beerRepository.deleteInBatch(doomed.subList(0, 3));
+        beerRepository.deleteAll(doomed.subList(3, 6));
+        assertThat(beerRepository.count(), is((long) BEERS - 6));
+
+        beerRepository.deleteAllInBatch();
+        assertThat(beerRepository.count(), is(0L));
+    }
+
+    @Test
+    void whenBeersAreArchivedOnEveryShardThenEachShardIsSweptAndLookupsReadEveryShard() throws Exception {
+        BeerDTO stocked = createdBeers.get(4);
+        int stockedShard = ShardContext.shardOf(stocked.getId(), SHARDS);
+        warehouseStockService.setStock(stocked.getId(), "north", new WarehouseStockDTO(null, 50, 10));
+        shards.forEach(shard -> shard.update(
+                "update beer set quantity = 0, out_of_stock_since = timestamp '2000-01-01 00:00:00' where quantity < 9"));
+
+        BeerArchiveResultDTO result = beerArchiveService.archiveOutOfStock(Duration.ofDays(30));
+
+        assertThat(result.getArchived(), is(9));
+        assertThat(result.getBatches(), is(SHARDS));
+        assertThat(beerRepository.count(), is((long) BEERS - 9));
+        assertThat(beerArchiveService.list(PageRequest.of(0, 4, Sort.by("name"))).getContent().stream()
+                .map(ArchivedBeerDTO::getName).collect(Collectors.toList()), contains("Beer 0", "Beer 1", "Beer 2", "Beer 3"));
+        assertThat(beerArchiveService.list(PageRequest.of(0, 4)).getTotalElements(), is(9L));
+        for (BeerDTO beer : createdBeers.subList(0, 9)) {
+            assertThat(beerArchiveService.findByName(beer.getName()).getId(), is(beer.getId()));
+        }
+        assertThat(shards.get(stockedShard).queryForObject("select count(*) from archived_warehouse_stock", Long.class), is(1L));
+
+        beerArchiveService.restore(stocked.getId());
+
+        assertThat(warehouseStockService.findByBeer(stocked.getId()), hasSize(1));
+        assertThat(warehouseStockService.getTotal(stocked.getId()).getQuantity(), is(10L));
+    }
+}
@@ -1,12 +1,21 @@
 package one.digitalinnovation.beerstock.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerBatchLookupDTO;
+import one.digitalinnovation.beerstock.dto.BeerBatchResultDTO;
 import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerFilterDTO;
 import one.digitalinnovation.beerstock.dto.QuantityDTO;
+import one.digitalinnovation.beerstock.enums.BeerField;
 import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
 import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.exception.BeerVersionMismatchException;
 import one.digitalinnovation.beerstock.exception.NegativeBeerStockException;
 import one.digitalinnovation.beerstock.service.BeerService;
+import one.digitalinnovation.beerstock.service.SnapshotRead;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,19 +24,31 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.servlet.view.json.MappingJackson2JsonView;
 
+import java.time.Instant;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static one.digitalinnovation.beerstock.utils.JsonConvertionUtils.asJsonString;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.core.Is.is;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -39,6 +60,8 @@ public class BeerControllerTest {
     private static final String BEER_API_SUBPATH_INCREMENT_URL = "/increment";
     private static final String BEER_API_SUBPATH_DECREMENT_URL = "/decrement";
     private static final long VALID_ID = 1L;
+    private static final MediaType APPLICATION_CBOR = MediaType.parseMediaType("application/cbor");
+    private static final MediaType APPLICATION_SMILE = MediaType.parseMediaType("application/x-jackson-smile");
 
     private MockMvc mockMvc;
 
@@ -74,6 +97,57 @@ public class BeerControllerTest {
                 .andExpect(jsonPath("$.type", is(beerDTO.getType().toString())));
     }
 
+    @Test
+    void whenPOSTIsCalledWithCborThenABeerIsCreatedAndReturnedAsCbor() throws Exception {
+        // given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+
+        // when
+        when(beerService.createBeer(beerDTO)).thenReturn(beerDTO);
+
+        // then
+        byte[] response = mockMvc.perform(post(BEER_API_URL_PATH)
+                        .contentType(APPLICATION_CBOR)
+                        .accept(APPLICATION_CBOR)
+                        .content(cborMapper.writeValueAsBytes(beerDTO)))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(cborMapper.readValue(response, BeerDTO.class), is(beerDTO));
+    }
+
+    @Test
+    void whenPATCHIsCalledWithSmileThenStatusOkIsReturnedAsSmile() throws Exception {
+        // given
+        QuantityDTO quantityDTO = QuantityDTO.builder().quantity(10).build();
+        BeerDTO beerDTO = BeerDTOBuilder.builder().quantity(20).build().toBeerDTO();
+        ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+
+        when(beerService.increment(VALID_ID, quantityDTO.getQuantity())).thenReturn(beerDTO);
+
+        byte[] response = mockMvc.perform(patch(BEER_API_URL_PATH + "/" + VALID_ID + BEER_API_SUBPATH_INCREMENT_URL)
+                        .contentType(APPLICATION_SMILE)
+                        .accept(APPLICATION_SMILE)
+                        .content(smileMapper.writeValueAsBytes(quantityDTO)))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(APPLICATION_SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertThat(smileMapper.readValue(response, BeerDTO.class), is(beerDTO));
+    }
+
+    @Test
+    void whenNoFormatIsRequestedThenJsonIsReturned() throws Exception {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        when(beerService.listAllAllowingStale(EnumSet.noneOf(BeerField.class))).thenReturn(SnapshotRead.fresh(Collections.singletonList(beerDTO)));
+
+        mockMvc.perform(get(BEER_API_URL_PATH))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0].name", is(beerDTO.getName())));
+    }
+
     @Test
     void whenPOSTIsCalledWithoutRequiredFieldThenAnErrorIsReturned() throws Exception {
         // given
@@ -92,7 +166,7 @@ public class BeerControllerTest {
         // given
         BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
 
-        when(beerService.findByName(beerDTO.getName())).thenReturn(beerDTO);
+        when(beerService.findByNameAllowingStale(beerDTO.getName(), EnumSet.noneOf(BeerField.class))).thenReturn(SnapshotRead.fresh(beerDTO));
 
         mockMvc.perform(get(BEER_API_URL_PATH+"/"+beerDTO.getName())
                 .contentType(MediaType.APPLICATION_JSON)
@@ -103,13 +177,28 @@ public class BeerControllerTest {
                 .andExpect(jsonPath("$.type", is(beerDTO.getType().toString())));
     }
 
+    @Test
+    void whenGETIsAnsweredFromTheSnapshotThenItIsMarkedAsStale() throws Exception {
+        // given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        when(beerService.findByNameAllowingStale(beerDTO.getName(), EnumSet.noneOf(BeerField.class)))
+                .thenReturn(SnapshotRead.stale(beerDTO, Instant.now().minusSeconds(30)));
+
+        mockMvc.perform(get(BEER_API_URL_PATH + "/" + beerDTO.getName()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.WARNING, containsString("Response is Stale")))
+                .andExpect(header().exists(HttpHeaders.AGE))
+                .andExpect(jsonPath("$.name", is(beerDTO.getName())));
+    }
+
     @Test
     void whenGETCalledWithValidNameThenAnErrorIsReturned() throws Exception {
         // given
         String name = "Invalaid Beer";
 
         //when
-        doThrow(BeerNotFoundException.class).when(beerService).findByName(name);
+        doThrow(BeerNotFoundException.class).when(beerService).findByNameAllowingStale(name, EnumSet.noneOf(BeerField.class));
 
         //then
         mockMvc.perform(get(BEER_API_URL_PATH+"/"+name)
@@ -123,8 +212,8 @@ public class BeerControllerTest {
         BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
 
         //when
-        when(beerService.listAll()).
-                thenReturn(Collections.singletonList(beerDTO));
+        when(beerService.listAllAllowingStale(EnumSet.noneOf(BeerField.class))).
+                thenReturn(SnapshotRead.fresh(Collections.singletonList(beerDTO)));
 
         //then
         mockMvc.perform(get(BEER_API_URL_PATH)
@@ -135,12 +224,39 @@ public class BeerControllerTest {
                 .andExpect(jsonPath("$[0].type", is(beerDTO.getType().toString())));;
     }
 
+    @Test
+    void whenGETListBeerCalledWithFieldsThenOnlyThoseFieldsAreReturned() throws Exception {
+        // given
+        BeerDTO projectedBeerDTO = BeerDTO.builder().id(VALID_ID).name("Brahma").quantity(10).build();
+
+        //when
+        when(beerService.listAllAllowingStale(EnumSet.of(BeerField.ID, BeerField.NAME, BeerField.QUANTITY))).
+                thenReturn(SnapshotRead.fresh(Collections.singletonList(projectedBeerDTO)));
+
+        //then
+        mockMvc.perform(get(BEER_API_URL_PATH)
+                        .param("fields", "id,name,quantity")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name", is(projectedBeerDTO.getName())))
+                .andExpect(jsonPath("$[0].quantity", is(projectedBeerDTO.getQuantity())))
+                .andExpect(content().string(not(containsString("brand"))));
+    }
+
+    @Test
+    void whenGETCalledWithUnknownFieldThenAnErrorIsReturned() throws Exception {
+        mockMvc.perform(get(BEER_API_URL_PATH + "/Brahma")
+                        .param("fields", "name,color")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void whenGETAEmptyListBeerCalledThenAnOkStatusIsReturned() throws Exception {
 
         //when
-        when(beerService.listAll()).
-                thenReturn(Collections.EMPTY_LIST);
+        when(beerService.listAllAllowingStale(EnumSet.noneOf(BeerField.class))).
+                thenReturn(SnapshotRead.fresh(Collections.emptyList()));
 
         //then
         mockMvc.perform(get(BEER_API_URL_PATH)
@@ -148,6 +264,88 @@ public class BeerControllerTest {
                 .andExpect(status().isOk());
     }
 
+    @Test
+    void whenGETQueryIsCalledWithFiltersThenAPageOfBeersIsReturned() throws Exception {
+        // given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerFilterDTO expectedFilter = BeerFilterDTO.builder()
+                .type(beerDTO.getType())
+                .brand(beerDTO.getBrand())
+                .maxQuantity(10)
+                .build();
+
+        //when
+        when(beerService.query(eq(expectedFilter), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(Collections.singletonList(beerDTO)));
+
+        //then
+        mockMvc.perform(get(BEER_API_URL_PATH + "/query")
+                        .param("type", beerDTO.getType().toString())
+                        .param("brand", beerDTO.getBrand())
+                        .param("maxQuantity", "10")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name", is(beerDTO.getName())))
+                .andExpect(jsonPath("$.totalElements", is(1)));
+    }
+
+    @Test
+    void whenGETQueryIsCalledWithInvalidFillRatioThenAnErrorIsReturned() throws Exception {
+        mockMvc.perform(get(BEER_API_URL_PATH + "/query")
+                        .param("minFillRatio", "1.5")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void whenGETQueryIsCalledWithInvertedRangeThenAnErrorIsReturned() throws Exception {
+        mockMvc.perform(get(BEER_API_URL_PATH + "/query")
+                        .param("minQuantity", "20")
+                        .param("maxQuantity", "10")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get(BEER_API_URL_PATH + "/query")
+                        .param("minFillRatio", "0.8")
+                        .param("maxFillRatio", "0.2")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void whenPOSTBatchIsCalledThenFoundAndMissingBeersAreReturned() throws Exception {
+        // given
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerBatchLookupDTO lookup = BeerBatchLookupDTO.builder()
+                .ids(Collections.singletonList(VALID_ID))
+                .names(Collections.singletonList("Invalid Beer"))
+                .build();
+
+        //when
+        when(beerService.findAll(lookup)).thenReturn(new BeerBatchResultDTO(
+                Collections.singletonList(beerDTO), Collections.emptyList(), Collections.singletonList("Invalid Beer")));
+
+        //then
+        mockMvc.perform(post(BEER_API_URL_PATH + "/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(lookup)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.found[0].name", is(beerDTO.getName())))
+                .andExpect(jsonPath("$.missingNames[0]", is("Invalid Beer")));
+    }
+
+    @Test
+    void whenPOSTBatchIsCalledWithTooManyIdsThenAnErrorIsReturned() throws Exception {
+        BeerBatchLookupDTO lookup = BeerBatchLookupDTO.builder()
+                .ids(LongStream.rangeClosed(1, BeerBatchLookupDTO.MAX_KEYS + 1).boxed().collect(Collectors.toList()))
+                .build();
+
+        mockMvc.perform(post(BEER_API_URL_PATH + "/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(lookup)))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void whenDELETECalledWithValidIdThenStatusNoContentIsReturned() throws Exception {
         // given
@@ -261,4 +459,35 @@ public class BeerControllerTest {
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(asJsonString(quantityDTO))).andExpect(status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    @Test
+    void whenPATCHIsCalledWithIfMatchThenStockIsChangedOnlyAtThatVersion() throws Exception {
+        QuantityDTO quantityDTO = QuantityDTO.builder().quantity(10).build();
+        BeerDTO beerDTO = BeerDTOBuilder.builder().quantity(20).version(4L).build().toBeerDTO();
+
+        when(beerService.increment(VALID_ID, quantityDTO.getQuantity(), 3L)).thenReturn(beerDTO);
+
+        mockMvc.perform(patch(BEER_API_URL_PATH + "/" + VALID_ID + BEER_API_SUBPATH_INCREMENT_URL)
+                        .header(HttpHeaders.IF_MATCH, "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(quantityDTO)))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(jsonPath("$.version", is(4)));
+    }
+
+    @Test
+    void whenPATCHIsCalledWithStaleIfMatchThenPreconditionFailedIsReturned() throws Exception {
+        QuantityDTO quantityDTO = QuantityDTO.builder().quantity(10).build();
+
+        doThrow(BeerVersionMismatchException.class)
+                .when(beerService)
+                .decrement(VALID_ID, quantityDTO.getQuantity(), 3L);
+
+        mockMvc.perform(patch(BEER_API_URL_PATH + "/" + VALID_ID + BEER_API_SUBPATH_DECREMENT_URL)
+                        .header(HttpHeaders.IF_MATCH, "W/\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(quantityDTO)))
+                .andExpect(status().isPreconditionFailed());
+    }
+}
@@ -0,0 +1,95 @@
+package one.digitalinnovation.beerstock.controller;
+
+import one.digitalinnovation.beerstock.config.StockPipelineProperties;
+import one.digitalinnovation.beerstock.dto.StockCommandDTO;
+import one.digitalinnovation.beerstock.dto.StockCommandStatusDTO;
+import one.digitalinnovation.beerstock.enums.StockCommandStatus;
+import one.digitalinnovation.beerstock.enums.StockOperation;
+import one.digitalinnovation.beerstock.service.StockCommandPipeline;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static one.digitalinnovation.beerstock.utils.JsonConvertionUtils.asJsonString;
+import static org.hamcrest.Matchers.endsWith;
+import static org.hamcrest.core.Is.is;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+public class StockCommandControllerTest {
+
+    private static final String STOCK_COMMANDS_URL = "/api/v1/beers/1/stock-commands";
+    private static final UUID COMMAND_ID = UUID.randomUUID();
+
+    private MockMvc mockMvc;
+
+    @Mock
+    private StockCommandPipeline stockCommandPipeline;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        StockPipelineProperties pipelineProperties = new StockPipelineProperties();
+        mockMvc = MockMvcBuilders.standaloneSetup(new StockCommandController(stockCommandPipeline, pipelineProperties))
+                .build();
+        when(stockCommandPipeline.submit(1L, StockOperation.INCREMENT, 5)).thenReturn(COMMAND_ID);
+    }
+
+    @Test
+    void whenRespondAsyncIsAmongOtherPreferencesThenTheCommandIsAcceptedWithoutWaiting() throws Exception {
+        when(stockCommandPipeline.getStatus(COMMAND_ID)).thenReturn(commandStatus(StockCommandStatus.PENDING));
+
+        mockMvc.perform(post(STOCK_COMMANDS_URL)
+                        .header("Prefer", "return=minimal, Respond-Async; foo=bar")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(new StockCommandDTO(StockOperation.INCREMENT, 5))))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", endsWith("/api/v1/beers/stock-commands/" + COMMAND_ID)));
+        verify(stockCommandPipeline, never()).await(any(), any());
+    }
+
+    @Test
+    void whenRespondAsyncComesWithAWaitThenTheCommandIsAwaitedThatLong() throws Exception {
+        when(stockCommandPipeline.await(COMMAND_ID, Duration.ofSeconds(2))).thenReturn(commandStatus(StockCommandStatus.APPLIED));
+
+        mockMvc.perform(post(STOCK_COMMANDS_URL)
+                        .header("Prefer", "respond-async, wait=2")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(new StockCommandDTO(StockOperation.INCREMENT, 5))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status", is(StockCommandStatus.APPLIED.toString())));
+    }
+
+    @Test
+    void whenWaitIsLongerThanTheSyncTimeoutThenOnlyTheSyncTimeoutIsAwaited() throws Exception {
+        when(stockCommandPipeline.await(COMMAND_ID, Duration.ofSeconds(5))).thenReturn(commandStatus(StockCommandStatus.PENDING));
+
+        mockMvc.perform(post(STOCK_COMMANDS_URL)
+                        .header("Prefer", "wait=600")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(new StockCommandDTO(StockOperation.INCREMENT, 5))))
+                .andExpect(status().isAccepted());
+    }
+
+    private static StockCommandStatusDTO commandStatus(StockCommandStatus status) {
+        return StockCommandStatusDTO.builder()
+                .id(COMMAND_ID)
+                .beerId(1L)
+                .operation(StockOperation.INCREMENT)
+                .quantity(5)
+                .status(status)
+                .build();
+    }
+}
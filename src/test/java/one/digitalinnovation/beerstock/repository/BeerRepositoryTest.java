@@ -0,0 +1,184 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerFilterDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.BeerField;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "one.digitalinnovation.beerstock.repository.RecordingStatementInspector")
+@Import(BrandDictionary.class)
+public class BeerRepositoryTest {
+
+    @Autowired
+    private BeerRepository beerRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        BeerType[] types = BeerType.values();
+        for (int i = 0; i < 70; i++) {
+            beerRepository.save(new Beer(null, "Beer " + i, "Brand " + (i % 5), 50, i % 50, types[i % types.length], null, null));
+        }
+        beerRepository.flush();
+        RecordingStatementInspector.clear();
+    }
+
+    @Test
+    void whenTypeBrandAndQuantityAreGivenThenOnlyMatchingBeersArePaged() {
+        BeerFilterDTO filter = BeerFilterDTO.builder().type(BeerType.IPA).brand("Brand 0").maxQuantity(30).build();
+
+        Page<Beer> page = beerRepository.findAll(BeerSpecifications.matching(filter), PageRequest.of(0, 2, Sort.by("id")));
+
+        assertThat(page.getTotalElements(), is(greaterThan(0L)));
+        assertThat(page.getContent(), everyItem(hasProperty("type", is(BeerType.IPA))));
+        assertThat(page.getContent(), everyItem(hasProperty("brand", is("Brand 0"))));
+        assertThat(page.getContent(), everyItem(hasProperty("quantity", lessThanOrEqualTo(30))));
+    }
+
+    @Test
+    void whenAnUnknownBrandIsFilteredThenNoBeerIsReturned() {
+        BeerFilterDTO filter = BeerFilterDTO.builder().brand("Unknown Brand").build();
+
+        assertThat(beerRepository.findAll(BeerSpecifications.matching(filter)), is(empty()));
+    }
+
+    @Test
+    void whenBeersAreSavedThenEachBrandIsStoredOnceAndSharedByItsBeers() {
+        entityManager.clear();
+
+        List<Beer> beers = beerRepository.findAll(BeerSpecifications.matching(BeerFilterDTO.builder().brand("Brand 1").build()));
+
+        assertThat(jdbcTemplate.queryForObject("select count(*) from brand", Integer.class), is(5));
+        assertThat(beers, hasSize(14));
+        assertThat(beers, everyItem(hasProperty("brand", is(sameInstance(beers.get(0).getBrand())))));
+    }
+
+    @Test
+    void whenFillRatioIsGivenThenOnlyBeersInsideTheRatioAreReturned() {
+        BeerFilterDTO filter = BeerFilterDTO.builder().minFillRatio(0.2).maxFillRatio(0.5).build();
+
+        List<Beer> beers = beerRepository.findAll(BeerSpecifications.matching(filter));
+
+        assertThat(beers, is(not(empty())));
+        assertThat(beers, everyItem(hasProperty("quantity", both(greaterThanOrEqualTo(10)).and(lessThanOrEqualTo(25)))));
+    }
+
+    @Test
+    void whenTypeBrandAndQuantityAreFilteredThenTheCompositeIndexIsUsed() {
+        beerRepository.findAll(BeerSpecifications.matching(BeerFilterDTO.builder()
+                .type(BeerType.IPA).brand("Brand 0").maxQuantity(10).build()));
+
+        assertThat(explainLastSelect(parameters("type", "'IPA'", "brand_id", brandId("Brand 0"))), containsString("IDX_BEER_TYPE_BRAND_QUANTITY"));
+    }
+
+    @Test
+    void whenOnlyBrandAndQuantityAreFilteredThenTheBrandIndexIsUsed() {
+        beerRepository.findAll(BeerSpecifications.matching(BeerFilterDTO.builder()
+                .brand("Brand 0").minQuantity(5).build()));
+
+        assertThat(explainLastSelect(parameters("brand_id", brandId("Brand 0"))), containsString("IDX_BEER_BRAND_QUANTITY"));
+    }
+
+    @Test
+    void whenOnlyQuantityIsFilteredThenTheQuantityIndexIsUsed() {
+        beerRepository.findAll(BeerSpecifications.matching(BeerFilterDTO.builder()
+                .maxQuantity(3).minFillRatio(0.01).build()));
+
+        assertThat(explainLastSelect(Collections.emptyMap()), containsString("IDX_BEER_QUANTITY"));
+    }
+
+    @Test
+    void whenStockLevelsAreLoadedThenEveryBeerIsReturnedWithItsBrandName() {
+        List<BeerStockLevel> levels = beerRepository.findStockLevels();
+
+        assertThat(levels, hasSize(70));
+        assertThat(levels.stream().map(BeerStockLevel::getBrand).distinct().count(), is(5L));
+        assertThat(levels.stream().mapToLong(BeerStockLevel::getQuantity).sum(),
+                is(beerRepository.findAll().stream().mapToLong(Beer::getQuantity).sum()));
+    }
+
+    @Test
+    void whenIdsAndNamesAreLookedUpThenBeersMatchingEitherAreReturned() {
+        Beer first = beerRepository.findByName("Beer 1").orElseThrow();
+
+        List<Beer> beers = beerRepository.findByIdInOrNameIn(Arrays.asList(first.getId(), -1L), Arrays.asList("Beer 2", "Unknown"));
+
+        assertThat(beers, containsInAnyOrder(hasProperty("name", is("Beer 1")), hasProperty("name", is("Beer 2"))));
+    }
+
+    @Test
+    void whenFieldsAreProjectedThenOnlyTheirColumnsAreSelected() {
+        List<BeerDTO> beers = beerRepository.findAllProjected(EnumSet.of(BeerField.ID, BeerField.NAME, BeerField.QUANTITY));
+
+        assertThat(beers, hasSize(70));
+        assertThat(beers.get(1), is(equalTo(new BeerDTO(beers.get(1).getId(), "Beer 1", null, null, 1, null, null))));
+        String selectClause = RecordingStatementInspector.lastSelect().split(" from ")[0];
+        assertThat(selectClause, not(containsString("brand")));
+        assertThat(selectClause, not(containsString("max")));
+    }
+
+    @Test
+    void whenFieldsAreProjectedByNameThenOnlyThoseFieldsAreFilled() {
+        BeerDTO beerDTO = beerRepository.findProjectedByName("Beer 3", EnumSet.of(BeerField.BRAND, BeerField.TYPE)).orElseThrow();
+
+        assertThat(beerDTO, is(equalTo(new BeerDTO(null, null, "Brand 3", null, null, BeerType.values()[3], null))));
+        assertThat(beerRepository.findProjectedByName("Unknown", EnumSet.of(BeerField.NAME)).isPresent(), is(false));
+    }
+
+    private String brandId(String brand) {
+        return String.valueOf(jdbcTemplate.queryForObject("select id from brand where name = ?", Integer.class, brand));
+    }
+
+    private static Map<String, String> parameters(String... columnsAndValues) {
+        Map<String, String> parameters = new HashMap<>();
+        for (int i = 0; i < columnsAndValues.length; i += 2) {
+            parameters.put(columnsAndValues[i], columnsAndValues[i + 1]);
+        }
+        return parameters;
+    }
+
+    /**
+     * Explains the last select with each placeholder replaced by the value given for the column it
+     * is compared with, since Hibernate does not keep the order in which the criteria were added.
+     */
+    private String explainLastSelect(Map<String, String> parametersByColumn) {
+        Matcher placeholder = Pattern.compile("\\.(\\w+)\\s*[<>=]+\\s*\\?").matcher(RecordingStatementInspector.lastSelect());
+        StringBuffer sql = new StringBuffer();
+        while (placeholder.find()) {
+            String value = parametersByColumn.get(placeholder.group(1));
+            assertThat("Value for column " + placeholder.group(1), value, is(notNullValue()));
+            placeholder.appendReplacement(sql, Matcher.quoteReplacement(placeholder.group().replace("?", value)));
+        }
+        placeholder.appendTail(sql);
+        return jdbcTemplate.queryForObject("EXPLAIN " + sql, String.class);
+    }
+}
@@ -0,0 +1,67 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.entity.Brand;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BrandDictionaryTest {
+
+    @Mock
+    private BrandRepository brandRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void whenUnknownBrandIsLookedUpAgainThenTheMissIsRemembered() {
+        BrandDictionary brandDictionary = new BrandDictionary(brandRepository, transactionManager, Duration.ofMinutes(1));
+        when(brandRepository.findByName("Unknown")).thenReturn(Optional.empty());
+
+        assertThat(brandDictionary.idOf("Unknown"), is(nullValue()));
+        assertThat(brandDictionary.idOf("Unknown"), is(nullValue()));
+
+        verify(brandRepository, times(1)).findByName("Unknown");
+        verify(brandRepository, never()).findAll();
+    }
+
+    @Test
+    void whenMissHasExpiredThenTheBrandIsLookedUpAgain() {
+        BrandDictionary brandDictionary = new BrandDictionary(brandRepository, transactionManager, Duration.ZERO);
+        when(brandRepository.findByName("Ambev")).thenReturn(Optional.empty(), Optional.of(new Brand(7, "Ambev")));
+
+        assertThat(brandDictionary.idOf("Ambev"), is(nullValue()));
+        assertThat(brandDictionary.idOf("Ambev"), is(7));
+        assertThat(brandDictionary.idOf("Ambev"), is(7));
+        assertThat(brandDictionary.nameOf(7), is("Ambev"));
+
+        verify(brandRepository, times(2)).findByName("Ambev");
+        verify(brandRepository, never()).findById(any());
+    }
+
+    @Test
+    void whenBrandIdIsUnknownThenOnlyThatBrandIsLoaded() {
+        BrandDictionary brandDictionary = new BrandDictionary(brandRepository, transactionManager, Duration.ofMinutes(1));
+        when(brandRepository.findById(3)).thenReturn(Optional.of(new Brand(3, "Heineken")));
+        when(brandRepository.findById(4)).thenReturn(Optional.empty());
+
+        assertThat(brandDictionary.nameOf(3), is("Heineken"));
+        assertThat(brandDictionary.idOf("Heineken"), is(3));
+        assertThrows(IllegalStateException.class, () -> brandDictionary.nameOf(4));
+
+        verify(brandRepository, never()).findByName(any());
+        verify(brandRepository, never()).findAll();
+    }
+}
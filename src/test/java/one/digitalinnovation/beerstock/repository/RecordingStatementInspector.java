@@ -0,0 +1,31 @@
+package one.digitalinnovation.beerstock.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class RecordingStatementInspector implements StatementInspector {
+
+    private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        statements.add(sql);
+        return sql;
+    }
+
+    public static void clear() {
+        statements.clear();
+    }
+
+    public static String lastSelect() {
+        for (int i = statements.size() - 1; i >= 0; i--) {
+            String sql = statements.get(i);
+            if (sql.startsWith("select")) {
+                return sql;
+            }
+        }
+        throw new IllegalStateException("No select statement was recorded");
+    }
+}
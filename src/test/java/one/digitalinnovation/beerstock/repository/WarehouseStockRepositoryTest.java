@@ -0,0 +1,61 @@
+package one.digitalinnovation.beerstock.repository;
+
+import one.digitalinnovation.beerstock.entity.WarehouseStock;
+import one.digitalinnovation.beerstock.entity.WarehouseStockId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+@DataJpaTest
+public class WarehouseStockRepositoryTest {
+
+    private static final WarehouseStockId NORTH = new WarehouseStockId(1L, "north");
+    private static final WarehouseStockId SOUTH = new WarehouseStockId(1L, "south");
+
+    @Autowired
+    private WarehouseStockRepository warehouseStockRepository;
+
+    @BeforeEach
+    void setUp() {
+        warehouseStockRepository.save(new WarehouseStock(NORTH, 50, 10));
+        warehouseStockRepository.save(new WarehouseStock(SOUTH, 20, 20));
+        warehouseStockRepository.save(new WarehouseStock(new WarehouseStockId(2L, "north"), 30, 5));
+        warehouseStockRepository.flush();
+    }
+
+    @Test
+    void whenMovementFitsTheWarehouseThenOnlyItsRowIsUpdated() {
+        assertThat(warehouseStockRepository.decrementQuantity(1L, "north", 4), is(1));
+        assertThat(warehouseStockRepository.incrementQuantity(1L, "north", 40), is(1));
+
+        assertThat(warehouseStockRepository.findById(NORTH).get().getQuantity(), is(46));
+        assertThat(warehouseStockRepository.findById(SOUTH).get().getQuantity(), is(20));
+    }
+
+    @Test
+    void whenMovementLeavesZeroToMaxThenNothingIsUpdated() {
+        assertThat(warehouseStockRepository.decrementQuantity(1L, "north", 11), is(0));
+        assertThat(warehouseStockRepository.incrementQuantity(1L, "south", 1), is(0));
+        assertThat(warehouseStockRepository.incrementQuantity(1L, "east", 1), is(0));
+
+        assertThat(warehouseStockRepository.findById(NORTH).get().getQuantity(), is(10));
+        assertThat(warehouseStockRepository.findById(SOUTH).get().getQuantity(), is(20));
+    }
+
+    @Test
+    void whenLocationIsReadForUpdateThenItsRowIsReturned() {
+        assertThat(warehouseStockRepository.findLockedById(NORTH).get().getQuantity(), is(10));
+        assertThat(warehouseStockRepository.findLockedById(new WarehouseStockId(1L, "east")).isPresent(), is(false));
+    }
+
+    @Test
+    void whenBeerIsRemovedThenAllItsWarehousesAreDeleted() {
+        assertThat(warehouseStockRepository.deleteByBeerId(1L), is(2));
+        assertThat(warehouseStockRepository.findByIdBeerIdOrderByIdWarehouse(1L), is(empty()));
+        assertThat(warehouseStockRepository.findByIdBeerIdOrderByIdWarehouse(2L), hasSize(1));
+    }
+}
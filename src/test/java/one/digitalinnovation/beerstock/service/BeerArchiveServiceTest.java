@@ -0,0 +1,174 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.config.BeerArchiveProperties;
+import one.digitalinnovation.beerstock.dto.ArchivedBeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerArchiveResultDTO;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.entity.WarehouseStock;
+import one.digitalinnovation.beerstock.entity.WarehouseStockId;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.exception.ArchivedBeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerAlreadyRegisteredException;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.BrandDictionary;
+import one.digitalinnovation.beerstock.repository.WarehouseStockRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@DataJpaTest
+@Import({BeerArchiveService.class, BeerArchiveProperties.class, BrandDictionary.class,
+        BeerArchiveServiceTest.BeerChanges.class})
+public class BeerArchiveServiceTest {
+
+    @Autowired
+    private BeerArchiveService beerArchiveService;
+
+    @Autowired
+    private BeerArchiveProperties archiveProperties;
+
+    @Autowired
+    private BeerRepository beerRepository;
+
+    @Autowired
+    private WarehouseStockRepository warehouseStockRepository;
+
+    @Autowired
+    private BeerChanges beerChanges;
+
+    @BeforeEach
+    void setUp() {
+        archiveProperties.setBatchSize(2);
+        beerChanges.events.clear();
+    }
+
+    @Test
+    void whenStockRunsOutThenBeerIsOutOfStockUntilRestocked() {
+        Beer beer = save("Brahma", 10, null);
+        assertThat(beer.getOutOfStockSince(), is(nullValue()));
+
+        beer.setQuantity(0);
+        beer = beerRepository.saveAndFlush(beer);
+        assertThat(beer.getOutOfStockSince(), is(notNullValue()));
+
+        beer.setQuantity(5);
+        beer = beerRepository.saveAndFlush(beer);
+        assertThat(beer.getOutOfStockSince(), is(nullValue()));
+    }
+
+    @Test
+    void whenBeerIsArchivedThenItLeavesBeerQueriesButCanBeLookedUp() throws Exception {
+        Beer beer = save("Brahma", 10, null);
+
+        ArchivedBeerDTO archivedBeerDTO = beerArchiveService.archive(beer.getId());
+
+        assertThat(archivedBeerDTO.getId(), is(beer.getId()));
+        assertThat(archivedBeerDTO.getBrand(), is("Ambev"));
+        assertThat(archivedBeerDTO.getArchivedAt(), is(notNullValue()));
+        assertThat(beerRepository.findById(beer.getId()).isPresent(), is(false));
+        assertThat(beerRepository.findAll(), is(empty()));
+        assertThat(beerArchiveService.findByName("Brahma").getId(), is(beer.getId()));
+        assertThat(beerArchiveService.list(PageRequest.of(0, 10)).getContent(), hasSize(1));
+        assertThat(beerChanges.events, contains(allOf(hasProperty("deletion", is(true)), hasProperty("archival", is(true)))));
+    }
+
+    @Test
+    void whenBeerIsArchivedThenItsWarehouseStockMovesWithItAndComesBackOnRestore() throws Exception {
+        Beer beer = save("Brahma", 10, null);
+        Beer other = save("Skol", 10, null);
+        warehouseStockRepository.save(new WarehouseStock(new WarehouseStockId(beer.getId(), "north"), 50, 10));
+        warehouseStockRepository.save(new WarehouseStock(new WarehouseStockId(beer.getId(), "south"), 20, 5));
+        warehouseStockRepository.saveAndFlush(new WarehouseStock(new WarehouseStockId(other.getId(), "north"), 30, 5));
+
+        beerArchiveService.archive(beer.getId());
+
+        assertThat(warehouseStockRepository.findByIdBeerIdOrderByIdWarehouse(beer.getId()), is(empty()));
+        assertThat(warehouseStockRepository.findByIdBeerIdOrderByIdWarehouse(other.getId()), hasSize(1));
+
+        beerArchiveService.restore(beer.getId());
+
+        assertThat(warehouseStockRepository.findByIdBeerIdOrderByIdWarehouse(beer.getId()), contains(
+                new WarehouseStock(new WarehouseStockId(beer.getId(), "north"), 50, 10),
+                new WarehouseStock(new WarehouseStockId(beer.getId(), "south"), 20, 5)));
+        assertThat(beerChanges.events.get(1).isArchival(), is(true));
+    }
+
+    @Test
+    void whenUnknownBeerIsArchivedThenAnExceptionIsThrown() {
+        assertThrows(BeerNotFoundException.class, () -> beerArchiveService.archive(Long.MAX_VALUE));
+        assertThrows(ArchivedBeerNotFoundException.class, () -> beerArchiveService.findByName("Brahma"));
+    }
+
+    @Test
+    void whenBeersAreArchivedByCriteriaThenOnlyThoseOutOfStockLongEnoughAreMovedInBatches() {
+        Instant longAgo = Instant.now().minus(Duration.ofDays(40));
+        save("Old 1", 0, longAgo);
+        save("Old 2", 0, longAgo);
+        save("Old 3", 0, longAgo);
+        save("Recent", 0, Instant.now().minus(Duration.ofDays(2)));
+        save("Stocked", 10, null);
+
+        BeerArchiveResultDTO result = beerArchiveService.archiveOutOfStock(Duration.ofDays(30));
+
+        assertThat(result.getArchived(), is(3));
+        assertThat(result.getBatches(), is(2));
+        assertThat(beerRepository.findAll(), containsInAnyOrder(hasProperty("name", is("Recent")), hasProperty("name", is("Stocked"))));
+        assertThat(beerArchiveService.list(PageRequest.of(0, 10)).getTotalElements(), is(3L));
+        assertThat(beerChanges.events, hasSize(3));
+    }
+
+    @Test
+    void whenArchivedBeerIsRestoredThenItComesBackWithItsIdAndAFreshOutOfStockDate() throws Exception {
+        Instant longAgo = Instant.now().minus(Duration.ofDays(40));
+        Beer beer = save("Brahma", 0, longAgo);
+        beerArchiveService.archive(beer.getId());
+
+        BeerDTO restoredBeerDTO = beerArchiveService.restore(beer.getId());
+
+        assertThat(restoredBeerDTO.getId(), is(beer.getId()));
+        assertThat(restoredBeerDTO.getName(), is("Brahma"));
+        assertThat(beerRepository.findById(beer.getId()).orElseThrow().getOutOfStockSince(), is(greaterThan(longAgo)));
+        assertThat(beerArchiveService.list(PageRequest.of(0, 10)).getTotalElements(), is(0L));
+        assertThat(beerChanges.events.get(1).isCreation(), is(true));
+    }
+
+    @Test
+    void whenNameWasTakenSinceArchivingThenRestoreIsRefused() throws Exception {
+        Beer beer = save("Brahma", 10, null);
+        beerArchiveService.archive(beer.getId());
+        save("Brahma", 20, null);
+
+        assertThrows(BeerAlreadyRegisteredException.class, () -> beerArchiveService.restore(beer.getId()));
+        assertThrows(ArchivedBeerNotFoundException.class, () -> beerArchiveService.restore(Long.MAX_VALUE));
+    }
+
+    private Beer save(String name, int quantity, Instant outOfStockSince) {
+        return beerRepository.saveAndFlush(new Beer(null, name, "Ambev", 50, quantity, BeerType.LAGER, null, outOfStockSince));
+    }
+
+    static class BeerChanges {
+
+        private final List<BeerChangedEvent> events = new ArrayList<>();
+
+        @EventListener
+        public void onBeerChanged(BeerChangedEvent event) {
+            events.add(event);
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.config.BeerImportProperties;
+import one.digitalinnovation.beerstock.dto.BeerImportRejectionDTO;
+import one.digitalinnovation.beerstock.dto.BeerImportResultDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.exception.InvalidBeerImportException;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import javax.validation.Validation;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BeerImportServiceTest {
+
+    private static final String HEADER = "name,brand,max,quantity,type\n";
+
+    @Mock
+    BeerRepository beerRepository;
+
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    BeerImportProperties importProperties;
+
+    BeerImportService beerImportService;
+
+    private final AtomicLong ids = new AtomicLong();
+
+    @BeforeEach
+    void setUp() {
+        importProperties = new BeerImportProperties();
+        beerImportService = new BeerImportService(beerRepository, eventPublisher,
+                Validation.buildDefaultValidatorFactory().getValidator(), importProperties);
+    }
+
+    @Test
+    void whenFileIsImportedThenNewBeersAreCreatedAndExistingOnesUpdatedByName() throws Exception {
+        Beer existing = new Beer(1L, "Brahma", "Ambev", 50, 10, BeerType.LAGER, 0L, null);
+        Beer unchanged = new Beer(2L, "Skol", "Ambev", 50, 10, BeerType.LAGER, 0L, null);
+        when(beerRepository.findByNameIn(anyCollection())).thenReturn(List.of(existing, unchanged));
+        when(beerRepository.saveAll(any())).then(invocation -> assignIds(invocation.getArgument(0)));
+
+        BeerImportResultDTO result = beerImportService.importCsv(csv(HEADER
+                + "Brahma,Ambev,50,20,LAGER\n"
+                + "Skol,Ambev,50,10,lager\n"
+                + "\"Stout, \"\"Extra\"\"\",Guinness,100,30,STOUT\n"));
+
+        assertThat(result, is(equalTo(new BeerImportResultDTO(3, 1, 1, 1, 0, Collections.emptyList()))));
+        ArgumentCaptor<BeerChangedEvent> events = ArgumentCaptor.forClass(BeerChangedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertThat(events.getAllValues().get(0).getPrevious().getQuantity(), is(10));
+        assertThat(events.getAllValues().get(0).getCurrent().getQuantity(), is(20));
+        assertThat(events.getAllValues().get(1).isCreation(), is(true));
+        assertThat(events.getAllValues().get(1).getCurrent().getName(), is("Stout, \"Extra\""));
+    }
+
+    @Test
+    void whenRowsAreInvalidThenTheyAreRejectedWithTheirLineAndTheRestIsImported() throws Exception {
+        when(beerRepository.findByNameIn(anyCollection())).thenReturn(Collections.emptyList());
+        when(beerRepository.saveAll(any())).then(invocation -> assignIds(invocation.getArgument(0)));
+
+        BeerImportResultDTO result = beerImportService.importCsv(csv(HEADER
+                + "Brahma,Ambev,fifty,20,LAGER\n"
+                + "Skol,Ambev,50,20,PILSEN\n"
+                + "\"Multi\nline\",Ambev,50,200,LAGER\n"
+                + "Colorado,Ambev\n"
+                + "Guinness,Guinness,100,30,STOUT\n"));
+
+        assertThat(result.getRows(), is(5L));
+        assertThat(result.getCreated(), is(1L));
+        assertThat(result.getRejected(), is(4L));
+        assertThat(result.getRejections().stream().map(BeerImportRejectionDTO::getLine).collect(Collectors.toList()),
+                contains(2L, 3L, 4L, 6L));
+        assertThat(result.getRejections().get(2).getReason(), org.hamcrest.Matchers.startsWith("quantity "));
+    }
+
+    @Test
+    void whenFileIsLargerThanABatchThenItIsUpsertedInBatches() throws Exception {
+        importProperties.setBatchSize(2);
+        importProperties.setMaxReportedRejections(1);
+        when(beerRepository.findByNameIn(anyCollection())).thenReturn(Collections.emptyList());
+        when(beerRepository.saveAll(any())).then(invocation -> assignIds(invocation.getArgument(0)));
+        StringBuilder file = new StringBuilder(HEADER);
+        for (int i = 0; i < 5; i++) {
+            file.append("Beer ").append(i).append(",Brand,50,10,IPA\n");
+        }
+        file.append("Invalid,Brand,50,10,\nInvalid,Brand,50,10,\n");
+
+        BeerImportResultDTO result = beerImportService.importCsv(csv(file.toString()));
+
+        assertThat(result.getCreated(), is(5L));
+        assertThat(result.getRejected(), is(2L));
+        assertThat(result.getRejections(), hasSize(1));
+        verify(beerRepository, times(3)).saveAll(any());
+    }
+
+    @Test
+    void whenBatchConflictsThenOnlyTheConflictingRowsAreRejected() throws Exception {
+        when(beerRepository.findByNameIn(anyCollection())).thenReturn(Collections.emptyList());
+        when(beerRepository.saveAll(any())).thenThrow(new DataIntegrityViolationException("duplicate name"));
+        when(beerRepository.save(any(Beer.class))).then(invocation -> {
+            Beer beer = invocation.getArgument(0);
+            if (beer.getName().equals("Skol")) {
+                throw new DataIntegrityViolationException("duplicate name");
+            }
+            return assignIds(List.of(beer)).get(0);
+        });
+
+        BeerImportResultDTO result = beerImportService.importCsv(csv(HEADER
+                + "Brahma,Ambev,50,20,LAGER\n"
+                + "Skol,Ambev,50,20,LAGER\n"));
+
+        assertThat(result.getCreated(), is(1L));
+        assertThat(result.getRejections(), hasSize(1));
+        assertThat(result.getRejections().get(0).getLine(), is(3L));
+    }
+
+    @Test
+    void whenNameIsRepeatedThenTheLastRowWinsAndTheSupersededRowsShareItsOutcome() throws Exception {
+        Beer unchanged = new Beer(1L, "Skol", "Ambev", 50, 10, BeerType.LAGER, 0L, null);
+        when(beerRepository.findByNameIn(anyCollection())).thenReturn(List.of(unchanged));
+        when(beerRepository.saveAll(any())).then(invocation -> assignIds(invocation.getArgument(0)));
+
+        BeerImportResultDTO result = beerImportService.importCsv(csv(HEADER
+                + "Brahma,Ambev,50,10,LAGER\n"
+                + "Skol,Ambev,50,30,LAGER\n"
+                + "Brahma,Ambev,50,20,LAGER\n"
+                + "Skol,Ambev,50,10,LAGER\n"));
+
+        assertThat(result, is(equalTo(new BeerImportResultDTO(4, 2, 0, 2, 0, Collections.emptyList()))));
+        ArgumentCaptor<BeerChangedEvent> events = ArgumentCaptor.forClass(BeerChangedEvent.class);
+        verify(eventPublisher).publishEvent(events.capture());
+        assertThat(events.getValue().isCreation(), is(true));
+        assertThat(events.getValue().getCurrent().getQuantity(), is(20));
+    }
+
+    @Test
+    void whenHeaderMissesAColumnThenAnExceptionShouldBeThrown() {
+        assertThrows(InvalidBeerImportException.class,
+                () -> beerImportService.importCsv(csv("name,brand,max,type\nBrahma,Ambev,50,LAGER\n")));
+        verifyNoInteractions(beerRepository);
+    }
+
+    @Test
+    void whenQuotedFieldIsNeverClosedThenTheFileIsRejectedOnceTheFieldIsTooLong() {
+        importProperties.setMaxFieldLength(10);
+
+        InvalidBeerImportException exception = assertThrows(InvalidBeerImportException.class,
+                () -> beerImportService.importCsv(csv(HEADER + "\"Brahma,Ambev,50,10,LAGER\nSkol,Ambev,50,10,LAGER\n")));
+
+        assertThat(exception.getMessage(), containsString("line 2"));
+        verifyNoInteractions(beerRepository);
+    }
+
+    @Test
+    void whenRecordIsTooLongThenTheFileIsRejected() {
+        importProperties.setMaxRecordLength(40);
+
+        assertThrows(InvalidBeerImportException.class,
+                () -> beerImportService.importCsv(csv(HEADER + "Brahma,Ambev,50,10,LAGER,,,,,,,,,,,,,,,,,,,,\n")));
+        verifyNoInteractions(beerRepository);
+    }
+
+    @Test
+    void whenQuotedFieldIsUnterminatedThenTheFileIsRejected() {
+        assertThrows(InvalidBeerImportException.class,
+                () -> beerImportService.importCsv(csv(HEADER + "Brahma,\"Ambev,50,10,LAGER\n")));
+        verifyNoInteractions(beerRepository);
+    }
+
+    private List<Beer> assignIds(Iterable<Beer> beers) {
+        List<Beer> saved = new ArrayList<>();
+        for (Beer beer : beers) {
+            if (beer.getId() == null) {
+                beer.setId(ids.incrementAndGet() + 100);
+            }
+            saved.add(beer);
+        }
+        return saved;
+    }
+
+    private static InputStream csv(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,135 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerSearchHitDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.exception.InvalidSearchLimitException;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BeerSearchServiceTest {
+
+    private static final BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+    @Mock
+    BeerRepository beerRepository;
+
+    @InjectMocks
+    BeerSearchService beerSearchService;
+
+    private final BeerDTO heineken = BeerDTOBuilder.builder().id(1L).name("Heineken").brand("Heineken")
+            .quantity(30).type(BeerType.LAGER).build().toBeerDTO();
+    private final BeerDTO witbier = BeerDTOBuilder.builder().id(2L).name("Witbier").brand("Hoegaarden")
+            .quantity(5).type(BeerType.WITBIER).build().toBeerDTO();
+    private final BeerDTO brahma = BeerDTOBuilder.builder().id(3L).name("Brahma").brand("Ambev")
+            .quantity(10).type(BeerType.LAGER).build().toBeerDTO();
+
+    @Test
+    void whenNameIsMisspelledThenTheClosestBeerIsReturnedFirst() throws InvalidSearchLimitException {
+        indexBeers(heineken, witbier, brahma);
+
+        List<BeerSearchHitDTO> hits = beerSearchService.search("heinekn", null, null, null, 10);
+
+        assertThat(hits, is(not(empty())));
+        assertThat(hits.get(0).getBeer(), is(equalTo(heineken)));
+    }
+
+    @Test
+    void whenWordsAreSplitThenTheBeerIsStillFound() throws InvalidSearchLimitException {
+        indexBeers(heineken, witbier, brahma);
+
+        List<BeerSearchHitDTO> hits = beerSearchService.search("wit bier", null, null, null, 10);
+
+        assertThat(hits.get(0).getBeer(), is(equalTo(witbier)));
+    }
+
+    @Test
+    void whenBrandIsGivenThenItsBeersAreReturned() throws InvalidSearchLimitException {
+        indexBeers(heineken, witbier, brahma);
+
+        List<BeerSearchHitDTO> hits = beerSearchService.search("ambev", null, null, null, 10);
+
+        assertThat(hits.get(0).getBeer(), is(equalTo(brahma)));
+    }
+
+    @Test
+    void whenFiltersAreGivenThenNonMatchingBeersAreExcluded() throws InvalidSearchLimitException {
+        indexBeers(heineken, witbier, brahma);
+
+        assertThat(beerSearchService.search("heinekn", BeerType.WITBIER, null, null, 10), is(empty()));
+        assertThat(beerSearchService.search("heinekn", null, null, 20, 10), is(empty()));
+        assertThat(beerSearchService.search("heinekn", BeerType.LAGER, 20, null, 10), hasSize(1));
+    }
+
+    @Test
+    void whenBeerChangesThenTheIndexIsUpdatedIncrementally() throws InvalidSearchLimitException {
+        indexBeers();
+
+        beerSearchService.onBeerChanged(BeerChangedEvent.created(heineken));
+        assertThat(beerSearchService.search("heineken", null, null, null, 10), hasSize(1));
+
+        BeerDTO soldOut = BeerDTOBuilder.builder().id(1L).name("Heineken").brand("Heineken")
+                .quantity(0).type(BeerType.LAGER).build().toBeerDTO();
+        beerSearchService.onBeerChanged(BeerChangedEvent.updated(heineken, soldOut));
+        assertThat(beerSearchService.search("heineken", null, 1, null, 10), is(empty()));
+
+        beerSearchService.onBeerChanged(BeerChangedEvent.deleted(soldOut));
+        assertThat(beerSearchService.search("heineken", null, null, null, 10), is(empty()));
+    }
+
+    @Test
+    void whenQueryIsUnrelatedThenNothingIsReturned() throws InvalidSearchLimitException {
+        indexBeers(heineken, witbier, brahma);
+
+        assertThat(beerSearchService.search("xyz", null, null, null, 10), is(empty()));
+        assertThat(beerSearchService.search("  ", null, null, null, 10), is(empty()));
+    }
+
+    @Test
+    void whenLimitIsOutOfRangeThenAnExceptionIsThrown() {
+        indexBeers(heineken);
+
+        assertThrows(InvalidSearchLimitException.class,
+                () -> beerSearchService.search("heineken", null, null, null, 0));
+        assertThrows(InvalidSearchLimitException.class,
+                () -> beerSearchService.search("heineken", null, null, null, BeerSearchService.MAX_RESULTS + 1));
+    }
+
+    @Test
+    void whenBeerChangesWhileTheIndexIsBuiltThenTheChangeIsKept() throws InvalidSearchLimitException {
+        when(beerRepository.findAll()).thenAnswer(invocation -> {
+            beerSearchService.onBeerChanged(BeerChangedEvent.created(witbier));
+            return Collections.singletonList(beerMapper.toModel(heineken));
+        });
+
+        beerSearchService.buildIndex();
+
+        assertThat(beerSearchService.search("heineken", null, null, null, 10), hasSize(1));
+        assertThat(beerSearchService.search("witbier", null, null, null, 10), hasSize(1));
+    }
+
+    private void indexBeers(BeerDTO... beers) {
+        when(beerRepository.findAll()).thenReturn(Arrays.stream(beers)
+                .map(beerMapper::toModel)
+                .collect(Collectors.toList()));
+        beerSearchService.buildIndex();
+    }
+}
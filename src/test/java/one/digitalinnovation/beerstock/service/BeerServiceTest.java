@@ -1,21 +1,45 @@
 package one.digitalinnovation.beerstock.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.config.StockRetryProperties;
+import one.digitalinnovation.beerstock.config.SyntheticTraffic;
+import one.digitalinnovation.beerstock.dto.BeerBatchLookupDTO;
+import one.digitalinnovation.beerstock.dto.BeerBatchResultDTO;
 import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerFilterDTO;
+import one.digitalinnovation.beerstock.dto.StockCommandDTO;
 import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.BeerField;
+import one.digitalinnovation.beerstock.enums.StockOperation;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
 import one.digitalinnovation.beerstock.exception.BeerAlreadyRegisteredException;
+import one.digitalinnovation.beerstock.exception.BeerDatabaseUnavailableException;
 import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerStockConflictException;
 import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.exception.BeerVersionMismatchException;
+import one.digitalinnovation.beerstock.exception.InvalidBeerSortException;
 import one.digitalinnovation.beerstock.exception.NegativeBeerStockException;
 import one.digitalinnovation.beerstock.mapper.BeerMapper;
 import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Optional;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -34,9 +58,29 @@ public class BeerServiceTest {
     @Mock
     BeerRepository beerRepository;
 
-    @InjectMocks
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    @Mock
+    BeerSnapshotService beerSnapshotService;
+
+    MeterRegistry meterRegistry;
+
     BeerService beerService;
 
+    @BeforeEach
+    void setUp() {
+        StockRetryProperties stockRetryProperties = new StockRetryProperties();
+        stockRetryProperties.setMaxAttempts(3);
+        stockRetryProperties.setInitialBackoff(Duration.ofMillis(1));
+        meterRegistry = new SimpleMeterRegistry();
+        beerService = new BeerService(beerRepository, eventPublisher, transactionManager, stockRetryProperties, meterRegistry,
+                beerSnapshotService);
+    }
+
     @Test
     void whenBeerInformedThenItShouldBeCreated() throws BeerAlreadyRegisteredException {
         //Inicializando as entidades
@@ -53,7 +97,7 @@ public class BeerServiceTest {
         assertThat(beerOutput.getId(), is(equalTo(beerDTO.getId())));
         assertThat(beerOutput.getName(), is(equalTo(beerDTO.getName())));
         assertThat(beerOutput, is(equalTo(beerDTO)));
-
+        verify(eventPublisher).publishEvent(any(BeerChangedEvent.class));
     }
 
     @Test
@@ -94,6 +138,43 @@ public class BeerServiceTest {
         assertThrows(BeerNotFoundException.class, () -> beerService.findByName(name));
     }
 
+    @Test
+    void whenBatchOfIdsAndNamesIsGivenThenFoundAndMissingBeersAreReturnedWithOneQuery() {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer beer = beerMapper.toModel(beerDTO);
+        BeerBatchLookupDTO lookup = BeerBatchLookupDTO.builder()
+                .ids(Arrays.asList(beer.getId(), INVALID_ID))
+                .names(Arrays.asList(beer.getName(), "Invalid beer name"))
+                .build();
+
+        when(beerRepository.findByIdInOrNameIn(any(), any())).thenReturn(Collections.singletonList(beer));
+
+        BeerBatchResultDTO result = beerService.findAll(lookup);
+
+        assertThat(result.getFound(), is(equalTo(Collections.singletonList(beerDTO))));
+        assertThat(result.getMissingIds(), is(equalTo(Collections.singletonList(INVALID_ID))));
+        assertThat(result.getMissingNames(), is(equalTo(Collections.singletonList("Invalid beer name"))));
+        verify(beerRepository, times(1)).findByIdInOrNameIn(any(), any());
+        verifyNoMoreInteractions(beerRepository);
+    }
+
+    @Test
+    void whenBatchOfNamesOnlyIsGivenThenBeersAreLookedUpByName() {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer beer = beerMapper.toModel(beerDTO);
+        BeerBatchLookupDTO lookup = BeerBatchLookupDTO.builder()
+                .names(Collections.singletonList(beer.getName()))
+                .build();
+
+        when(beerRepository.findByNameIn(any())).thenReturn(Collections.singletonList(beer));
+
+        BeerBatchResultDTO result = beerService.findAll(lookup);
+
+        assertThat(result.getFound(), is(equalTo(Collections.singletonList(beerDTO))));
+        assertThat(result.getMissingIds(), is(empty()));
+        assertThat(result.getMissingNames(), is(empty()));
+    }
+
     @Test
     void whenListBeerIsCalledReturnAListOfAllBeers() {
         BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
@@ -108,6 +189,25 @@ public class BeerServiceTest {
         assertThat(listAllDTO.get(0), is(equalTo(beerDTO)));
     }
 
+    @Test
+    void whenListBeerIsCalledWithFieldsThenOnlyTheProjectionIsRead() {
+        BeerDTO projectedBeerDTO = BeerDTO.builder().id(1L).name("Brahma").quantity(10).build();
+        EnumSet<BeerField> fields = EnumSet.of(BeerField.ID, BeerField.NAME, BeerField.QUANTITY);
+
+        when(beerRepository.findAllProjected(fields)).thenReturn(Collections.singletonList(projectedBeerDTO));
+
+        var listAllDTO = beerService.listAll(fields);
+        assertThat(listAllDTO, is(equalTo(Collections.singletonList(projectedBeerDTO))));
+        verify(beerRepository, never()).findAll();
+    }
+
+    @Test
+    void whenQueryIsSortedByBrandThenAnExceptionShouldBeThrown() {
+        assertThrows(InvalidBeerSortException.class, () -> beerService.query(BeerFilterDTO.builder().build(),
+                PageRequest.of(0, 10, Sort.by("name", "brand"))));
+        verifyNoInteractions(beerRepository);
+    }
+
     @Test
     void whenListBeerIsCalledReturnAEmptyList() {
 
@@ -131,6 +231,7 @@ public class BeerServiceTest {
 
         verify(beerRepository, times(1)).findById(beer.getId());
         verify(beerRepository, times(1)).deleteById(beer.getId());
+        verify(eventPublisher, times(1)).publishEvent(BeerChangedEvent.deleted(beerDTO));
     }
 
     @Test
@@ -151,7 +252,7 @@ public class BeerServiceTest {
 
         when(beerRepository.findById(expectedBear.getId()))
                 .thenReturn(Optional.of(expectedBear));
-        when(beerRepository.save(expectedBear))
+        when(beerRepository.saveAndFlush(expectedBear))
                 .thenReturn(expectedBear);
 
         int quantityToIncrement = 10;
@@ -198,7 +299,7 @@ public class BeerServiceTest {
 
         when(beerRepository.findById(expectedBear.getId()))
                 .thenReturn(Optional.of(expectedBear));
-        when(beerRepository.save(expectedBear))
+        when(beerRepository.saveAndFlush(expectedBear))
                 .thenReturn(expectedBear);
 
 
@@ -236,4 +337,114 @@ public class BeerServiceTest {
         assertThrows(BeerNotFoundException.class, () -> beerService.decrement(INVALID_ID,
                 quantityToDecrement));
     }
+
+    @Test
+    void whenStockCommandsAreAppliedThenTheBeerIsWrittenOnceWithTheirNetChange() throws Exception {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().quantity(10).max(50).build().toBeerDTO();
+        Beer expectedBear = beerMapper.toModel(beerDTO);
+
+        when(beerRepository.findById(expectedBear.getId()))
+                .thenReturn(Optional.of(expectedBear));
+        when(beerRepository.saveAndFlush(expectedBear))
+                .thenReturn(expectedBear);
+
+        List<Object> outcomes = beerService.applyStockCommands(expectedBear.getId(), Arrays.asList(
+                new StockCommandDTO(StockOperation.INCREMENT, 30),
+                new StockCommandDTO(StockOperation.INCREMENT, 20),
+                new StockCommandDTO(StockOperation.DECREMENT, 15),
+                new StockCommandDTO(StockOperation.DECREMENT, 40)));
+
+        assertThat(((BeerDTO) outcomes.get(0)).getQuantity(), is(40));
+        assertThat(outcomes.get(1), is(instanceOf(BeerStockExceededException.class)));
+        assertThat(((BeerDTO) outcomes.get(2)).getQuantity(), is(25));
+        assertThat(outcomes.get(3), is(instanceOf(NegativeBeerStockException.class)));
+        assertThat(expectedBear.getQuantity(), is(25));
+        verify(beerRepository, times(1)).findById(expectedBear.getId());
+        verify(beerRepository, times(1)).saveAndFlush(expectedBear);
+        verify(eventPublisher, times(1)).publishEvent(any(BeerChangedEvent.class));
+    }
+
+    @Test
+    void whenStockChangeConflictsThenItIsRetriedOnAFreshBeer() throws Exception {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer staleBeer = beerMapper.toModel(beerDTO);
+        Beer freshBeer = beerMapper.toModel(BeerDTOBuilder.builder().quantity(20).build().toBeerDTO());
+
+        when(beerRepository.findById(beerDTO.getId()))
+                .thenReturn(Optional.of(staleBeer), Optional.of(freshBeer));
+        when(beerRepository.saveAndFlush(any(Beer.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Beer.class, beerDTO.getId()))
+                .then(invocation -> invocation.getArgument(0));
+
+        BeerDTO incrementedBeerDTO = beerService.increment(beerDTO.getId(), 10);
+
+        assertThat(incrementedBeerDTO.getQuantity(), is(30));
+        assertThat(meterRegistry.counter("beerstock.stock.conflicts", "operation", "increment").count(), is(1.0));
+        assertThat(meterRegistry.counter("beerstock.stock.retries", "operation", "increment").count(), is(1.0));
+        verify(eventPublisher, times(1)).publishEvent(any(BeerChangedEvent.class));
+    }
+
+    @Test
+    void whenStockChangeIsSyntheticThenItIsNotCounted() throws Exception {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        when(beerRepository.findById(beerDTO.getId())).thenReturn(Optional.of(beerMapper.toModel(beerDTO)));
+        when(beerRepository.saveAndFlush(any(Beer.class))).then(invocation -> invocation.getArgument(0));
+
+        boolean synthetic = SyntheticTraffic.begin();
+        try {
+            beerService.increment(beerDTO.getId(), 10);
+        } finally {
+            SyntheticTraffic.restore(synthetic);
+        }
+
+        assertThat(meterRegistry.counter("beerstock.stock.changes", "operation", "increment").count(), is(0.0));
+    }
+
+    @Test
+    void whenStockChangeKeepsConflictingThenRetriesStopAtTheAttemptLimit() {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+
+        when(beerRepository.findById(beerDTO.getId()))
+                .then(invocation -> Optional.of(beerMapper.toModel(beerDTO)));
+        when(beerRepository.saveAndFlush(any(Beer.class)))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Beer.class, beerDTO.getId()));
+
+        assertThrows(BeerStockConflictException.class, () -> beerService.decrement(beerDTO.getId(), 5));
+        verify(beerRepository, times(3)).saveAndFlush(any(Beer.class));
+        assertThat(meterRegistry.counter("beerstock.stock.retries.exhausted", "operation", "decrement").count(), is(1.0));
+    }
+
+    @Test
+    void whenExpectedVersionIsStaleThenStockIsNotChanged() {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().version(3L).build().toBeerDTO();
+        Beer beer = beerMapper.toModel(beerDTO);
+        beer.setVersion(4L);
+
+        when(beerRepository.findById(beerDTO.getId())).thenReturn(Optional.of(beer));
+
+        assertThrows(BeerVersionMismatchException.class, () -> beerService.increment(beerDTO.getId(), 5, 3L));
+        verify(beerRepository, never()).saveAndFlush(any(Beer.class));
+    }
+
+    @Test
+    void whenExpectedVersionConflictsOnFlushThenItIsReportedInsteadOfRetried() {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer beer = beerMapper.toModel(beerDTO);
+        beer.setVersion(3L);
+
+        when(beerRepository.findById(beerDTO.getId())).thenReturn(Optional.of(beer));
+        when(beerRepository.saveAndFlush(beer))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Beer.class, beerDTO.getId()));
+
+        assertThrows(BeerVersionMismatchException.class, () -> beerService.decrement(beerDTO.getId(), 5, 3L));
+        verify(beerRepository, times(1)).saveAndFlush(beer);
+    }
+
+    @Test
+    void whenDatabaseIsDegradedThenStockChangesFailFast() {
+        when(beerSnapshotService.isDegraded()).thenReturn(true);
+
+        assertThrows(BeerDatabaseUnavailableException.class, () -> beerService.increment(1L, 5));
+        verifyNoInteractions(beerRepository, transactionManager);
+    }
 }
@@ -0,0 +1,180 @@
+package one.digitalinnovation.beerstock.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.config.StaleReadProperties;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BeerSnapshotServiceTest {
+
+    private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Mock
+    BeerRepository beerRepository;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    MutableClock clock;
+
+    BeerDTO beerDTO;
+
+    BeerSnapshotService beerSnapshotService;
+
+    @BeforeEach
+    void setUp() {
+        StaleReadProperties properties = new StaleReadProperties();
+        properties.setFailureThreshold(2);
+        properties.setLatencyBudget(Duration.ofMillis(50));
+        properties.setOpenDuration(Duration.ofSeconds(10));
+        clock = new MutableClock(START);
+        beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        Beer beer = BeerMapper.INSTANCE.toModel(beerDTO);
+        when(beerRepository.findAll()).thenReturn(Collections.singletonList(beer));
+        beerSnapshotService = new BeerSnapshotService(beerRepository, transactionManager, properties,
+                new SimpleMeterRegistry(), clock);
+        beerSnapshotService.load();
+    }
+
+    @AfterEach
+    void tearDown() {
+        beerSnapshotService.stop();
+    }
+
+    @Test
+    void whenDatabaseReadsKeepFailingThenTheCircuitOpensAndTheSnapshotAnswers() throws Exception {
+        AtomicInteger databaseReads = new AtomicInteger();
+        clock.advance(Duration.ofMinutes(1));
+
+        for (int i = 0; i < 3; i++) {
+            SnapshotRead<BeerDTO> read = beerSnapshotService.read(() -> {
+                databaseReads.incrementAndGet();
+                throw new DataAccessResourceFailureException("Connection pool exhausted");
+            }, this::fromSnapshot);
+
+            assertThat(read.isStale(), is(true));
+            assertThat(read.getAsOf(), is(START));
+            assertThat(read.getValue(), is(beerDTO));
+        }
+        assertThat(databaseReads.get(), is(2));
+        assertThat(beerSnapshotService.isDegraded(), is(true));
+    }
+
+    @Test
+    void whenDatabaseIsSlowerThanTheBudgetThenTheSnapshotAnswers() throws Exception {
+        long start = System.nanoTime();
+
+        SnapshotRead<BeerDTO> read = beerSnapshotService.read(() -> {
+            Thread.sleep(1_000);
+            return beerDTO;
+        }, this::fromSnapshot);
+
+        assertThat(read.isStale(), is(true));
+        assertThat(Duration.ofNanos(System.nanoTime() - start), is(lessThan(Duration.ofMillis(500))));
+    }
+
+    @Test
+    void whenBeerIsNotFoundThenTheDatabaseAnswerIsKept() {
+        assertThrows(BeerNotFoundException.class, () -> beerSnapshotService.read(() -> {
+            throw new BeerNotFoundException("Unknown");
+        }, this::fromSnapshot));
+        assertThat(beerSnapshotService.isDegraded(), is(false));
+    }
+
+    @Test
+    void whenCircuitHasBeenOpenLongEnoughThenABackgroundRefreshClosesIt() throws Exception {
+        openCircuit();
+        BeerDTO changedBeerDTO = BeerDTOBuilder.builder().quantity(3).build().toBeerDTO();
+        when(beerRepository.findAll()).thenReturn(Collections.singletonList(BeerMapper.INSTANCE.toModel(changedBeerDTO)));
+        clock.advance(Duration.ofSeconds(11));
+
+        SnapshotRead<BeerDTO> read = beerSnapshotService.read(() -> changedBeerDTO, this::fromSnapshot);
+
+        assertThat(read.isStale(), is(true));
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (beerSnapshotService.isDegraded() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(beerSnapshotService.isDegraded(), is(false));
+        assertThat(beerSnapshotService.findInSnapshot(beerDTO.getName()), is(equalTo(Optional.of(changedBeerDTO))));
+    }
+
+    @Test
+    void whenBeerChangesThenTheSnapshotFollows() {
+        BeerDTO changedBeerDTO = BeerDTOBuilder.builder().quantity(3).build().toBeerDTO();
+
+        beerSnapshotService.onBeerChanged(BeerChangedEvent.updated(beerDTO, changedBeerDTO));
+
+        assertThat(beerSnapshotService.listSnapshot(), contains(changedBeerDTO));
+    }
+
+    private BeerDTO fromSnapshot() throws BeerNotFoundException {
+        return beerSnapshotService.findInSnapshot(beerDTO.getName())
+                .orElseThrow(() -> new BeerNotFoundException(beerDTO.getName()));
+    }
+
+    private void openCircuit() throws Exception {
+        for (int i = 0; i < 2; i++) {
+            beerSnapshotService.read(() -> {
+                throw new DataAccessResourceFailureException("Connection pool exhausted");
+            }, this::fromSnapshot);
+        }
+        assertThat(beerSnapshotService.isDegraded(), is(true));
+    }
+
+    private static class MutableClock extends Clock {
+
+        private volatile Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
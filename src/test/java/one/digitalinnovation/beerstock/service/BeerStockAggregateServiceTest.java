@@ -0,0 +1,120 @@
+package one.digitalinnovation.beerstock.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.config.ReadYourWrites;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.StockAggregateDTO;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.BeerStockLevel;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BeerStockAggregateServiceTest {
+
+    @Mock
+    BeerRepository beerRepository;
+
+    @InjectMocks
+    BeerStockAggregateService beerStockAggregateService;
+
+    @Test
+    void whenServiceStartsThenAggregatesAreLoadedFromTheDatabase() {
+        when(beerRepository.findStockLevels()).thenReturn(Arrays.asList(
+                new Level(1L, BeerType.LAGER, "Ambev", 10, 50),
+                new Level(2L, BeerType.LAGER, "Ambev", 20, 50)));
+
+        beerStockAggregateService.rebuild();
+
+        assertThat(beerStockAggregateService.getByType(BeerType.LAGER), is(equalTo(new StockAggregateDTO(2, 30, 100))));
+        assertThat(beerStockAggregateService.getByType(BeerType.IPA), is(equalTo(new StockAggregateDTO(0, 0, 0))));
+        assertThat(beerStockAggregateService.getByBrand("Ambev"), is(equalTo(new StockAggregateDTO(2, 30, 100))));
+    }
+
+    @Test
+    void whenBeersChangeThenAggregatesAreUpdatedIncrementally() {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerDTO incrementedBeerDTO = BeerDTOBuilder.builder().quantity(25).build().toBeerDTO();
+
+        beerStockAggregateService.onBeerChanged(BeerChangedEvent.created(beerDTO));
+        beerStockAggregateService.onBeerChanged(BeerChangedEvent.updated(beerDTO, incrementedBeerDTO));
+
+        assertThat(beerStockAggregateService.getByType(BeerType.LAGER), is(equalTo(new StockAggregateDTO(1, 25, 50))));
+        assertThat(beerStockAggregateService.getByBrand("Ambev"), is(equalTo(new StockAggregateDTO(1, 25, 50))));
+
+        beerStockAggregateService.onBeerChanged(BeerChangedEvent.deleted(incrementedBeerDTO));
+
+        assertThat(beerStockAggregateService.getByType(BeerType.LAGER), is(equalTo(new StockAggregateDTO(0, 0, 0))));
+        assertThat(beerStockAggregateService.getAggregates().getByBrand(), is(anEmptyMap()));
+    }
+
+    @Test
+    void whenAggregatesDriftedThenVerificationReplacesThem() {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        beerStockAggregateService.onBeerChanged(BeerChangedEvent.created(beerDTO));
+        beerStockAggregateService.onBeerChanged(BeerChangedEvent.created(beerDTO));
+
+        when(beerRepository.findStockLevels()).thenReturn(Collections.singletonList(
+                new Level(1L, BeerType.LAGER, "Ambev", 10, 50)));
+
+        beerStockAggregateService.verify();
+
+        assertThat(beerStockAggregateService.getByType(BeerType.LAGER), is(equalTo(new StockAggregateDTO(1, 10, 50))));
+        assertThat(beerStockAggregateService.getByBrand("Ambev"), is(equalTo(new StockAggregateDTO(1, 10, 50))));
+    }
+
+    @Test
+    void whenAggregatesAreVerifiedThenStockLevelsAreReadFromThePrimary() {
+        when(beerRepository.findStockLevels()).thenAnswer(invocation -> {
+            assertThat(ReadYourWrites.current().isPrimaryOnly(), is(true));
+            return Collections.emptyList();
+        });
+
+        beerStockAggregateService.verify();
+
+        assertThat(ReadYourWrites.current().isPrimaryOnly(), is(false));
+    }
+
+    @Test
+    void whenBeersChangeWhileVerifyingThenChangesAlreadyLoadedAreNotCountedTwice() {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        BeerDTO incrementedBeerDTO = BeerDTOBuilder.builder().quantity(25).build().toBeerDTO();
+        BeerDTO otherBeerDTO = BeerDTOBuilder.builder().id(2L).name("Skol").quantity(5).build().toBeerDTO();
+        beerStockAggregateService.onBeerChanged(BeerChangedEvent.created(beerDTO));
+
+        when(beerRepository.findStockLevels()).thenAnswer(invocation -> {
+            beerStockAggregateService.onBeerChanged(BeerChangedEvent.updated(beerDTO, incrementedBeerDTO));
+            beerStockAggregateService.onBeerChanged(BeerChangedEvent.created(otherBeerDTO));
+            return Collections.singletonList(new Level(beerDTO.getId(), BeerType.LAGER, "Ambev", 25, 50));
+        });
+
+        beerStockAggregateService.verify();
+
+        assertThat(beerStockAggregateService.getByType(BeerType.LAGER), is(equalTo(new StockAggregateDTO(2, 30, 100))));
+        assertThat(beerStockAggregateService.getByBrand("Ambev"), is(equalTo(new StockAggregateDTO(2, 30, 100))));
+    }
+
+    @Getter
+    @AllArgsConstructor
+    private static class Level implements BeerStockLevel {
+        private final Long id;
+        private final BeerType type;
+        private final String brand;
+        private final int quantity;
+        private final int max;
+    }
+}
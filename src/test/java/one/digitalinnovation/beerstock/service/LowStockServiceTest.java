@@ -0,0 +1,142 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.config.LowStockProperties;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.LowStockBeerDTO;
+import one.digitalinnovation.beerstock.entity.Beer;
+import one.digitalinnovation.beerstock.enums.BeerType;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.event.LowStockEvent;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.mapper.BeerMapper;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LowStockServiceTest {
+
+    private static final BeerMapper beerMapper = BeerMapper.INSTANCE;
+
+    @Mock
+    BeerRepository beerRepository;
+
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    LowStockService lowStockService;
+
+    @BeforeEach
+    void setUp() {
+        LowStockProperties lowStockProperties = new LowStockProperties();
+        lowStockProperties.setDefaultThreshold(0.2);
+        lowStockService = new LowStockService(beerRepository, eventPublisher, lowStockProperties);
+    }
+
+    @Test
+    void whenBeerFallsBelowThresholdThenItIsWatchedAndAnAlertIsPublished() {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().quantity(20).max(50).build().toBeerDTO();
+        BeerDTO decrementedBeerDTO = BeerDTOBuilder.builder().quantity(5).max(50).build().toBeerDTO();
+
+        lowStockService.onBeerChanged(BeerChangedEvent.created(beerDTO));
+        assertThat(lowStockService.getWatchList(), is(empty()));
+
+        lowStockService.onBeerChanged(BeerChangedEvent.updated(beerDTO, decrementedBeerDTO));
+
+        List<LowStockBeerDTO> watchList = lowStockService.getWatchList();
+        assertThat(watchList, hasSize(1));
+        assertThat(watchList.get(0).getFillRatio(), is(closeTo(0.1, 0.0001)));
+        verify(eventPublisher).publishEvent(new LowStockEvent(decrementedBeerDTO, 0.1, 0.2, true));
+    }
+
+    @Test
+    void whenBeerRecoversThenItLeavesTheWatchList() {
+        BeerDTO lowBeerDTO = BeerDTOBuilder.builder().quantity(5).max(50).build().toBeerDTO();
+        BeerDTO incrementedBeerDTO = BeerDTOBuilder.builder().quantity(30).max(50).build().toBeerDTO();
+        lowStockService.onBeerChanged(BeerChangedEvent.created(lowBeerDTO));
+
+        lowStockService.onBeerChanged(BeerChangedEvent.updated(lowBeerDTO, incrementedBeerDTO));
+
+        assertThat(lowStockService.getWatchList(), is(empty()));
+        verify(eventPublisher).publishEvent(new LowStockEvent(incrementedBeerDTO, 0.6, 0.2, false));
+    }
+
+    @Test
+    void whenWatchListIsReadThenEmptiestBeersComeFirst() {
+        BeerDTO almostEmpty = BeerDTOBuilder.builder().id(1L).name("Brahma").quantity(1).max(50).build().toBeerDTO();
+        BeerDTO empty = BeerDTOBuilder.builder().id(2L).name("Skol").quantity(0).max(50).build().toBeerDTO();
+        BeerDTO full = BeerDTOBuilder.builder().id(3L).name("Heineken").quantity(50).max(50).build().toBeerDTO();
+
+        lowStockService.onBeerChanged(BeerChangedEvent.created(almostEmpty));
+        lowStockService.onBeerChanged(BeerChangedEvent.created(empty));
+        lowStockService.onBeerChanged(BeerChangedEvent.created(full));
+
+        List<LowStockBeerDTO> watchList = lowStockService.getWatchList();
+        assertThat(watchList, hasSize(2));
+        assertThat(watchList.get(0).getBeer(), is(equalTo(empty)));
+        assertThat(watchList.get(1).getBeer(), is(equalTo(almostEmpty)));
+
+        lowStockService.onBeerChanged(BeerChangedEvent.deleted(empty));
+        assertThat(lowStockService.getWatchList(), hasSize(1));
+    }
+
+    @Test
+    void whenBeerThresholdIsSetThenItOverridesTheDefault() throws BeerNotFoundException {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().quantity(20).max(50).build().toBeerDTO();
+        when(beerRepository.findById(beerDTO.getId())).thenReturn(Optional.of(beerMapper.toModel(beerDTO)));
+
+        LowStockBeerDTO lowStockBeer = lowStockService.setBeerThreshold(beerDTO.getId(), 0.5);
+
+        assertThat(lowStockBeer.getThreshold(), is(0.5));
+        assertThat(lowStockService.getWatchList(), hasSize(1));
+    }
+
+    @Test
+    void whenTypeThresholdIsSetThenBeersOfTheTypeAreReevaluated() {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().quantity(20).max(50).type(BeerType.IPA).build().toBeerDTO();
+        when(beerRepository.findAll(ArgumentMatchers.<Specification<Beer>>any()))
+                .thenReturn(Collections.singletonList(beerMapper.toModel(beerDTO)));
+
+        lowStockService.setTypeThreshold(BeerType.IPA, 0.5);
+
+        assertThat(lowStockService.getWatchList(), hasSize(1));
+        assertThat(lowStockService.getWatchList().get(0).getThreshold(), is(0.5));
+    }
+
+    @Test
+    void whenThresholdIsSetForAnInvalidIdThenAnExceptionIsThrown() {
+        when(beerRepository.findById(2L)).thenReturn(Optional.empty());
+
+        assertThrows(BeerNotFoundException.class, () -> lowStockService.setBeerThreshold(2L, 0.5));
+    }
+
+    @Test
+    void whenServiceStartsThenOnlyCandidatesBelowTheHighestThresholdAreLoaded() {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().quantity(5).max(50).build().toBeerDTO();
+        when(beerRepository.findAll(ArgumentMatchers.<Specification<Beer>>any()))
+                .thenReturn(Collections.singletonList(beerMapper.toModel(beerDTO)));
+
+        lowStockService.loadWatchList();
+
+        assertThat(lowStockService.getWatchList(), hasSize(1));
+        verify(beerRepository, never()).findAll();
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+}
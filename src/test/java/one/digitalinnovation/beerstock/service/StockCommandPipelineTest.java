@@ -0,0 +1,195 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.config.ShardDataSourceProperties;
+import one.digitalinnovation.beerstock.config.StockPipelineProperties;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.StockCommandDTO;
+import one.digitalinnovation.beerstock.enums.StockCommandStatus;
+import one.digitalinnovation.beerstock.enums.StockOperation;
+import one.digitalinnovation.beerstock.exception.NegativeBeerStockException;
+import one.digitalinnovation.beerstock.exception.StockCommandNotFoundException;
+import one.digitalinnovation.beerstock.exception.StockPipelineSaturatedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class StockCommandPipelineTest {
+
+    private static final long VALID_BEER_ID = 1L;
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    @Mock
+    BeerService beerService;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    @Mock
+    ObjectProvider<ShardDataSourceProperties> shardProperties;
+
+    StockPipelineProperties pipelineProperties;
+
+    StockCommandPipeline stockCommandPipeline;
+
+    @BeforeEach
+    void setUp() {
+        pipelineProperties = new StockPipelineProperties();
+        pipelineProperties.setPartitions(2);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        stockCommandPipeline.stop();
+    }
+
+    @Test
+    void whenCommandIsAwaitedThenTheMovedBeerIsReturned() throws Exception {
+        BeerDTO incrementedBeerDTO = BeerDTOBuilder.builder().quantity(15).build().toBeerDTO();
+        when(beerService.applyStockCommands(VALID_BEER_ID, commands(5)))
+                .thenReturn(Collections.singletonList(incrementedBeerDTO));
+        start();
+
+        UUID commandId = stockCommandPipeline.submit(VALID_BEER_ID, StockOperation.INCREMENT, 5);
+
+        assertThat(stockCommandPipeline.await(commandId, TIMEOUT).getBeer(), is(equalTo(incrementedBeerDTO)));
+        assertThat(stockCommandPipeline.getStatus(commandId).getStatus(), is(StockCommandStatus.APPLIED));
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void whenCommandIsRejectedThenItsExceptionIsRethrownAndReportedInItsStatus() throws Exception {
+        when(beerService.applyStockCommands(VALID_BEER_ID,
+                Collections.singletonList(new StockCommandDTO(StockOperation.DECREMENT, 50))))
+                .thenReturn(Collections.singletonList(new NegativeBeerStockException(VALID_BEER_ID, 50, 10)));
+        start();
+
+        UUID commandId = stockCommandPipeline.submit(VALID_BEER_ID, StockOperation.DECREMENT, 50);
+
+        assertThrows(NegativeBeerStockException.class, () -> stockCommandPipeline.await(commandId, TIMEOUT));
+        assertThat(stockCommandPipeline.getStatus(commandId).getStatus(), is(StockCommandStatus.REJECTED));
+        assertThat(stockCommandPipeline.getStatus(commandId).getError(), containsString("exceeds the quantity in stock"));
+    }
+
+    @Test
+    void whenCommandsQueueUpThenTheyAreFoldedIntoOneChangePerBeerInOneTransaction() throws Exception {
+        CountDownLatch firstCommandStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstCommand = new CountDownLatch(1);
+        List<List<StockCommandDTO>> appliedCommands = new CopyOnWriteArrayList<>();
+        when(beerService.applyStockCommands(eq(VALID_BEER_ID), anyList())).then(invocation -> {
+            List<StockCommandDTO> commands = invocation.getArgument(1);
+            if (commands.get(0).getQuantity() == 0) {
+                firstCommandStarted.countDown();
+                releaseFirstCommand.await();
+            }
+            appliedCommands.add(commands);
+            return commands.stream()
+                    .map(command -> BeerDTOBuilder.builder().quantity(command.getQuantity()).build().toBeerDTO())
+                    .collect(Collectors.toList());
+        });
+        start();
+
+        stockCommandPipeline.submit(VALID_BEER_ID, StockOperation.INCREMENT, 0);
+        firstCommandStarted.await();
+        UUID lastCommandId = null;
+        for (int quantity = 1; quantity <= 20; quantity++) {
+            lastCommandId = stockCommandPipeline.submit(VALID_BEER_ID, StockOperation.INCREMENT, quantity);
+        }
+        releaseFirstCommand.countDown();
+
+        assertThat(stockCommandPipeline.await(lastCommandId, TIMEOUT).getBeer().getQuantity(), is(20));
+        assertThat(appliedCommands, contains(commands(0), commands(IntStream.rangeClosed(1, 20).toArray())));
+        verify(transactionManager, times(2)).commit(any());
+    }
+
+    @Test
+    void whenFoldedChangeFailsThenEachCommandIsRetriedAlone() throws Exception {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        CountDownLatch firstCommandStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstCommand = new CountDownLatch(1);
+        when(beerService.applyStockCommands(eq(VALID_BEER_ID), anyList())).then(invocation -> {
+            List<StockCommandDTO> commands = invocation.getArgument(1);
+            if (commands.get(0).getQuantity() == 0) {
+                firstCommandStarted.countDown();
+                releaseFirstCommand.await();
+            }
+            if (commands.size() > 1) {
+                throw new IllegalStateException("Row lock timeout");
+            }
+            return Collections.singletonList(beerDTO);
+        });
+        start();
+
+        stockCommandPipeline.submit(VALID_BEER_ID, StockOperation.INCREMENT, 0);
+        firstCommandStarted.await();
+        UUID firstQueuedId = stockCommandPipeline.submit(VALID_BEER_ID, StockOperation.INCREMENT, 1);
+        UUID secondQueuedId = stockCommandPipeline.submit(VALID_BEER_ID, StockOperation.DECREMENT, 2);
+        releaseFirstCommand.countDown();
+
+        assertThat(stockCommandPipeline.await(firstQueuedId, TIMEOUT).getStatus(), is(StockCommandStatus.APPLIED));
+        assertThat(stockCommandPipeline.await(secondQueuedId, TIMEOUT).getStatus(), is(StockCommandStatus.APPLIED));
+        verify(beerService).applyStockCommands(VALID_BEER_ID, Collections.singletonList(new StockCommandDTO(StockOperation.DECREMENT, 2)));
+    }
+
+    @Test
+    void whenPartitionQueueIsFullThenSubmissionIsRefused() throws Exception {
+        pipelineProperties.setPartitions(1);
+        pipelineProperties.setQueueCapacity(1);
+        CountDownLatch firstCommandStarted = new CountDownLatch(1);
+        CountDownLatch releaseFirstCommand = new CountDownLatch(1);
+        when(beerService.applyStockCommands(eq(VALID_BEER_ID), anyList())).then(invocation -> {
+            firstCommandStarted.countDown();
+            releaseFirstCommand.await();
+            return Collections.singletonList(BeerDTOBuilder.builder().build().toBeerDTO());
+        });
+        start();
+
+        stockCommandPipeline.submit(VALID_BEER_ID, StockOperation.INCREMENT, 1);
+        firstCommandStarted.await();
+        stockCommandPipeline.submit(VALID_BEER_ID, StockOperation.INCREMENT, 1);
+
+        assertThrows(StockPipelineSaturatedException.class,
+                () -> stockCommandPipeline.submit(VALID_BEER_ID, StockOperation.INCREMENT, 1));
+        releaseFirstCommand.countDown();
+    }
+
+    @Test
+    void whenUnknownCommandIsLookedUpThenAnExceptionShouldBeThrown() {
+        start();
+
+        assertThrows(StockCommandNotFoundException.class, () -> stockCommandPipeline.getStatus(UUID.randomUUID()));
+    }
+
+    private static List<StockCommandDTO> commands(int... increments) {
+        return IntStream.of(increments)
+                .mapToObj(quantity -> new StockCommandDTO(StockOperation.INCREMENT, quantity))
+                .collect(Collectors.toList());
+    }
+
+    private void start() {
+        stockCommandPipeline = new StockCommandPipeline(beerService, transactionManager, pipelineProperties, shardProperties);
+    }
+}
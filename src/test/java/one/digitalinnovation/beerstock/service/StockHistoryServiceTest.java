@@ -0,0 +1,175 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.config.StockHistoryProperties;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.StockHistoryDTO;
+import one.digitalinnovation.beerstock.dto.StockPointDTO;
+import one.digitalinnovation.beerstock.enums.StockResolution;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.InvalidStockHistoryRangeException;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class StockHistoryServiceTest {
+
+    private static final long VALID_BEER_ID = 1L;
+    private static final long INVALID_BEER_ID = 2L;
+    private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+
+    @Mock
+    BeerRepository beerRepository;
+
+    MutableClock clock;
+
+    StockHistoryService stockHistoryService;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(START);
+        stockHistoryService = new StockHistoryService(beerRepository, new StockHistoryProperties(), clock);
+    }
+
+    @Test
+    void whenStockChangesWithinAMinuteThenItsRollupHoldsMinMaxAndLast() throws Exception {
+        BeerDTO beerDTO = beerWithQuantity(10);
+        stockHistoryService.onBeerChanged(BeerChangedEvent.created(beerDTO));
+        clock.advance(Duration.ofMinutes(1));
+        BeerDTO decrementedBeerDTO = changeQuantity(beerDTO, 4, Duration.ofSeconds(10));
+        changeQuantity(decrementedBeerDTO, 7, Duration.ofSeconds(10));
+
+        StockHistoryDTO history = stockHistoryService.getHistory(VALID_BEER_ID, START, clock.instant(), StockResolution.MINUTE);
+
+        assertThat(history.getPoints(), contains(
+                new StockPointDTO(START, 10, 10, 10),
+                new StockPointDTO(START.plus(Duration.ofMinutes(1)), 4, 10, 7)));
+    }
+
+    @Test
+    void whenRawChangesAreReadThenEveryChangeIsReturned() throws Exception {
+        BeerDTO beerDTO = beerWithQuantity(10);
+        stockHistoryService.onBeerChanged(BeerChangedEvent.created(beerDTO));
+        changeQuantity(beerDTO, 12, Duration.ofSeconds(1));
+
+        StockHistoryDTO history = stockHistoryService.getHistory(VALID_BEER_ID, START, null, null);
+
+        assertThat(history.getResolution(), is(StockResolution.RAW));
+        assertThat(history.getPoints(), contains(
+                new StockPointDTO(START, 10, 10, 10),
+                new StockPointDTO(START.plusSeconds(1), 12, 12, 12)));
+    }
+
+    @Test
+    void whenRangeIsLongThenRollupsAreRead() throws Exception {
+        stockHistoryService.onBeerChanged(BeerChangedEvent.created(beerWithQuantity(10)));
+
+        assertThat(history(Duration.ofHours(12)).getResolution(), is(StockResolution.MINUTE));
+        assertThat(history(Duration.ofDays(30)).getResolution(), is(StockResolution.HOUR));
+        assertThat(history(Duration.ofDays(365)).getResolution(), is(StockResolution.DAY));
+    }
+
+    @Test
+    void whenRawRetentionExpiresThenRollupsAreKept() throws Exception {
+        BeerDTO beerDTO = beerWithQuantity(10);
+        stockHistoryService.onBeerChanged(BeerChangedEvent.created(beerDTO));
+        changeQuantity(beerDTO, 20, Duration.ofDays(1));
+
+        stockHistoryService.evictExpired();
+
+        assertThat(stockHistoryService.getHistory(VALID_BEER_ID, START, clock.instant(), StockResolution.RAW).getPoints(),
+                contains(new StockPointDTO(clock.instant(), 20, 20, 20)));
+        assertThat(stockHistoryService.getHistory(VALID_BEER_ID, START, clock.instant(), StockResolution.DAY).getPoints(),
+                hasSize(2));
+    }
+
+    @Test
+    void whenOnlyOtherFieldsChangeThenNoPointIsRecorded() throws Exception {
+        BeerDTO beerDTO = beerWithQuantity(10);
+        stockHistoryService.onBeerChanged(BeerChangedEvent.created(beerDTO));
+        BeerDTO renamedBeerDTO = BeerDTOBuilder.builder().name("Skol").quantity(10).build().toBeerDTO();
+        clock.advance(Duration.ofSeconds(1));
+        stockHistoryService.onBeerChanged(BeerChangedEvent.updated(beerDTO, renamedBeerDTO));
+
+        assertThat(stockHistoryService.getHistory(VALID_BEER_ID, START, null, StockResolution.RAW).getPoints(), hasSize(1));
+    }
+
+    @Test
+    void whenBeerWithoutHistoryIsQueriedThenAnEmptySeriesIsReturned() throws Exception {
+        when(beerRepository.existsById(VALID_BEER_ID)).thenReturn(true);
+
+        assertThat(stockHistoryService.getHistory(VALID_BEER_ID, null, null, null).getPoints(), is(empty()));
+    }
+
+    @Test
+    void whenNotRegisteredBeerIsQueriedThenAnExceptionShouldBeThrown() {
+        when(beerRepository.existsById(INVALID_BEER_ID)).thenReturn(false);
+
+        assertThrows(BeerNotFoundException.class, () -> stockHistoryService.getHistory(INVALID_BEER_ID, null, null, null));
+    }
+
+    @Test
+    void whenRangeStartsAfterItEndsThenAnExceptionShouldBeThrown() {
+        assertThrows(InvalidStockHistoryRangeException.class,
+                () -> stockHistoryService.getHistory(VALID_BEER_ID, START.plusSeconds(1), START, null));
+    }
+
+    private StockHistoryDTO history(Duration range) throws Exception {
+        return stockHistoryService.getHistory(VALID_BEER_ID, clock.instant().minus(range), null, null);
+    }
+
+    private BeerDTO changeQuantity(BeerDTO beerDTO, int quantity, Duration after) {
+        clock.advance(after);
+        BeerDTO changedBeerDTO = beerWithQuantity(quantity);
+        stockHistoryService.onBeerChanged(BeerChangedEvent.updated(beerDTO, changedBeerDTO));
+        return changedBeerDTO;
+    }
+
+    private static BeerDTO beerWithQuantity(int quantity) {
+        return BeerDTOBuilder.builder().id(VALID_BEER_ID).quantity(quantity).build().toBeerDTO();
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
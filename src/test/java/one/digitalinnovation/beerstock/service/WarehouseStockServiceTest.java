@@ -0,0 +1,213 @@
+package one.digitalinnovation.beerstock.service;
+
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.config.ReadYourWrites;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.BeerStockTotalDTO;
+import one.digitalinnovation.beerstock.dto.WarehouseStockDTO;
+import one.digitalinnovation.beerstock.entity.WarehouseStock;
+import one.digitalinnovation.beerstock.entity.WarehouseStockId;
+import one.digitalinnovation.beerstock.event.BeerChangedEvent;
+import one.digitalinnovation.beerstock.event.WarehouseStockChangedEvent;
+import one.digitalinnovation.beerstock.exception.BeerNotFoundException;
+import one.digitalinnovation.beerstock.exception.BeerStockExceededException;
+import one.digitalinnovation.beerstock.exception.InvalidWarehouseStockException;
+import one.digitalinnovation.beerstock.exception.NegativeBeerStockException;
+import one.digitalinnovation.beerstock.exception.WarehouseStockNotFoundException;
+import one.digitalinnovation.beerstock.repository.BeerRepository;
+import one.digitalinnovation.beerstock.repository.WarehouseStockRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class WarehouseStockServiceTest {
+
+    private static final Long BEER_ID = 1L;
+    private static final WarehouseStockId NORTH = new WarehouseStockId(BEER_ID, "north");
+
+    @Mock
+    WarehouseStockRepository warehouseStockRepository;
+
+    @Mock
+    BeerRepository beerRepository;
+
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    WarehouseStockService warehouseStockService;
+
+    @Test
+    void whenWarehouseIsAddedThenItsStockIsSavedAndCounted() throws Exception {
+        WarehouseStockDTO warehouseStockDTO = new WarehouseStockDTO(null, 50, 10);
+        when(beerRepository.existsById(BEER_ID)).thenReturn(true);
+        when(warehouseStockRepository.findLockedById(NORTH)).thenReturn(Optional.empty());
+        when(warehouseStockRepository.save(any(WarehouseStock.class))).then(invocation -> invocation.getArgument(0));
+
+        WarehouseStockDTO savedStockDTO = warehouseStockService.setStock(BEER_ID, "north", warehouseStockDTO);
+
+        assertThat(savedStockDTO, is(equalTo(new WarehouseStockDTO("north", 50, 10))));
+        verify(eventPublisher).publishEvent(WarehouseStockChangedEvent.added(BEER_ID, "north", 10, 50));
+    }
+
+    @Test
+    void whenWarehouseStockIsReplacedThenTheLockedRowIsUpdatedAndOnlyTheDifferenceIsPublished() throws Exception {
+        WarehouseStock stock = new WarehouseStock(NORTH, 50, 10);
+        when(beerRepository.existsById(BEER_ID)).thenReturn(true);
+        when(warehouseStockRepository.findLockedById(NORTH)).thenReturn(Optional.of(stock));
+
+        warehouseStockService.setStock(BEER_ID, "north", new WarehouseStockDTO(null, 40, 25));
+
+        assertThat(stock, is(equalTo(new WarehouseStock(NORTH, 40, 25))));
+        verify(warehouseStockRepository, never()).findById(any());
+        verify(eventPublisher).publishEvent(WarehouseStockChangedEvent.changed(BEER_ID, "north", 15, -10, 25, 40));
+    }
+
+    @Test
+    void whenQuantityIsAboveMaxThenAnExceptionIsThrown() {
+        when(beerRepository.existsById(BEER_ID)).thenReturn(true);
+
+        assertThrows(InvalidWarehouseStockException.class,
+                () -> warehouseStockService.setStock(BEER_ID, "north", new WarehouseStockDTO(null, 10, 11)));
+        verify(warehouseStockRepository, never()).save(any());
+    }
+
+    @Test
+    void whenStockIsSetForAnInvalidBeerThenAnExceptionIsThrown() {
+        when(beerRepository.existsById(BEER_ID)).thenReturn(false);
+
+        assertThrows(BeerNotFoundException.class,
+                () -> warehouseStockService.setStock(BEER_ID, "north", new WarehouseStockDTO(null, 10, 1)));
+    }
+
+    @Test
+    void whenDecrementFitsTheWarehouseThenTheNewStockIsReturned() throws Exception {
+        when(warehouseStockRepository.decrementQuantity(BEER_ID, "north", 4)).thenReturn(1);
+        when(warehouseStockRepository.findById(NORTH)).thenReturn(Optional.of(new WarehouseStock(NORTH, 50, 6)));
+
+        WarehouseStockDTO decrementedStockDTO = warehouseStockService.decrement(BEER_ID, "north", 4);
+
+        assertThat(decrementedStockDTO.getQuantity(), is(6));
+        verify(eventPublisher).publishEvent(WarehouseStockChangedEvent.changed(BEER_ID, "north", -4, 0, 6, 50));
+    }
+
+    @Test
+    void whenDecrementIsAboveTheWarehouseStockThenAnExceptionIsThrown() {
+        when(warehouseStockRepository.decrementQuantity(BEER_ID, "north", 11)).thenReturn(0);
+        when(warehouseStockRepository.findById(NORTH)).thenReturn(Optional.of(new WarehouseStock(NORTH, 50, 10)));
+
+        assertThrows(NegativeBeerStockException.class, () -> warehouseStockService.decrement(BEER_ID, "north", 11));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void whenIncrementIsAboveTheWarehouseMaxThenAnExceptionIsThrown() {
+        when(warehouseStockRepository.incrementQuantity(BEER_ID, "north", 41)).thenReturn(0);
+        when(warehouseStockRepository.findById(NORTH)).thenReturn(Optional.of(new WarehouseStock(NORTH, 50, 10)));
+
+        assertThrows(BeerStockExceededException.class, () -> warehouseStockService.increment(BEER_ID, "north", 41));
+    }
+
+    @Test
+    void whenWarehouseIsUnknownThenAnExceptionIsThrown() {
+        when(warehouseStockRepository.incrementQuantity(BEER_ID, "east", 1)).thenReturn(0);
+        when(warehouseStockRepository.findById(new WarehouseStockId(BEER_ID, "east"))).thenReturn(Optional.empty());
+
+        assertThrows(WarehouseStockNotFoundException.class, () -> warehouseStockService.increment(BEER_ID, "east", 1));
+    }
+
+    @Test
+    void whenStockChangesThenTotalsAreUpdatedWithoutQueries() throws Exception {
+        when(warehouseStockRepository.findAll()).thenReturn(Arrays.asList(
+                new WarehouseStock(NORTH, 50, 20), new WarehouseStock(new WarehouseStockId(BEER_ID, "south"), 20, 10)));
+        warehouseStockService.loadTotals();
+
+        warehouseStockService.onStockChanged(WarehouseStockChangedEvent.changed(BEER_ID, "north", -4, 0, 16, 50));
+        warehouseStockService.onStockChanged(WarehouseStockChangedEvent.added(BEER_ID, "east", 5, 10));
+
+        assertThat(warehouseStockService.getTotal(BEER_ID), is(equalTo(new BeerStockTotalDTO(BEER_ID, 3, 31, 80))));
+        verify(beerRepository, never()).existsById(any());
+    }
+
+    @Test
+    void whenTotalsDriftedThenVerificationReplacesThem() throws Exception {
+        warehouseStockService.onStockChanged(WarehouseStockChangedEvent.added(BEER_ID, "north", 10, 50));
+        warehouseStockService.onStockChanged(WarehouseStockChangedEvent.changed(BEER_ID, "north", 7, 0, 17, 50));
+        when(warehouseStockRepository.findAll()).thenReturn(Collections.singletonList(new WarehouseStock(NORTH, 50, 12)));
+
+        warehouseStockService.verify();
+
+        assertThat(warehouseStockService.getTotal(BEER_ID), is(equalTo(new BeerStockTotalDTO(BEER_ID, 1, 12, 50))));
+    }
+
+    @Test
+    void whenTotalsAreVerifiedThenLocationsAreReadFromThePrimary() {
+        when(warehouseStockRepository.findAll()).thenAnswer(invocation -> {
+            assertThat(ReadYourWrites.current().isPrimaryOnly(), is(true));
+            return Collections.emptyList();
+        });
+
+        warehouseStockService.verify();
+
+        verify(warehouseStockRepository).findAll();
+        assertThat(ReadYourWrites.current().isPrimaryOnly(), is(false));
+    }
+
+    @Test
+    void whenStockChangesWhileVerifyingThenChangesAlreadyLoadedAreNotCountedTwice() throws Exception {
+        warehouseStockService.onStockChanged(WarehouseStockChangedEvent.added(BEER_ID, "north", 10, 50));
+        when(warehouseStockRepository.findAll()).thenAnswer(invocation -> {
+            warehouseStockService.onStockChanged(WarehouseStockChangedEvent.changed(BEER_ID, "north", 5, 0, 15, 50));
+            warehouseStockService.onStockChanged(WarehouseStockChangedEvent.added(BEER_ID, "east", 3, 10));
+            return Collections.singletonList(new WarehouseStock(NORTH, 50, 15));
+        });
+
+        warehouseStockService.verify();
+
+        assertThat(warehouseStockService.getTotal(BEER_ID), is(equalTo(new BeerStockTotalDTO(BEER_ID, 2, 18, 60))));
+    }
+
+    @Test
+    void whenBeerIsDeletedThenItsWarehousesAndTotalsAreRemoved() throws Exception {
+        warehouseStockService.onStockChanged(WarehouseStockChangedEvent.added(BEER_ID, "north", 10, 50));
+        when(beerRepository.existsById(BEER_ID)).thenReturn(true);
+
+        warehouseStockService.onBeerChanged(BeerChangedEvent.deleted(BeerDTOBuilder.builder().build().toBeerDTO()));
+
+        verify(warehouseStockRepository).deleteByBeerId(BEER_ID);
+        assertThat(warehouseStockService.getTotal(BEER_ID), is(equalTo(new BeerStockTotalDTO(BEER_ID, 0, 0, 0))));
+    }
+
+    @Test
+    void whenBeerIsArchivedThenItsTotalsAreDroppedAndReloadedOnRestoreWithoutDeletingRows() throws Exception {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        warehouseStockService.onStockChanged(WarehouseStockChangedEvent.added(BEER_ID, "north", 10, 50));
+        when(beerRepository.existsById(BEER_ID)).thenReturn(true);
+
+        warehouseStockService.onBeerArchived(BeerChangedEvent.archived(beerDTO));
+
+        assertThat(warehouseStockService.getTotal(BEER_ID), is(equalTo(new BeerStockTotalDTO(BEER_ID, 0, 0, 0))));
+
+        when(warehouseStockRepository.findByIdBeerIdOrderByIdWarehouse(BEER_ID)).thenReturn(Arrays.asList(
+                new WarehouseStock(NORTH, 50, 10), new WarehouseStock(new WarehouseStockId(BEER_ID, "south"), 20, 5)));
+
+        warehouseStockService.onBeerArchived(BeerChangedEvent.restored(beerDTO));
+
+        verify(warehouseStockRepository, never()).deleteByBeerId(any());
+        assertThat(warehouseStockService.getTotal(BEER_ID), is(equalTo(new BeerStockTotalDTO(BEER_ID, 2, 15, 70))));
+    }
+}
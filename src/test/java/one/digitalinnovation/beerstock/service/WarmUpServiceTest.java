@@ -0,0 +1,93 @@
+package one.digitalinnovation.beerstock.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import one.digitalinnovation.beerstock.builder.BeerDTOBuilder;
+import one.digitalinnovation.beerstock.config.SyntheticTraffic;
+import one.digitalinnovation.beerstock.config.WarmUpProperties;
+import one.digitalinnovation.beerstock.controller.BeerController;
+import one.digitalinnovation.beerstock.dto.BeerDTO;
+import one.digitalinnovation.beerstock.dto.WarmUpReportDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class WarmUpServiceTest {
+
+    @Mock
+    BeerController beerController;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    WarmUpProperties warmUpProperties;
+
+    WarmUpService warmUpService;
+
+    @BeforeEach
+    void setUp() {
+        warmUpProperties = new WarmUpProperties();
+        warmUpProperties.setRoundSize(5);
+        warmUpProperties.setMinIterations(10);
+        warmUpProperties.setMaxIterations(20);
+        warmUpProperties.setMaxDuration(Duration.ofSeconds(30));
+        warmUpService = new WarmUpService(beerController, new ObjectMapper(), transactionManager, eventPublisher, warmUpProperties);
+    }
+
+    @Test
+    void whenWarmUpRunsThenEveryIterationIsRolledBackAndReported() throws Exception {
+        BeerDTO beerDTO = BeerDTOBuilder.builder().build().toBeerDTO();
+        when(beerController.createBeer(any(BeerDTO.class))).then(invocation -> {
+            assertThat(SyntheticTraffic.isActive(), is(true));
+            return beerDTO;
+        });
+        when(beerController.decrement(eq(beerDTO.getId()), any(), isNull())).thenReturn(ResponseEntity.ok(beerDTO));
+
+        warmUpService.warmUp();
+
+        assertThat(SyntheticTraffic.isActive(), is(false));
+        WarmUpReportDTO report = warmUpService.getReport();
+        assertThat(report.getIterations(), is(both(greaterThanOrEqualTo(10L)).and(lessThanOrEqualTo(20L))));
+        assertThat(report.getFailedIterations(), is(0L));
+        verify(transactionManager, times((int) report.getIterations())).rollback(any());
+        verify(transactionManager, never()).commit(any());
+        verify(beerController, times((int) report.getIterations())).deleteById(beerDTO.getId());
+    }
+
+    @Test
+    void whenWarmUpStartsThenReadinessIsRefused() {
+        warmUpService.warmUp();
+
+        verify(eventPublisher).publishEvent(argThat((ApplicationEvent event) -> event instanceof AvailabilityChangeEvent
+                && ((AvailabilityChangeEvent<?>) event).getState() == ReadinessState.REFUSING_TRAFFIC));
+    }
+
+    @Test
+    void whenIterationsFailThenTheyAreCountedAndWarmUpStillEnds() {
+        warmUpProperties.setMaxIterations(10);
+
+        warmUpService.warmUp();
+
+        assertThat(warmUpService.getReport().getIterations(), is(10L));
+        assertThat(warmUpService.getReport().getFailedIterations(), is(10L));
+    }
+}
@@ -0,0 +1,22 @@
+CREATE TABLE IF NOT EXISTS beer (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    name VARCHAR(255) NOT NULL UNIQUE,
+    brand_id INT NOT NULL,
+    max INT NOT NULL,
+    quantity INT NOT NULL,
+    type VARCHAR(255) NOT NULL,
+    version BIGINT DEFAULT 0,
+    out_of_stock_since TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS archived_beer (
+    id BIGINT PRIMARY KEY,
+    name VARCHAR(255) NOT NULL,
+    brand_id INT NOT NULL,
+    max INT NOT NULL,
+    quantity INT NOT NULL,
+    type VARCHAR(255) NOT NULL,
+    version BIGINT,
+    out_of_stock_since TIMESTAMP,
+    archived_at TIMESTAMP NOT NULL
+);